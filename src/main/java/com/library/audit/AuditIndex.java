@@ -0,0 +1,172 @@
+package com.library.audit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Sparse sidecar index for a sealed audit segment: overall and per-block time ranges plus Bloom
+ * filters over usernames and operations, so queries can skip segments and blocks without reading them.
+ */
+final class AuditIndex {
+    
+    static final int BLOCK_RECORDS = 1024;
+    
+    private static final int MAGIC = 0x41494458;
+    private static final int VERSION = 1;
+    private static final int USERNAME_BLOOM_BITS = 1 << 16;
+    private static final int OPERATION_BLOOM_BITS = 1 << 10;
+    private static final int BLOOM_HASHES = 4;
+    
+    private final int recordCount;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final long[] blockMin;
+    private final long[] blockMax;
+    private final long[] usernameBloom;
+    private final long[] operationBloom;
+    
+    private AuditIndex(int recordCount, long minTimestamp, long maxTimestamp, long[] blockMin, long[] blockMax,
+                       long[] usernameBloom, long[] operationBloom) {
+        this.recordCount = recordCount;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.blockMin = blockMin;
+        this.blockMax = blockMax;
+        this.usernameBloom = usernameBloom;
+        this.operationBloom = operationBloom;
+    }
+    
+    static AuditIndex build(ByteBuffer segment, int usedBytes) {
+        int records = usedBytes / AuditRecord.SIZE;
+        int blocks = (records + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        long[] blockMin = new long[blocks];
+        long[] blockMax = new long[blocks];
+        long[] usernameBloom = new long[USERNAME_BLOOM_BITS / 64];
+        long[] operationBloom = new long[OPERATION_BLOOM_BITS / 64];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        
+        for (int block = 0; block < blocks; block++) {
+            long bMin = Long.MAX_VALUE;
+            long bMax = Long.MIN_VALUE;
+            int end = Math.min(records, (block + 1) * BLOCK_RECORDS);
+            for (int record = block * BLOCK_RECORDS; record < end; record++) {
+                int base = record * AuditRecord.SIZE;
+                long timestamp = AuditRecord.timestamp(segment, base);
+                bMin = Math.min(bMin, timestamp);
+                bMax = Math.max(bMax, timestamp);
+                addToBloom(usernameBloom, AuditRecord.fieldHash(segment, base + AuditRecord.USERNAME_OFFSET));
+                addToBloom(operationBloom, AuditRecord.fieldHash(segment, base + AuditRecord.OPERATION_OFFSET));
+            }
+            blockMin[block] = bMin;
+            blockMax[block] = bMax;
+            min = Math.min(min, bMin);
+            max = Math.max(max, bMax);
+        }
+        
+        return new AuditIndex(records, min, max, blockMin, blockMax, usernameBloom, operationBloom);
+    }
+    
+    static AuditIndex read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an audit index: " + path);
+            }
+            int recordCount = in.readInt();
+            long minTimestamp = in.readLong();
+            long maxTimestamp = in.readLong();
+            long[] blockMin = readLongs(in);
+            long[] blockMax = readLongs(in);
+            long[] usernameBloom = readLongs(in);
+            long[] operationBloom = readLongs(in);
+            return new AuditIndex(recordCount, minTimestamp, maxTimestamp, blockMin, blockMax,
+                                  usernameBloom, operationBloom);
+        }
+    }
+    
+    // Written to a temporary file and moved into place so readers never see a partial index
+    void write(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(recordCount);
+            out.writeLong(minTimestamp);
+            out.writeLong(maxTimestamp);
+            writeLongs(out, blockMin);
+            writeLongs(out, blockMax);
+            writeLongs(out, usernameBloom);
+            writeLongs(out, operationBloom);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    int getRecordCount() {
+        return recordCount;
+    }
+    
+    int getBlockCount() {
+        return blockMin.length;
+    }
+    
+    boolean overlaps(long from, long to) {
+        return recordCount > 0 && minTimestamp <= to && maxTimestamp >= from;
+    }
+    
+    boolean blockOverlaps(int block, long from, long to) {
+        return blockMin[block] <= to && blockMax[block] >= from;
+    }
+    
+    boolean mightContainUsername(long hash) {
+        return bloomContains(usernameBloom, hash);
+    }
+    
+    boolean mightContainOperation(long hash) {
+        return bloomContains(operationBloom, hash);
+    }
+    
+    private static void addToBloom(long[] bits, long hash) {
+        int mask = bits.length * 64 - 1;
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (int) ((h1 + i * h2) & mask);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+    
+    private static boolean bloomContains(long[] bits, long hash) {
+        int mask = bits.length * 64 - 1;
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (int) ((h1 + i * h2) & mask);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static long[] readLongs(DataInputStream in) throws IOException {
+        long[] values = new long[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+    
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.library.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dedicated audit pipeline: producers publish fixed-layout records into a lock-free ring buffer and a
+ * single writer thread appends them in batches to memory-mapped, size-rotated segment files.
+ */
+@Component
+public class AuditLog {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatch;
+    private final long flushIntervalNanos;
+    private final AuditRingBuffer ringBuffer;
+    
+    private volatile boolean running;
+    private volatile WritePosition writePosition;
+    private Thread writerThread;
+    
+    // Owned by the writer thread once started
+    private long segmentNumber;
+    private MappedByteBuffer segment;
+    private long lastForce;
+    private boolean dirty;
+    private long reportedDropped;
+    
+    public AuditLog(@Value("${audit.directory:data/audit}") String directory,
+                    @Value("${audit.segment-bytes:67108864}") long segmentBytes,
+                    @Value("${audit.ring-capacity:65536}") int ringCapacity,
+                    @Value("${audit.max-batch:1024}") int maxBatch,
+                    @Value("${audit.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.directory = Paths.get(directory);
+        this.segmentBytes = Math.max(1, segmentBytes / AuditRecord.SIZE) * AuditRecord.SIZE;
+        this.maxBatch = maxBatch;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.ringBuffer = new AuditRingBuffer(ringCapacity);
+    }
+    
+    /**
+     * Never blocks and allocates nothing: if the ring is full the event is counted as dropped.
+     */
+    public boolean append(byte type, String username, String operation, String subject) {
+        return ringBuffer.tryPublish(System.currentTimeMillis(), type, username, operation, subject);
+    }
+    
+    public long getDroppedCount() {
+        return ringBuffer.getDropped();
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    WritePosition getWritePosition() {
+        return writePosition;
+    }
+    
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        
+        List<Path> segments = AuditSegments.list(directory);
+        for (int i = 0; i < segments.size() - 1; i++) {
+            indexIfMissing(segments.get(i));
+        }
+        
+        if (segments.isEmpty()) {
+            mapSegment(1);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            mapSegment(AuditSegments.number(last));
+            segment.position(AuditSegments.usedBytes(segment));
+            if (!segment.hasRemaining()) {
+                rotate();
+            }
+        }
+        publishPosition();
+        
+        running = true;
+        lastForce = System.nanoTime();
+        writerThread = new Thread(this::runWriter, "AuditLog-Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        
+        logger.info("Audit log opened at {} (segment {}, ring capacity {})",
+                   directory.toAbsolutePath(), segmentNumber, ringBuffer.getCapacity());
+    }
+    
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        writerThread.join();
+        segment.force();
+    }
+    
+    private void runWriter() {
+        while (running || ringBuffer.hasPending()) {
+            try {
+                int batch = Math.min(maxBatch, segment.remaining() / AuditRecord.SIZE);
+                int written = ringBuffer.drainTo(segment, batch);
+                
+                if (written > 0) {
+                    dirty = true;
+                    if (!segment.hasRemaining()) {
+                        rotate();
+                    }
+                    publishPosition();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                
+                if (dirty && System.nanoTime() - lastForce >= flushIntervalNanos) {
+                    flush();
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.error("Audit log writer failed on segment {}", segmentNumber, e);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+    
+    private void flush() {
+        segment.force();
+        dirty = false;
+        lastForce = System.nanoTime();
+        
+        long dropped = ringBuffer.getDropped();
+        if (dropped != reportedDropped) {
+            logger.warn("Audit ring buffer full, {} event(s) dropped so far", dropped);
+            reportedDropped = dropped;
+        }
+    }
+    
+    // The sealed segment's index is written before the new position is published, so queries that see
+    // a segment as sealed can always rely on its index
+    private void rotate() throws IOException {
+        flush();
+        AuditIndex.build(segment, segment.position()).write(AuditSegments.indexPath(directory, segmentNumber));
+        mapSegment(segmentNumber + 1);
+    }
+    
+    private void publishPosition() {
+        writePosition = new WritePosition(segmentNumber, segment.position());
+    }
+    
+    private void indexIfMissing(Path path) throws IOException {
+        long number = AuditSegments.number(path);
+        Path indexPath = AuditSegments.indexPath(directory, number);
+        if (Files.exists(indexPath)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer sealed = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            AuditIndex.build(sealed, AuditSegments.usedBytes(sealed)).write(indexPath);
+        }
+        logger.info("Rebuilt audit index for segment {}", number);
+    }
+    
+    private void mapSegment(long number) throws IOException {
+        Path path = AuditSegments.path(directory, number);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentBytes);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        segmentNumber = number;
+    }
+    
+    static final class WritePosition {
+        
+        final long segment;
+        final int bytes;
+        
+        WritePosition(long segment, int bytes) {
+            this.segment = segment;
+            this.bytes = bytes;
+        }
+    }
+}
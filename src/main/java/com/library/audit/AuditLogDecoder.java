@@ -0,0 +1,67 @@
+package com.library.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Turns binary audit segments back into the text lines previously written to the AUDIT logger.
+ * Usable from the command line: {@code java -cp app.jar com.library.audit.AuditLogDecoder data/audit}.
+ */
+public final class AuditLogDecoder {
+    
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    private AuditLogDecoder() {}
+    
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "data/audit");
+        decodeDirectory(directory, System.out::println);
+    }
+    
+    public static void decodeDirectory(Path directory, Consumer<String> lines) throws IOException {
+        for (Path segment : AuditSegments.list(directory)) {
+            decodeSegment(segment, lines);
+        }
+    }
+    
+    public static void decodeSegment(Path segment, Consumer<String> lines) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        
+        int used = AuditSegments.usedBytes(buffer);
+        for (int base = 0; base < used; base += AuditRecord.SIZE) {
+            lines.accept(format(buffer, base));
+        }
+    }
+    
+    public static String format(ByteBuffer buffer, int base) {
+        String timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(AuditRecord.timestamp(buffer, base)),
+                                                   ZoneId.systemDefault()).format(TIMESTAMP_FORMATTER);
+        String username = AuditRecord.username(buffer, base);
+        String operation = AuditRecord.operation(buffer, base);
+        String subject = AuditRecord.subject(buffer, base);
+        
+        switch (AuditRecord.type(buffer, base)) {
+            case AuditRecord.TYPE_BORROW:
+                return "[" + timestamp + "] User: " + username + " | Operation: " + operation + " | Book: " + subject;
+            case AuditRecord.TYPE_USER:
+                return "[" + timestamp + "] User: " + username + " | Operation: " + operation + " | Details: " + subject;
+            case AuditRecord.TYPE_SECURITY:
+                return "[" + timestamp + "] Security Event: " + operation + " | User: " + username + " | IP: " + subject;
+            default:
+                return "[" + timestamp + "] " + AuditRecord.typeName(AuditRecord.type(buffer, base));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.library.audit;
+
+public class AuditQuery {
+    
+    private final String username;
+    private final String operation;
+    private final long from;
+    private final long to;
+    private final int limit;
+    
+    public AuditQuery(String username, String operation, long from, long to, int limit) {
+        this.username = username;
+        this.operation = operation;
+        this.from = from;
+        this.to = to;
+        this.limit = limit;
+    }
+    
+    public String getUsername() { return username; }
+    public String getOperation() { return operation; }
+    public long getFrom() { return from; }
+    public long getTo() { return to; }
+    public int getLimit() { return limit; }
+}
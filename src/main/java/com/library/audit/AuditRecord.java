@@ -0,0 +1,172 @@
+package com.library.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed 256-byte audit record layout shared by the ring buffer, the segment writer and the decoder.
+ *
+ * <pre>
+ *   0  long   timestamp (epoch millis, 0 marks unused space)
+ *   8  byte   event type
+ *   10 short  username length (-1 for null), 12 username bytes (UTF-8, max 48)
+ *   60 short  operation length (-1 for null), 62 operation bytes (UTF-8, max 32)
+ *   94 short  subject length (-1 for null), 96 subject bytes (UTF-8, max 160)
+ * </pre>
+ */
+public final class AuditRecord {
+    
+    public static final int SIZE = 256;
+    
+    public static final byte TYPE_BORROW = 1;
+    public static final byte TYPE_USER = 2;
+    public static final byte TYPE_SECURITY = 3;
+    
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int TYPE_OFFSET = 8;
+    static final int USERNAME_OFFSET = 10;
+    static final int USERNAME_MAX = 48;
+    static final int OPERATION_OFFSET = 60;
+    static final int OPERATION_MAX = 32;
+    static final int SUBJECT_OFFSET = 94;
+    static final int SUBJECT_MAX = 160;
+    
+    private static final short NULL_LENGTH = -1;
+    
+    private AuditRecord() {}
+    
+    static void encode(byte[] target, int base, long timestamp, byte type,
+                       String username, String operation, String subject) {
+        putLong(target, base + TIMESTAMP_OFFSET, timestamp);
+        target[base + TYPE_OFFSET] = type;
+        target[base + TYPE_OFFSET + 1] = 0;
+        putString(target, base + USERNAME_OFFSET, USERNAME_MAX, username);
+        putString(target, base + OPERATION_OFFSET, OPERATION_MAX, operation);
+        putString(target, base + SUBJECT_OFFSET, SUBJECT_MAX, subject);
+    }
+    
+    public static long timestamp(ByteBuffer buffer, int base) {
+        return buffer.getLong(base + TIMESTAMP_OFFSET);
+    }
+    
+    public static byte type(ByteBuffer buffer, int base) {
+        return buffer.get(base + TYPE_OFFSET);
+    }
+    
+    public static String username(ByteBuffer buffer, int base) {
+        return getString(buffer, base + USERNAME_OFFSET);
+    }
+    
+    public static String operation(ByteBuffer buffer, int base) {
+        return getString(buffer, base + OPERATION_OFFSET);
+    }
+    
+    public static String subject(ByteBuffer buffer, int base) {
+        return getString(buffer, base + SUBJECT_OFFSET);
+    }
+    
+    public static String typeName(byte type) {
+        switch (type) {
+            case TYPE_BORROW:
+                return "BORROW";
+            case TYPE_USER:
+                return "USER";
+            case TYPE_SECURITY:
+                return "SECURITY";
+            default:
+                return "UNKNOWN";
+        }
+    }
+    
+    // 64-bit hash of an encoded string field (length prefix included), used by the segment Bloom filters
+    static long fieldHash(ByteBuffer buffer, int fieldOffset) {
+        short length = buffer.getShort(fieldOffset);
+        long hash = 0xcbf29ce484222325L ^ length;
+        for (int i = 0; i < length; i++) {
+            hash ^= buffer.get(fieldOffset + 2 + i) & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    
+    static boolean fieldEquals(ByteBuffer a, int aOffset, ByteBuffer b, int bOffset) {
+        short length = a.getShort(aOffset);
+        if (length != b.getShort(bOffset)) {
+            return false;
+        }
+        for (int i = 2; i < length + 2; i++) {
+            if (a.get(aOffset + i) != b.get(bOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static void putLong(byte[] target, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            target[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+    
+    // Encodes UTF-8 in place without allocating, truncating at a character boundary
+    private static void putString(byte[] target, int offset, int max, String value) {
+        if (value == null) {
+            putShort(target, offset, NULL_LENGTH);
+            return;
+        }
+        
+        int position = offset + 2;
+        int limit = position + max;
+        int length = value.length();
+        
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (position + 1 > limit) break;
+                target[position++] = (byte) c;
+            } else if (c < 0x800) {
+                if (position + 2 > limit) break;
+                target[position++] = (byte) (0xC0 | (c >> 6));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                if (position + 4 > limit) break;
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target[position++] = (byte) (0xF0 | (codePoint >> 18));
+                target[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                target[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (position + 1 > limit) break;
+                target[position++] = '?';
+            } else {
+                if (position + 3 > limit) break;
+                target[position++] = (byte) (0xE0 | (c >> 12));
+                target[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        
+        putShort(target, offset, (short) (position - offset - 2));
+    }
+    
+    private static void putShort(byte[] target, int offset, short value) {
+        target[offset] = (byte) (value >> 8);
+        target[offset + 1] = (byte) value;
+    }
+    
+    private static String getString(ByteBuffer buffer, int offset) {
+        short length = buffer.getShort(offset);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
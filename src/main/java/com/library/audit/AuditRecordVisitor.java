@@ -0,0 +1,10 @@
+package com.library.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+@FunctionalInterface
+public interface AuditRecordVisitor {
+    
+    void visit(ByteBuffer segment, int base) throws IOException;
+}
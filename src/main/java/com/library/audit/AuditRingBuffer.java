@@ -0,0 +1,84 @@
+package com.library.audit;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Multi-producer, single-consumer ring of preallocated audit record slots. Producers claim a
+ * sequence with a CAS, encode straight into the slot and publish it; when the ring is full the event
+ * is dropped instead of blocking the caller.
+ */
+final class AuditRingBuffer {
+    
+    private final int mask;
+    private final int capacity;
+    private final byte[] slots;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    // Next sequence the consumer will read; only written by the consumer thread
+    private volatile long consumed;
+    
+    AuditRingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1) << 1);
+        this.mask = capacity - 1;
+        this.slots = new byte[capacity * AuditRecord.SIZE];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+    
+    boolean tryPublish(long timestamp, byte type, String username, String operation, String subject) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        
+        int index = (int) (sequence & mask);
+        AuditRecord.encode(slots, index * AuditRecord.SIZE, timestamp, type, username, operation, subject);
+        published.lazySet(index, sequence);
+        return true;
+    }
+    
+    /**
+     * Copies up to {@code maxRecords} consecutive published records into {@code target} and frees their slots.
+     */
+    int drainTo(ByteBuffer target, int maxRecords) {
+        long next = consumed;
+        int count = 0;
+        
+        while (count < maxRecords) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break;
+            }
+            target.put(slots, index * AuditRecord.SIZE, AuditRecord.SIZE);
+            next++;
+            count++;
+        }
+        
+        if (count > 0) {
+            consumed = next;
+        }
+        return count;
+    }
+    
+    boolean hasPending() {
+        return claimed.get() != consumed;
+    }
+    
+    long getDropped() {
+        return dropped.get();
+    }
+    
+    int getCapacity() {
+        return capacity;
+    }
+}
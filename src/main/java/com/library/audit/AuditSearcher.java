@@ -0,0 +1,181 @@
+package com.library.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Answers audit queries from the segment files, using each sealed segment's index to skip segments
+ * and blocks that cannot match. The active segment has no index yet and is scanned up to the last
+ * published write position.
+ */
+@Component
+public class AuditSearcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditSearcher.class);
+    
+    private final AuditLog auditLog;
+    
+    // Sealed segments never change, so their indexes are loaded once
+    private final ConcurrentMap<Long, AuditIndex> indexes = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public AuditSearcher(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+    
+    /**
+     * Visits matching records in segment order and returns how many were visited.
+     */
+    public int search(AuditQuery query, AuditRecordVisitor visitor) throws IOException {
+        Matcher matcher = new Matcher(query);
+        AuditLog.WritePosition position = auditLog.getWritePosition();
+        int matched = 0;
+        int skipped = 0;
+        
+        for (Path path : AuditSegments.list(auditLog.getDirectory())) {
+            if (matched >= query.getLimit()) {
+                break;
+            }
+            
+            long number = AuditSegments.number(path);
+            if (number > position.segment) {
+                break;
+            }
+            
+            if (number == position.segment) {
+                matched += scanActive(path, position.bytes, matcher, visitor, query.getLimit() - matched);
+                continue;
+            }
+            
+            AuditIndex index = index(number);
+            if (index != null && !matcher.mayMatch(index)) {
+                skipped++;
+                continue;
+            }
+            matched += scanSealed(path, index, matcher, visitor, query.getLimit() - matched);
+        }
+        
+        logger.debug("Audit query matched {} record(s), skipped {} segment(s) by index", matched, skipped);
+        return matched;
+    }
+    
+    private int scanSealed(Path path, AuditIndex index, Matcher matcher, AuditRecordVisitor visitor,
+                           int limit) throws IOException {
+        MappedByteBuffer segment = map(path);
+        if (index == null) {
+            return scan(segment, 0, AuditSegments.usedBytes(segment), matcher, visitor, limit);
+        }
+        
+        int matched = 0;
+        for (int block = 0; block < index.getBlockCount() && matched < limit; block++) {
+            if (!index.blockOverlaps(block, matcher.from, matcher.to)) {
+                continue;
+            }
+            int start = block * AuditIndex.BLOCK_RECORDS * AuditRecord.SIZE;
+            int end = Math.min(index.getRecordCount(), (block + 1) * AuditIndex.BLOCK_RECORDS) * AuditRecord.SIZE;
+            matched += scan(segment, start, end, matcher, visitor, limit - matched);
+        }
+        return matched;
+    }
+    
+    private int scanActive(Path path, int writtenBytes, Matcher matcher, AuditRecordVisitor visitor,
+                           int limit) throws IOException {
+        MappedByteBuffer segment = map(path);
+        return scan(segment, 0, Math.min(writtenBytes, segment.capacity()), matcher, visitor, limit);
+    }
+    
+    private static int scan(ByteBuffer segment, int start, int end, Matcher matcher, AuditRecordVisitor visitor,
+                            int limit) throws IOException {
+        int matched = 0;
+        for (int base = start; base < end && matched < limit; base += AuditRecord.SIZE) {
+            if (matcher.matches(segment, base)) {
+                visitor.visit(segment, base);
+                matched++;
+            }
+        }
+        return matched;
+    }
+    
+    private AuditIndex index(long number) {
+        AuditIndex index = indexes.get(number);
+        if (index != null) {
+            return index;
+        }
+        
+        Path path = AuditSegments.indexPath(auditLog.getDirectory(), number);
+        try {
+            index = AuditIndex.read(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable audit index {}: {}", path, e.getMessage());
+            return null;
+        }
+        indexes.put(number, index);
+        return index;
+    }
+    
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+    
+    /**
+     * Query terms encoded once into the record layout, so records are compared byte-wise without
+     * decoding them into strings.
+     */
+    private static final class Matcher {
+        
+        private final ByteBuffer key;
+        private final boolean byUsername;
+        private final boolean byOperation;
+        private final long usernameHash;
+        private final long operationHash;
+        private final long from;
+        private final long to;
+        
+        Matcher(AuditQuery query) {
+            byte[] encoded = new byte[AuditRecord.SIZE];
+            AuditRecord.encode(encoded, 0, 0, (byte) 0, query.getUsername(), query.getOperation(), null);
+            this.key = ByteBuffer.wrap(encoded);
+            this.byUsername = query.getUsername() != null;
+            this.byOperation = query.getOperation() != null;
+            this.usernameHash = AuditRecord.fieldHash(key, AuditRecord.USERNAME_OFFSET);
+            this.operationHash = AuditRecord.fieldHash(key, AuditRecord.OPERATION_OFFSET);
+            this.from = query.getFrom();
+            this.to = query.getTo();
+        }
+        
+        boolean mayMatch(AuditIndex index) {
+            return index.overlaps(from, to)
+                && (!byUsername || index.mightContainUsername(usernameHash))
+                && (!byOperation || index.mightContainOperation(operationHash));
+        }
+        
+        boolean matches(ByteBuffer segment, int base) {
+            long timestamp = AuditRecord.timestamp(segment, base);
+            if (timestamp < from || timestamp > to) {
+                return false;
+            }
+            if (byUsername && !AuditRecord.fieldEquals(segment, base + AuditRecord.USERNAME_OFFSET,
+                                                       key, AuditRecord.USERNAME_OFFSET)) {
+                return false;
+            }
+            return !byOperation || AuditRecord.fieldEquals(segment, base + AuditRecord.OPERATION_OFFSET,
+                                                           key, AuditRecord.OPERATION_OFFSET);
+        }
+    }
+}
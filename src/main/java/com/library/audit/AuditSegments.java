@@ -0,0 +1,63 @@
+package com.library.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+final class AuditSegments {
+    
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".seg";
+    static final String INDEX_SUFFIX = ".idx";
+    
+    private AuditSegments() {}
+    
+    static Path path(Path directory, long number) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, number, SUFFIX));
+    }
+    
+    static Path indexPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, number, INDEX_SUFFIX));
+    }
+    
+    static long number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+    
+    static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                            String name = path.getFileName().toString();
+                            return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                        })
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * Records are appended contiguously and unused space is zero-filled, so the first slot with a
+     * zero timestamp marks the end of the written data.
+     */
+    static int usedBytes(ByteBuffer segment) {
+        int low = 0;
+        int high = segment.capacity() / AuditRecord.SIZE;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (AuditRecord.timestamp(segment, mid * AuditRecord.SIZE) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low * AuditRecord.SIZE;
+    }
+}
@@ -0,0 +1,55 @@
+package com.library.batch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Fetches entities for a list of ids with as few batch calls as possible. Duplicate ids are fetched once,
+ * and the ids are split into batches of at most {@code maxBatchSize} to keep IN lists bounded.
+ */
+public class BatchLoader<K, V> {
+    
+    private final Function<Collection<K>, ? extends Collection<V>> batchFunction;
+    private final Function<V, K> keyFunction;
+    private final int maxBatchSize;
+    
+    public BatchLoader(Function<Collection<K>, ? extends Collection<V>> batchFunction, Function<V, K> keyFunction,
+                       int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.batchFunction = batchFunction;
+        this.keyFunction = keyFunction;
+        this.maxBatchSize = maxBatchSize;
+    }
+    
+    /**
+     * Returns the values found in first-requested order. Duplicate keys yield one value and keys without a
+     * value are left out.
+     */
+    public List<V> getMany(Collection<K> keys) {
+        List<K> unique = new ArrayList<>(new LinkedHashSet<>(keys));
+        
+        Map<K, V> found = new HashMap<>();
+        for (int from = 0; from < unique.size(); from += maxBatchSize) {
+            List<K> batch = unique.subList(from, Math.min(from + maxBatchSize, unique.size()));
+            for (V value : batchFunction.apply(batch)) {
+                found.put(keyFunction.apply(value), value);
+            }
+        }
+        
+        List<V> values = new ArrayList<>(found.size());
+        for (K key : unique) {
+            V value = found.get(key);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,67 @@
+package com.library.batch;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.entity.Category;
+import com.library.entity.Patron;
+import com.library.exception.BusinessRuleException;
+import com.library.repository.AuthorRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import com.library.repository.PatronRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * One {@link BatchLoader} per entity type, backing the multi-get endpoints with a {@code findAllById} per
+ * batch of ids.
+ */
+@Component
+public class BatchLoaders {
+    
+    private final BatchLoader<Long, Book> books;
+    private final BatchLoader<Long, Patron> patrons;
+    private final BatchLoader<Long, Author> authors;
+    private final BatchLoader<Long, Category> categories;
+    private final int maxIds;
+    
+    @Autowired
+    public BatchLoaders(BookRepository bookRepository, PatronRepository patronRepository,
+                        AuthorRepository authorRepository, CategoryRepository categoryRepository,
+                        @Value("${batch-loader.max-batch-size:500}") int maxBatchSize,
+                        @Value("${batch-loader.max-ids:200}") int maxIds) {
+        this.books = new BatchLoader<>(bookRepository::findAllById, Book::getId, maxBatchSize);
+        this.patrons = new BatchLoader<>(patronRepository::findAllById, Patron::getId, maxBatchSize);
+        this.authors = new BatchLoader<>(authorRepository::findAllById, Author::getId, maxBatchSize);
+        this.categories = new BatchLoader<>(categoryRepository::findAllById, Category::getId, maxBatchSize);
+        this.maxIds = maxIds;
+    }
+    
+    public BatchLoader<Long, Book> books() {
+        return books;
+    }
+    
+    public BatchLoader<Long, Patron> patrons() {
+        return patrons;
+    }
+    
+    public BatchLoader<Long, Author> authors() {
+        return authors;
+    }
+    
+    public BatchLoader<Long, Category> categories() {
+        return categories;
+    }
+    
+    /**
+     * Rejects multi-get requests with more ids than {@code batch-loader.max-ids}.
+     */
+    public void checkIds(Collection<Long> ids) {
+        if (ids.size() > maxIds) {
+            throw new BusinessRuleException("At most " + maxIds + " ids can be requested at once");
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.library.cache;
+
+import com.library.event.BookChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rendered JSON of single books, ready to be embedded raw in a response.
+ * Entries are keyed by book id and only served for the entity version they were rendered from,
+ * so a book write can never be answered from a stale entry. The cache is held under a byte budget
+ * and evicts the least recently used books first.
+ */
+@Component
+public class BookJsonCache {
+    
+    // Approximate per-entry cost of the map node, entry object and array header
+    private static final int ENTRY_OVERHEAD = 96;
+    
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+    
+    // Bumped whenever every entry is dropped; renders started before that are not stored
+    private final AtomicLong generation = new AtomicLong();
+    
+    private final Counter hits;
+    private final Counter misses;
+    
+    @Autowired
+    public BookJsonCache(@Value("${book-cache.max-bytes:16777216}") long maxBytes,
+                         MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxBytes / 16;
+        this.hits = Counter.builder("library.book-cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("library.book-cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("library.book-cache.bytes", this, BookJsonCache::getUsedBytes).register(meterRegistry);
+        Gauge.builder("library.book-cache.entries", this, BookJsonCache::size).register(meterRegistry);
+    }
+    
+    /**
+     * Returns the cached JSON of the book at exactly this version, or null.
+     */
+    public String get(Long bookId, Long version) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(bookId);
+            if (entry != null && entry.version.equals(version)) {
+                hits.increment();
+                return entry.json;
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+    
+    /**
+     * Read before loading the entity and passed back to {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+    
+    public void put(Long bookId, Long version, long renderGeneration, String json) {
+        long cost = cost(json);
+        if (version == null || cost > maxEntryBytes) {
+            return;
+        }
+        
+        lock.lock();
+        try {
+            if (renderGeneration != generation.get()) {
+                return;
+            }
+            Entry existing = entries.get(bookId);
+            // A slower request may finish after a newer version was rendered
+            if (existing != null && existing.version > version) {
+                return;
+            }
+            
+            Entry previous = entries.put(bookId, new Entry(version, json));
+            if (previous != null) {
+                usedBytes -= cost(previous.json);
+            }
+            usedBytes += cost;
+            
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && eldest.hasNext()) {
+                Entry evicted = eldest.next().getValue();
+                eldest.remove();
+                usedBytes -= cost(evicted.json);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void evict(Long bookId) {
+        lock.lock();
+        try {
+            Entry removed = entries.remove(bookId);
+            if (removed != null) {
+                usedBytes -= cost(removed.json);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void clear() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+            usedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // After commit, so a request that read the old rows cannot store them once the entry is gone
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isAllBooks()) {
+            clear();
+        } else {
+            evict(event.getBookId());
+        }
+    }
+    
+    public long getUsedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Rendered JSON is mostly ASCII, which a String holds at a byte per character
+    private static long cost(String json) {
+        return json.length() + ENTRY_OVERHEAD;
+    }
+    
+    private static final class Entry {
+        
+        private final Long version;
+        private final String json;
+        
+        private Entry(Long version, String json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
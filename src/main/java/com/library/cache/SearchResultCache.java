@@ -0,0 +1,267 @@
+package com.library.cache;
+
+import com.library.event.BookChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Results of catalog searches, keyed on the normalized filters, page and sort. Only the ids on the page
+ * and the total are kept; callers load the books themselves, so availability is always current.
+ * <p>
+ * Entries carry the catalog version they were computed at. Any catalog write bumps the version, which
+ * invalidates every entry at once without tracking which queries a book belongs to. Borrows and returns
+ * only change copy counts, which no filter looks at, and leave the version alone; searches sorted on what
+ * they do change would then keep a stale order, so those are not cached.
+ */
+@Component
+public class SearchResultCache {
+    
+    // Book properties a borrow or return changes
+    private static final Set<String> AVAILABILITY_PROPERTIES = Set.of("availableCopies", "status", "version",
+                                                                      "updatedAt");
+    
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter timeSaved;
+    private final Timer hitLatency;
+    private final Timer missLatency;
+    
+    @Autowired
+    public SearchResultCache(@Value("${search-cache.enabled:true}") boolean enabled,
+                             @Value("${search-cache.max-entries:1000}") int maxEntries,
+                             @Value("${search-cache.ttl-ms:60000}") long ttlMs,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.hits = Counter.builder("library.search-cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("library.search-cache.requests").tag("result", "miss").register(meterRegistry);
+        this.timeSaved = Counter.builder("library.search-cache.time-saved")
+                                .baseUnit("seconds")
+                                .description("Query time of cached results minus the time taken to serve them")
+                                .register(meterRegistry);
+        this.hitLatency = Timer.builder("library.search.latency").tag("cache", "hit").register(meterRegistry);
+        this.missLatency = Timer.builder("library.search.latency").tag("cache", "miss").register(meterRegistry);
+        Gauge.builder("library.search-cache.entries", this, SearchResultCache::size).register(meterRegistry);
+    }
+    
+    /**
+     * Builds the cache key. The text filters are compared case-insensitively by the query, so they are
+     * lower-cased here; the ISBN is matched exactly and kept as given.
+     */
+    public static Key key(String title, Long categoryId, String authorName, String publisher, String isbn,
+                          Pageable pageable) {
+        return new Key(lowerCase(title), categoryId, lowerCase(authorName), lowerCase(publisher), isbn,
+                       pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString(),
+                       !sortsOnAvailability(pageable.getSort()));
+    }
+    
+    /**
+     * Read before running the query and passed back to {@link #put}.
+     */
+    public long version() {
+        return catalogVersion.get();
+    }
+    
+    /**
+     * Returns the cached result computed at this catalog version and within the TTL, or null.
+     */
+    public Result get(Key key, long version) {
+        if (!enabled || !key.cacheable) {
+            return null;
+        }
+        
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.version == version && System.nanoTime() - entry.createdAt < ttlNanos) {
+                    hits.increment();
+                    return entry.result;
+                }
+                entries.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+    
+    public void put(Key key, long version, List<Long> ids, long total, long queryNanos) {
+        missLatency.record(queryNanos, TimeUnit.NANOSECONDS);
+        if (!enabled || !key.cacheable || version != catalogVersion.get()) {
+            return;
+        }
+        
+        lock.lock();
+        try {
+            entries.put(key, new Entry(version, new Result(ids, total, queryNanos)));
+            if (entries.size() > maxEntries) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Records how long a cache hit took to serve, including loading the books by id.
+     */
+    public void recordHit(Result result, long servedNanos) {
+        hitLatency.record(servedNanos, TimeUnit.NANOSECONDS);
+        long saved = result.queryNanos - servedNanos;
+        if (saved > 0) {
+            timeSaved.increment(saved / 1e9);
+        }
+    }
+    
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            catalogVersion.incrementAndGet();
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // After commit, so a search that read the old rows cannot store them under the new version
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!event.isAvailabilityOnly()) {
+            invalidateAll();
+        }
+    }
+    
+    private static boolean sortsOnAvailability(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (AVAILABILITY_PROPERTIES.contains(order.getProperty())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String lowerCase(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+    
+    public static final class Key {
+        
+        private final String title;
+        private final Long categoryId;
+        private final String authorName;
+        private final String publisher;
+        private final String isbn;
+        private final int page;
+        private final int size;
+        private final String sort;
+        private final boolean cacheable;
+        
+        private Key(String title, Long categoryId, String authorName, String publisher, String isbn,
+                    int page, int size, String sort, boolean cacheable) {
+            this.title = title;
+            this.categoryId = categoryId;
+            this.authorName = authorName;
+            this.publisher = publisher;
+            this.isbn = isbn;
+            this.page = page;
+            this.size = size;
+            this.sort = sort;
+            this.cacheable = cacheable;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return page == other.page
+                    && size == other.size
+                    && Objects.equals(title, other.title)
+                    && Objects.equals(categoryId, other.categoryId)
+                    && Objects.equals(authorName, other.authorName)
+                    && Objects.equals(publisher, other.publisher)
+                    && Objects.equals(isbn, other.isbn)
+                    && sort.equals(other.sort);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(title, categoryId, authorName, publisher, isbn, page, size, sort);
+        }
+    }
+    
+    public static final class Result {
+        
+        private final List<Long> ids;
+        private final long total;
+        private final long queryNanos;
+        
+        private Result(List<Long> ids, long total, long queryNanos) {
+            this.ids = List.copyOf(ids);
+            this.total = total;
+            this.queryNanos = queryNanos;
+        }
+        
+        public List<Long> getIds() {
+            return ids;
+        }
+        
+        public long getTotal() {
+            return total;
+        }
+    }
+    
+    private static final class Entry {
+        
+        final long version;
+        final Result result;
+        final long createdAt = System.nanoTime();
+        
+        Entry(long version, Result result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+}
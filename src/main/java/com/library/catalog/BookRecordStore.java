@@ -0,0 +1,28 @@
+package com.library.catalog;
+
+import com.library.dto.response.BookSummary;
+
+/**
+ * In-process copy of the catalog's book records, kept current by {@link CatalogStore}.
+ * Implementations are thread-safe.
+ */
+public interface BookRecordStore {
+    
+    BookSummary get(long id);
+    
+    /**
+     * Looks a book up by the numeric key from {@link Isbns#key}, returning its id or null.
+     */
+    Long findIdByIsbnKey(long isbnKey);
+    
+    /**
+     * Stores the record unless a newer version of the same book is already present.
+     */
+    void put(BookSummary book);
+    
+    void remove(long id);
+    
+    void clear();
+    
+    int size();
+}
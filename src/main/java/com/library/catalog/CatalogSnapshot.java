@@ -0,0 +1,197 @@
+package com.library.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Versioned snapshot file of the {@link OffHeapBookStore}: a header, the records packed into arena-sized
+ * chunks, then the id and ISBN index tables. At startup the chunks are memory-mapped copy-on-write and used
+ * as the store's arenas directly, and the index tables are read back without rehashing.
+ * <p>
+ * The header carries the high-water mark taken before the records were copied; changes after it are
+ * caught up from the database by {@link CatalogStore}.
+ */
+@Component
+public class CatalogSnapshot {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshot.class);
+    
+    private static final int MAGIC = 0x4C434154;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    
+    private final Path path;
+    private final boolean enabled;
+    
+    @Autowired
+    public CatalogSnapshot(@Value("${catalog.snapshot.path:data/catalog/catalog.snapshot}") String path,
+                           @Value("${catalog.snapshot.enabled:true}") boolean enabled) {
+        this.path = Paths.get(path);
+        this.enabled = enabled;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Maps the snapshot into the store and returns its high-water mark (epoch millis),
+     * or -1 if there is no usable snapshot and the store was left untouched.
+     */
+    public long restore(OffHeapBookStore store) {
+        if (!Files.exists(path)) {
+            return -1;
+        }
+        
+        long start = System.currentTimeMillis();
+        // Copy-on-write mappings need a channel opened for writing, although the file itself never changes
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a catalog snapshot");
+            }
+            int formatVersion = header.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                logger.info("Ignoring catalog snapshot format {} (expected {})", formatVersion, FORMAT_VERSION);
+                return -1;
+            }
+            int arenaBytes = header.getInt();
+            int arenaCount = header.getInt();
+            int lastArenaBytes = header.getInt();
+            int recordCount = header.getInt();
+            long liveBytes = header.getLong();
+            long highWaterMark = header.getLong();
+            long indexOffset = header.getLong();
+            
+            if (arenaBytes != store.getArenaBytes()) {
+                logger.info("Ignoring catalog snapshot written with {} byte arenas (configured {})",
+                            arenaBytes, store.getArenaBytes());
+                return -1;
+            }
+            
+            List<ByteBuffer> arenas = new ArrayList<>(arenaCount);
+            for (int i = 0; i < arenaCount; i++) {
+                int length = i == arenaCount - 1 ? lastArenaBytes : arenaBytes;
+                arenas.add(channel.map(FileChannel.MapMode.PRIVATE, HEADER_BYTES + (long) i * arenaBytes, length));
+            }
+            
+            MappedByteBuffer indexes = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset,
+                                                   channel.size() - indexOffset);
+            LongOffsetIndex offsets = LongOffsetIndex.readFrom(indexes);
+            LongOffsetIndex isbnIds = LongOffsetIndex.readFrom(indexes);
+            if (offsets.size() != recordCount) {
+                throw new IOException("Index holds " + offsets.size() + " records, header says " + recordCount);
+            }
+            
+            store.restore(arenas, offsets, isbnIds, liveBytes);
+            logger.info("Mapped catalog snapshot with {} books in {} ms", recordCount,
+                        System.currentTimeMillis() - start);
+            return highWaterMark;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not restore catalog snapshot {}; falling back to a full load", path, e);
+            return -1;
+        }
+    }
+    
+    /**
+     * Writes the store's current records to a new snapshot and atomically replaces the previous one.
+     * Records are copied one at a time, so the store stays writable while the snapshot is taken.
+     */
+    public void write(OffHeapBookStore store, long highWaterMark) throws IOException {
+        long start = System.currentTimeMillis();
+        int arenaBytes = store.getArenaBytes();
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        
+        long[] ids = store.ids();
+        Arrays.sort(ids);
+        LongOffsetIndex offsets = new LongOffsetIndex(ids.length);
+        LongOffsetIndex isbnIds = new LongOffsetIndex(ids.length);
+        ByteBuffer arena = ByteBuffer.allocateDirect(arenaBytes);
+        int arenaIndex = 0;
+        long liveBytes = 0;
+        
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_BYTES);
+            
+            for (long id : ids) {
+                int position = arena.position();
+                int copied = store.copyRecord(id, arena);
+                if (copied < 0) {
+                    // Chunks are written at full arena size so each maps at a fixed file offset
+                    arena.position(0).limit(arenaBytes);
+                    writeFully(channel, arena);
+                    arena.clear();
+                    arenaIndex++;
+                    position = 0;
+                    copied = store.copyRecord(id, arena);
+                }
+                if (copied <= 0) {
+                    continue;
+                }
+                
+                offsets.put(id, ((long) arenaIndex << 32) | position);
+                long isbnKey = OffHeapBookStore.isbnKey(arena, position);
+                if (isbnKey != Isbns.NO_KEY) {
+                    isbnIds.put(isbnKey, id);
+                }
+                liveBytes += copied;
+            }
+            
+            int lastArenaBytes = arena.position();
+            arena.flip();
+            writeFully(channel, arena);
+            
+            long indexOffset = channel.position();
+            offsets.writeTo(channel);
+            isbnIds.writeTo(channel);
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC)
+                  .putInt(FORMAT_VERSION)
+                  .putInt(arenaBytes)
+                  .putInt(arenaIndex + 1)
+                  .putInt(lastArenaBytes)
+                  .putInt(offsets.size())
+                  .putLong(liveBytes)
+                  .putLong(highWaterMark)
+                  .putLong(indexOffset)
+                  .putLong(System.currentTimeMillis());
+            header.clear();
+            channel.position(0);
+            writeFully(channel, header);
+            channel.force(true);
+        }
+        
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Wrote catalog snapshot with {} books in {} ms", offsets.size(),
+                    System.currentTimeMillis() - start);
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
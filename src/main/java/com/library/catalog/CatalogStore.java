@@ -0,0 +1,331 @@
+package com.library.catalog;
+
+import com.library.dto.response.BookSummary;
+import com.library.event.BookChangedEvent;
+import com.library.repository.BookRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Loads the catalog into the configured {@link BookRecordStore} after startup and keeps it current from
+ * {@link BookChangedEvent}s. Until the initial load completes, lookups go to the database.
+ * <p>
+ * The store is indexed by id and ISBN only, so it serves summary lookups and ISBN resolution; list, search
+ * and filter reads stay on the database. ISBNs are matched in canonical form, also on the database fallback.
+ * <p>
+ * With the off-heap store, the catalog is periodically written to a {@link CatalogSnapshot}; a restart maps
+ * the snapshot and only catches up on rows changed since its high-water mark instead of scanning the table.
+ * <p>
+ * Changes are applied off the committing thread, so a lookup right after a commit may briefly see the
+ * previous state of the book.
+ */
+@Component
+public class CatalogStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogStore.class);
+    
+    private final BookRecordStore store;
+    private final BookRepository bookRepository;
+    private final Executor executor;
+    private final CatalogSnapshot snapshot;
+    private final int batchSize;
+    private final long catchUpMarginMs;
+    
+    private volatile boolean ready;
+    
+    // A lock rather than synchronized, so a scheduler thread writing the file does not pin its carrier
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    
+    // Books deleted while the loader runs, so a batch read before the delete does not bring them back
+    private final Set<Long> removedDuringLoad = ConcurrentHashMap.newKeySet();
+    
+    // Books changed by commits since the updater last ran; updateRequests makes sure one updater runs at a time
+    private final Set<Long> changedBooks = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger updateRequests = new AtomicInteger();
+    
+    @Autowired
+    public CatalogStore(BookRecordStore store, BookRepository bookRepository,
+                        @Qualifier("taskExecutor") Executor executor, CatalogSnapshot snapshot,
+                        @Value("${catalog.load.batch-size:1000}") int batchSize,
+                        @Value("${catalog.snapshot.catch-up-margin-ms:60000}") long catchUpMarginMs,
+                        MeterRegistry meterRegistry) {
+        this.store = store;
+        this.bookRepository = bookRepository;
+        this.executor = executor;
+        this.snapshot = snapshot;
+        this.batchSize = batchSize;
+        this.catchUpMarginMs = catchUpMarginMs;
+        
+        Gauge.builder("library.catalog.records", store, BookRecordStore::size)
+             .tag("store", store.getClass().getSimpleName())
+             .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        Thread loader = new Thread(this::load, "CatalogStore-Loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public BookSummary findById(Long id) {
+        if (ready) {
+            return store.get(id);
+        }
+        return bookRepository.findSummaryById(id).map(this::withAuthorIds).orElse(null);
+    }
+    
+    public BookSummary findByIsbn(String isbn) {
+        long key = Isbns.key(isbn);
+        if (ready && key != Isbns.NO_KEY) {
+            Long id = store.findIdByIsbnKey(key);
+            return id != null ? store.get(id) : null;
+        }
+        return bookRepository.findSummariesByIsbnIn(Isbns.lookupForms(isbn)).stream()
+                             .findFirst()
+                             .map(this::withAuthorIds)
+                             .orElse(null);
+    }
+    
+    public Long findIdByIsbn(String isbn) {
+        long key = Isbns.key(isbn);
+        if (ready && key != Isbns.NO_KEY) {
+            return store.findIdByIsbnKey(key);
+        }
+        return bookRepository.findIdsByIsbnIn(Isbns.lookupForms(isbn)).stream().findFirst().orElse(null);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        // Author and category edits do not change the ids held in the records
+        if (event.isAllBooks()) {
+            return;
+        }
+        
+        changedBooks.add(event.getBookId());
+        if (updateRequests.getAndIncrement() == 0) {
+            try {
+                executor.execute(this::applyChanges);
+            } catch (RejectedExecutionException e) {
+                // Applying here is slower for this commit but keeps the store from going stale for good
+                applyChanges();
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.snapshot.interval-ms:900000}",
+               initialDelayString = "${catalog.snapshot.interval-ms:900000}")
+    public void writeSnapshot() {
+        OffHeapBookStore offHeapStore = snapshotStore();
+        if (!ready || offHeapStore == null) {
+            return;
+        }
+        
+        snapshotLock.lock();
+        try {
+            // Taken before copying, so anything the copy misses is newer than the mark
+            snapshot.write(offHeapStore, System.currentTimeMillis());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not write catalog snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+    
+    private void applyChanges() {
+        int requests = updateRequests.get();
+        while (true) {
+            List<Long> ids = new ArrayList<>();
+            for (Iterator<Long> books = changedBooks.iterator(); books.hasNext(); ) {
+                ids.add(books.next());
+                books.remove();
+                if (ids.size() == batchSize || !books.hasNext()) {
+                    apply(ids);
+                    ids.clear();
+                }
+            }
+            requests = updateRequests.addAndGet(-requests);
+            if (requests == 0) {
+                return;
+            }
+        }
+    }
+    
+    // Reads the books' current rows, so changes applied out of commit order still end at the latest state
+    private void apply(List<Long> ids) {
+        try {
+            List<BookSummary> books = bookRepository.findSummariesByIdIn(ids);
+            if (!books.isEmpty()) {
+                withAuthorIds(books);
+            }
+            Set<Long> deleted = new HashSet<>(ids);
+            for (BookSummary book : books) {
+                store.put(book);
+                deleted.remove(book.getId());
+            }
+            for (Long id : deleted) {
+                if (!ready) {
+                    removedDuringLoad.add(id);
+                }
+                store.remove(id);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not update catalog store for books {}", ids, e);
+        }
+    }
+    
+    private void load() {
+        long start = System.currentTimeMillis();
+        OffHeapBookStore offHeapStore = snapshotStore();
+        boolean restored = false;
+        
+        try {
+            long highWaterMark = offHeapStore != null ? snapshot.restore(offHeapStore) : -1;
+            restored = highWaterMark >= 0;
+            if (restored) {
+                catchUp(offHeapStore, highWaterMark);
+            } else {
+                loadAll();
+            }
+            
+            ready = true;
+            removedDuringLoad.clear();
+            logger.info("Catalog store ready with {} books in {} in {} ms", store.size(),
+                       store.getClass().getSimpleName(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Catalog store load failed; lookups stay on the database", e);
+            return;
+        }
+        
+        // A full scan is what the snapshot exists to avoid, so keep its result right away
+        if (!restored) {
+            writeSnapshot();
+        }
+    }
+    
+    private void loadAll() {
+        long afterId = 0;
+        while (true) {
+            List<BookSummary> batch = bookRepository.findSummariesAfter(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            putAll(batch);
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+    
+    private void catchUp(OffHeapBookStore offHeapStore, long highWaterMark) {
+        // The margin covers transactions that stamped updated_at before the mark but committed after it
+        LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(highWaterMark - catchUpMarginMs),
+                                                      ZoneId.systemDefault());
+        int changed = 0;
+        long afterId = 0;
+        while (true) {
+            List<BookSummary> batch = bookRepository.findSummariesChangedSince(since, afterId,
+                                                                               PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            putAll(batch);
+            changed += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        
+        // Deleted rows leave no updated_at behind, so walk the stored and the current ids side by side
+        long[] storedIds = offHeapStore.ids();
+        Arrays.sort(storedIds);
+        int next = 0;
+        int removed = 0;
+        afterId = 0;
+        while (true) {
+            List<Long> ids = bookRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Long id : ids) {
+                while (next < storedIds.length && storedIds[next] < id) {
+                    store.remove(storedIds[next++]);
+                    removed++;
+                }
+                if (next < storedIds.length && storedIds[next] == id) {
+                    next++;
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        while (next < storedIds.length) {
+            store.remove(storedIds[next++]);
+            removed++;
+        }
+        
+        logger.info("Caught catalog snapshot up: {} changed and {} removed book(s)", changed, removed);
+    }
+    
+    private void putAll(List<BookSummary> batch) {
+        withAuthorIds(batch);
+        for (BookSummary book : batch) {
+            if (!removedDuringLoad.contains(book.getId())) {
+                store.put(book);
+            }
+        }
+    }
+    
+    private OffHeapBookStore snapshotStore() {
+        return snapshot.isEnabled() && store instanceof OffHeapBookStore ? (OffHeapBookStore) store : null;
+    }
+    
+    private BookSummary withAuthorIds(BookSummary book) {
+        withAuthorIds(Collections.singletonList(book));
+        return book;
+    }
+    
+    private void withAuthorIds(List<BookSummary> books) {
+        List<Long> bookIds = new ArrayList<>(books.size());
+        for (BookSummary book : books) {
+            bookIds.add(book.getId());
+        }
+        
+        Map<Long, List<Long>> authorIds = new HashMap<>();
+        for (Object[] row : bookRepository.findAuthorIdPairs(bookIds)) {
+            authorIds.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+        for (BookSummary book : books) {
+            book.setAuthorIds(authorIds.getOrDefault(book.getId(), Collections.emptyList()));
+        }
+    }
+}
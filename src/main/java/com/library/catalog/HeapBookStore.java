@@ -0,0 +1,70 @@
+package com.library.catalog;
+
+import com.library.dto.response.BookSummary;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * On-heap equivalent of {@link OffHeapBookStore}, selected with {@code catalog.store.type=heap}
+ * to compare heap usage and GC pauses under the same load.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.store.type", havingValue = "heap")
+public class HeapBookStore implements BookRecordStore {
+    
+    private final ConcurrentMap<Long, BookSummary> books = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> isbnIds = new ConcurrentHashMap<>();
+    
+    @Override
+    public BookSummary get(long id) {
+        return books.get(id);
+    }
+    
+    @Override
+    public Long findIdByIsbnKey(long isbnKey) {
+        return isbnIds.get(isbnKey);
+    }
+    
+    @Override
+    public void put(BookSummary book) {
+        books.compute(book.getId(), (id, existing) -> {
+            if (existing != null && version(existing) > version(book)) {
+                return existing;
+            }
+            if (existing != null) {
+                isbnIds.remove(Isbns.key(existing.getIsbn()), id);
+            }
+            long key = Isbns.key(book.getIsbn());
+            if (key != Isbns.NO_KEY) {
+                isbnIds.put(key, id);
+            }
+            return book;
+        });
+    }
+    
+    @Override
+    public void remove(long id) {
+        books.computeIfPresent(id, (key, existing) -> {
+            isbnIds.remove(Isbns.key(existing.getIsbn()), key);
+            return null;
+        });
+    }
+    
+    @Override
+    public void clear() {
+        books.clear();
+        isbnIds.clear();
+    }
+    
+    @Override
+    public int size() {
+        return books.size();
+    }
+    
+    private static long version(BookSummary book) {
+        return book.getVersion() != null ? book.getVersion() : 0;
+    }
+}
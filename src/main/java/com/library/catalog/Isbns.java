@@ -0,0 +1,71 @@
+package com.library.catalog;
+
+import java.util.List;
+
+/**
+ * ISBN canonicalization: hyphens and spaces are dropped and ISBN-10s are converted to ISBN-13,
+ * so one book has a single key however its ISBN was entered.
+ */
+public final class Isbns {
+    
+    public static final long NO_KEY = -1;
+    
+    private Isbns() {
+    }
+    
+    /**
+     * Returns the 13-digit ISBN, or null if the value does not have 10 or 13 ISBN digits.
+     */
+    public static String canonical(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        
+        StringBuilder digits = new StringBuilder(13);
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if ((c == 'X' || c == 'x') && digits.length() == 9) {
+                // ISBN-10 check digit; dropped by the conversion below
+                digits.append('X');
+            } else if (c != '-' && c != ' ') {
+                return null;
+            }
+        }
+        
+        if (digits.length() == 13 && digits.indexOf("X") < 0) {
+            return digits.toString();
+        }
+        if (digits.length() != 10) {
+            return null;
+        }
+        
+        digits.setLength(9);
+        digits.insert(0, "978");
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = digits.charAt(i) - '0';
+            sum += (i % 2 == 0) ? digit : digit * 3;
+        }
+        digits.append((char) ('0' + (10 - sum % 10) % 10));
+        return digits.toString();
+    }
+    
+    /**
+     * The ISBN as given and, when it differs, its canonical form, for matching stored values that were
+     * entered either way.
+     */
+    public static List<String> lookupForms(String isbn) {
+        String canonical = canonical(isbn);
+        return canonical == null || canonical.equals(isbn) ? List.of(isbn) : List.of(isbn, canonical);
+    }
+    
+    /**
+     * Numeric key of an ISBN, or {@link #NO_KEY} if it cannot be canonicalized.
+     */
+    public static long key(String isbn) {
+        String canonical = canonical(isbn);
+        return canonical != null ? Long.parseLong(canonical) : NO_KEY;
+    }
+}
@@ -0,0 +1,217 @@
+package com.library.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Open-addressing long to long map with linear probing, backed by two primitive arrays.
+ * Keys must be positive; 0 marks an empty slot. Not thread-safe.
+ */
+final class LongOffsetIndex {
+    
+    static final long MISSING = -1;
+    
+    private static final float MAX_LOAD = 0.6f;
+    private static final int WRITE_CHUNK_LONGS = 8192;
+    
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    
+    LongOffsetIndex(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+    
+    private LongOffsetIndex(long[] keys, long[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+        this.resizeAt = (int) (keys.length * MAX_LOAD);
+    }
+    
+    /**
+     * Reads a table written by {@link #writeTo}; the arrays are restored as-is, without rehashing.
+     */
+    static LongOffsetIndex readFrom(ByteBuffer source) {
+        int capacity = source.getInt();
+        int size = source.getInt();
+        if (Integer.bitCount(capacity) != 1 || size < 0 || size > capacity) {
+            throw new IllegalStateException("Corrupt index header: capacity " + capacity + ", size " + size);
+        }
+        long[] keys = new long[capacity];
+        long[] values = new long[capacity];
+        source.asLongBuffer().get(keys);
+        source.position(source.position() + 8 * capacity);
+        source.asLongBuffer().get(values);
+        source.position(source.position() + 8 * capacity);
+        return new LongOffsetIndex(keys, values, size);
+    }
+    
+    void writeTo(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(keys.length).putInt(size).flip();
+        writeFully(channel, header);
+        writeLongs(channel, keys);
+        writeLongs(channel, values);
+    }
+    
+    long get(long key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : MISSING;
+    }
+    
+    long put(long key, long value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        if (size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+        
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return MISSING;
+    }
+    
+    long remove(long key) {
+        int gap = find(key);
+        if (gap < 0) {
+            return MISSING;
+        }
+        long previous = values[gap];
+        
+        // Backward-shift deletion: pull later entries of the probe run into the gap so lookups never stop early
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (keys[slot] == 0) {
+                break;
+            }
+            int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+        return previous;
+    }
+    
+    /**
+     * Replaces every value with {@code operator.applyAsLong(key, value)}.
+     */
+    void replaceValues(LongBinaryOperator operator) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                values[i] = operator.applyAsLong(keys[i], values[i]);
+            }
+        }
+    }
+    
+    long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        for (long key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+    
+    void clear() {
+        allocate(tableSizeFor(16));
+        size = 0;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    long memoryBytes() {
+        return 16L * keys.length;
+    }
+    
+    private int find(long key) {
+        if (key <= 0) {
+            return -1;
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = slot(key);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * MAX_LOAD);
+    }
+    
+    private static void writeLongs(FileChannel channel, long[] longs) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(8 * WRITE_CHUNK_LONGS);
+        for (int from = 0; from < longs.length; from += WRITE_CHUNK_LONGS) {
+            int count = Math.min(WRITE_CHUNK_LONGS, longs.length - from);
+            chunk.clear();
+            chunk.asLongBuffer().put(longs, from, count);
+            chunk.limit(8 * count);
+            writeFully(channel, chunk);
+        }
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        return Math.min(capacity, 1 << 30);
+    }
+}
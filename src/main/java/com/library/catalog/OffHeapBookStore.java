@@ -0,0 +1,416 @@
+package com.library.catalog;
+
+import com.library.dto.response.BookSummary;
+import com.library.entity.Book;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Book records encoded into direct ByteBuffer arenas, so a catalog of millions of titles costs the heap
+ * two primitive index arrays instead of millions of small objects. Records are decoded on every read.
+ * <p>
+ * A record that outgrows its slot is appended and the old slot becomes dead space; once dead space
+ * exceeds both one arena and the live data, the live records are copied into fresh arenas.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.store.type", havingValue = "offheap", matchIfMissing = true)
+public class OffHeapBookStore implements BookRecordStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapBookStore.class);
+    
+    // Record layout; variable parts follow the header as ISBN (ASCII), title (UTF-8), author ids
+    private static final int SLOT = 0;                 // int, bytes reserved for the record
+    private static final int ID = 4;                   // long
+    private static final int VERSION = 12;             // long
+    private static final int CATEGORY_ID = 20;         // long, 0 when absent
+    private static final int TOTAL_COPIES = 28;        // int
+    private static final int AVAILABLE_COPIES = 32;    // int
+    private static final int STATUS = 36;              // byte, BookStatus ordinal
+    private static final int ISBN_LENGTH = 37;         // unsigned byte
+    private static final int TITLE_LENGTH = 38;        // unsigned short
+    private static final int AUTHOR_COUNT = 40;        // unsigned short
+    private static final int HEADER = 42;
+    
+    private static final Book.BookStatus[] STATUSES = Book.BookStatus.values();
+    
+    private final int arenaBytes;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<ByteBuffer> arenas = new ArrayList<>();
+    private int writePosition;
+    private long liveBytes;
+    private long deadBytes;
+    
+    // Book id to (arena << 32 | position), and ISBN key to book id
+    private LongOffsetIndex offsets;
+    private LongOffsetIndex isbnIds;
+    
+    @Autowired
+    public OffHeapBookStore(@Value("${catalog.offheap.arena-bytes:67108864}") int arenaBytes,
+                            @Value("${catalog.offheap.expected-records:100000}") int expectedRecords,
+                            MeterRegistry meterRegistry) {
+        this.arenaBytes = arenaBytes;
+        this.offsets = new LongOffsetIndex(expectedRecords);
+        this.isbnIds = new LongOffsetIndex(expectedRecords);
+        
+        Gauge.builder("library.catalog.offheap.allocated", this, OffHeapBookStore::getAllocatedBytes)
+             .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("library.catalog.offheap.live", this, OffHeapBookStore::getLiveBytes)
+             .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("library.catalog.offheap.index", this, OffHeapBookStore::getIndexBytes)
+             .description("On-heap bytes held by the primitive indexes")
+             .baseUnit("bytes").register(meterRegistry);
+    }
+    
+    @Override
+    public BookSummary get(long id) {
+        lock.readLock().lock();
+        try {
+            long offset = offsets.get(id);
+            return offset != LongOffsetIndex.MISSING ? decode(arena(offset), position(offset)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public Long findIdByIsbnKey(long isbnKey) {
+        lock.readLock().lock();
+        try {
+            long id = isbnIds.get(isbnKey);
+            return id != LongOffsetIndex.MISSING ? id : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void put(BookSummary book) {
+        long id = book.getId();
+        long version = book.getVersion() != null ? book.getVersion() : 0;
+        byte[] isbn = book.getIsbn().getBytes(StandardCharsets.US_ASCII);
+        byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+        List<Long> authorIds = book.getAuthorIds();
+        if (isbn.length > 0xFF || title.length > 0xFFFF || authorIds.size() > 0xFFFF) {
+            throw new IllegalArgumentException("Book " + id + " does not fit the record layout");
+        }
+        int length = HEADER + isbn.length + title.length + 8 * authorIds.size();
+        
+        lock.writeLock().lock();
+        try {
+            long offset = offsets.get(id);
+            if (offset != LongOffsetIndex.MISSING) {
+                ByteBuffer arena = arena(offset);
+                int position = position(offset);
+                if (arena.getLong(position + VERSION) > version) {
+                    return;
+                }
+                removeIsbn(arena, position, id);
+                
+                int slot = arena.getInt(position + SLOT);
+                if (length <= slot) {
+                    write(arena, position, slot, book, version, isbn, title);
+                    putIsbn(book.getIsbn(), id);
+                    return;
+                }
+                liveBytes -= slot;
+                deadBytes += slot;
+            }
+            
+            int slot = align(length);
+            offset = allocate(slot);
+            write(arena(offset), position(offset), slot, book, version, isbn, title);
+            offsets.put(id, offset);
+            putIsbn(book.getIsbn(), id);
+            liveBytes += slot;
+            
+            compactIfFragmented();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            long offset = offsets.remove(id);
+            if (offset == LongOffsetIndex.MISSING) {
+                return;
+            }
+            ByteBuffer arena = arena(offset);
+            int position = position(offset);
+            removeIsbn(arena, position, id);
+            
+            int slot = arena.getInt(position + SLOT);
+            liveBytes -= slot;
+            deadBytes += slot;
+            compactIfFragmented();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            // Direct buffers are released once the collector finds them unreachable
+            arenas.clear();
+            offsets.clear();
+            isbnIds.clear();
+            writePosition = 0;
+            liveBytes = 0;
+            deadBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return offsets.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public long getAllocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) arenas.size() * arenaBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public long getLiveBytes() {
+        lock.readLock().lock();
+        try {
+            return liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int getArenaBytes() {
+        return arenaBytes;
+    }
+    
+    // Snapshot support, see CatalogSnapshot
+    
+    long[] ids() {
+        lock.readLock().lock();
+        try {
+            return offsets.keys();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Copies the book's record to the target's position, trimmed to its encoded size, and advances it.
+     * Returns the bytes copied, 0 if the book is gone, or -1 if the target has no room for it.
+     */
+    int copyRecord(long id, ByteBuffer target) {
+        lock.readLock().lock();
+        try {
+            long offset = offsets.get(id);
+            if (offset == LongOffsetIndex.MISSING) {
+                return 0;
+            }
+            ByteBuffer arena = arena(offset);
+            int position = position(offset);
+            int length = recordSlot(arena, position);
+            if (target.remaining() < length) {
+                return -1;
+            }
+            int targetPosition = target.position();
+            target.put(targetPosition, arena, position, length);
+            target.putInt(targetPosition + SLOT, length);
+            target.position(targetPosition + length);
+            return length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Replaces the contents with records that already sit in (mapped) arenas. The arenas are sealed:
+     * records may be rewritten in place, but new records go to fresh direct arenas.
+     */
+    void restore(List<ByteBuffer> mappedArenas, LongOffsetIndex restoredOffsets, LongOffsetIndex restoredIsbnIds,
+                 long restoredLiveBytes) {
+        lock.writeLock().lock();
+        try {
+            arenas.clear();
+            arenas.addAll(mappedArenas);
+            writePosition = arenaBytes;
+            offsets = restoredOffsets;
+            isbnIds = restoredIsbnIds;
+            liveBytes = restoredLiveBytes;
+            deadBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    static long isbnKey(ByteBuffer arena, int position) {
+        byte[] isbn = new byte[arena.get(position + ISBN_LENGTH) & 0xFF];
+        arena.get(position + HEADER, isbn);
+        return Isbns.key(new String(isbn, StandardCharsets.US_ASCII));
+    }
+    
+    public long getIndexBytes() {
+        lock.readLock().lock();
+        try {
+            return offsets.memoryBytes() + isbnIds.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static void write(ByteBuffer arena, int position, int slot, BookSummary book, long version,
+                              byte[] isbn, byte[] title) {
+        List<Long> authorIds = book.getAuthorIds();
+        arena.putInt(position + SLOT, slot);
+        arena.putLong(position + ID, book.getId());
+        arena.putLong(position + VERSION, version);
+        arena.putLong(position + CATEGORY_ID, book.getCategoryId() != null ? book.getCategoryId() : 0);
+        arena.putInt(position + TOTAL_COPIES, book.getTotalCopies() != null ? book.getTotalCopies() : 0);
+        arena.putInt(position + AVAILABLE_COPIES, book.getAvailableCopies() != null ? book.getAvailableCopies() : 0);
+        arena.put(position + STATUS, (byte) book.getStatus().ordinal());
+        arena.put(position + ISBN_LENGTH, (byte) isbn.length);
+        arena.putShort(position + TITLE_LENGTH, (short) title.length);
+        arena.putShort(position + AUTHOR_COUNT, (short) authorIds.size());
+        
+        int cursor = position + HEADER;
+        arena.put(cursor, isbn);
+        cursor += isbn.length;
+        arena.put(cursor, title);
+        cursor += title.length;
+        for (Long authorId : authorIds) {
+            arena.putLong(cursor, authorId);
+            cursor += 8;
+        }
+    }
+    
+    private static BookSummary decode(ByteBuffer arena, int position) {
+        int isbnLength = arena.get(position + ISBN_LENGTH) & 0xFF;
+        int titleLength = arena.getShort(position + TITLE_LENGTH) & 0xFFFF;
+        int authorCount = arena.getShort(position + AUTHOR_COUNT) & 0xFFFF;
+        
+        int cursor = position + HEADER;
+        byte[] isbn = new byte[isbnLength];
+        arena.get(cursor, isbn);
+        cursor += isbnLength;
+        byte[] title = new byte[titleLength];
+        arena.get(cursor, title);
+        cursor += titleLength;
+        List<Long> authorIds = new ArrayList<>(authorCount);
+        for (int i = 0; i < authorCount; i++) {
+            authorIds.add(arena.getLong(cursor));
+            cursor += 8;
+        }
+        
+        long categoryId = arena.getLong(position + CATEGORY_ID);
+        return new BookSummary(arena.getLong(position + ID), arena.getLong(position + VERSION),
+                               new String(isbn, StandardCharsets.US_ASCII), new String(title, StandardCharsets.UTF_8),
+                               categoryId != 0 ? categoryId : null, authorIds,
+                               arena.getInt(position + TOTAL_COPIES), arena.getInt(position + AVAILABLE_COPIES),
+                               STATUSES[arena.get(position + STATUS)]);
+    }
+    
+    private void putIsbn(String isbn, long id) {
+        long key = Isbns.key(isbn);
+        if (key != Isbns.NO_KEY) {
+            isbnIds.put(key, id);
+        }
+    }
+    
+    private void removeIsbn(ByteBuffer arena, int position, long id) {
+        long key = isbnKey(arena, position);
+        // Another book may have taken the ISBN over in the meantime
+        if (key != Isbns.NO_KEY && isbnIds.get(key) == id) {
+            isbnIds.remove(key);
+        }
+    }
+    
+    private long allocate(int slot) {
+        if (slot > arenaBytes) {
+            throw new IllegalArgumentException("Record of " + slot + " bytes exceeds the arena size");
+        }
+        if (arenas.isEmpty() || writePosition + slot > arenaBytes) {
+            if (!arenas.isEmpty()) {
+                deadBytes += arenaBytes - writePosition;
+            }
+            arenas.add(ByteBuffer.allocateDirect(arenaBytes));
+            writePosition = 0;
+        }
+        long offset = ((long) (arenas.size() - 1) << 32) | writePosition;
+        writePosition += slot;
+        return offset;
+    }
+    
+    private void compactIfFragmented() {
+        if (deadBytes <= arenaBytes || deadBytes <= liveBytes) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        List<ByteBuffer> previous = new ArrayList<>(arenas);
+        arenas.clear();
+        writePosition = 0;
+        liveBytes = 0;
+        deadBytes = 0;
+        
+        // Records are copied at their exact size, which also returns space left by in-place shrinks
+        offsets.replaceValues((id, offset) -> {
+            ByteBuffer source = previous.get((int) (offset >>> 32));
+            int position = position(offset);
+            int slot = recordSlot(source, position);
+            long target = allocate(slot);
+            ByteBuffer arena = arena(target);
+            arena.put(position(target), source, position, slot);
+            arena.putInt(position(target) + SLOT, slot);
+            liveBytes += slot;
+            return target;
+        });
+        
+        logger.info("Compacted catalog store from {} to {} arena(s) in {} ms", previous.size(), arenas.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    // Slot size the record needs, which may be less than the slot it currently occupies
+    private static int recordSlot(ByteBuffer arena, int position) {
+        return align(HEADER + (arena.get(position + ISBN_LENGTH) & 0xFF)
+                     + (arena.getShort(position + TITLE_LENGTH) & 0xFFFF)
+                     + 8 * (arena.getShort(position + AUTHOR_COUNT) & 0xFFFF));
+    }
+    
+    private ByteBuffer arena(long offset) {
+        return arenas.get((int) (offset >>> 32));
+    }
+    
+    private static int position(long offset) {
+        return (int) offset;
+    }
+    
+    private static int align(int length) {
+        return (length + 7) & ~7;
+    }
+}
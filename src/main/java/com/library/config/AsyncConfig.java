@@ -1,7 +1,10 @@
 package com.library.config;
 
+import com.library.limiter.LaneBulkheads;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -11,8 +14,29 @@ import java.util.concurrent.Executor;
 @EnableAsync
 public class AsyncConfig {
     
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    // Virtual threads are cheap, so the limit is what keeps background work from swamping the connection pool
+    @Value("${async.virtual.concurrency-limit:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int virtualConcurrencyLimit;
+    
+    @Value("${dashboard.pool-size:8}")
+    private int dashboardPoolSize;
+    
+    @Value("${dashboard.queue-capacity:64}")
+    private int dashboardQueueCapacity;
+    
+    // Background work off request and commit threads, such as the availability stream's publisher
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("LibraryAsync-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            return executor;
+        }
+        
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(5);
@@ -21,4 +45,18 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+    
+    // Fan-out pool for dashboard sub-queries; tasks inherit the caller's lane, so their connections come
+    // out of that lane's share rather than the circulation reserve
+    @Bean(name = "dashboardExecutor")
+    public ThreadPoolTaskExecutor dashboardExecutor(LaneBulkheads laneBulkheads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(dashboardPoolSize);
+        executor.setMaxPoolSize(dashboardPoolSize);
+        executor.setQueueCapacity(dashboardQueueCapacity);
+        executor.setThreadNamePrefix("Dashboard-");
+        executor.setTaskDecorator(laneBulkheads.laneDecorator());
+        executor.initialize();
+        return executor;
+    }
 }
@@ -0,0 +1,28 @@
+package com.library.config;
+
+import com.library.limiter.LaneAwareDataSource;
+import com.library.limiter.LaneBulkheads;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class LaneConfig {
+    
+    // Static so the post-processor is registered before the DataSource is created
+    @Bean
+    public static BeanPostProcessor laneAwareDataSourcePostProcessor(ObjectProvider<LaneBulkheads> bulkheads) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof LaneAwareDataSource)) {
+                    return new LaneAwareDataSource((DataSource) bean, bulkheads);
+                }
+                return bean;
+            }
+        };
+    }
+}
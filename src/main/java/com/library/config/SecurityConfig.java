@@ -1,10 +1,22 @@
 package com.library.config;
 
+import com.library.limiter.AdaptiveConcurrencyLimiter;
+import com.library.limiter.ConcurrencyLimitFilter;
+import com.library.limiter.LaneBulkheads;
+import com.library.limiter.LaneFilter;
+import com.library.limiter.RateLimitFilter;
+import com.library.limiter.RateLimitProperties;
+import com.library.limiter.RateLimiter;
+import com.library.security.BoundedPasswordEncoder;
 import com.library.security.JwtAuthenticationEntryPoint;
 import com.library.security.JwtRequestFilter;
+import com.library.security.UserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -12,7 +24,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -26,26 +37,65 @@ public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtRequestFilter jwtRequestFilter;
+    private final RateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final LaneBulkheads laneBulkheads;
+    private final int bcryptStrength;
+    private final int hashingThreads;
+    private final int hashingQueueCapacity;
+    private final long hashingWaitTimeoutMs;
     
     @Autowired
     public SecurityConfig(UserDetailsService userDetailsService,
                          JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
-                         JwtRequestFilter jwtRequestFilter) {
+                         JwtRequestFilter jwtRequestFilter,
+                         RateLimiter rateLimiter,
+                         AdaptiveConcurrencyLimiter concurrencyLimiter,
+                         LaneBulkheads laneBulkheads,
+                         @Value("${security.password.bcrypt-strength:10}") int bcryptStrength,
+                         @Value("${security.password.hashing-threads:0}") int hashingThreads,
+                         @Value("${security.password.queue-capacity:0}") int hashingQueueCapacity,
+                         @Value("${security.password.wait-timeout-ms:1000}") long hashingWaitTimeoutMs) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.jwtRequestFilter = jwtRequestFilter;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.laneBulkheads = laneBulkheads;
+        this.bcryptStrength = bcryptStrength;
+        this.hashingThreads = hashingThreads;
+        this.hashingQueueCapacity = hashingQueueCapacity;
+        this.hashingWaitTimeoutMs = hashingWaitTimeoutMs;
+    }
+    
+    // Sized to the CPU count by default: hashing is CPU-bound, extra threads only add contention.
+    // The queue holds two hashes per thread by default, so a queued request waits a few hash times at most
+    // and the rest are turned away straight away.
+    @Bean(name = "passwordHashingExecutor")
+    public ThreadPoolTaskExecutor passwordHashingExecutor() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(hashingQueueCapacity > 0 ? hashingQueueCapacity : 2 * threads);
+        executor.setThreadNamePrefix("PasswordHash-");
+        executor.initialize();
+        return executor;
     }
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), passwordHashingExecutor(),
+                                          hashingWaitTimeoutMs, meterRegistry);
     }
     
+    // Hashes stored with a lower work factor than configured are re-encoded on the next successful login
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
     
@@ -54,9 +104,9 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
     
-
+    
     @Bean
-public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
     http.csrf(csrf -> csrf.disable())
         .authorizeHttpRequests(authz -> authz
             .requestMatchers("/api/auth/**").permitAll()
@@ -68,18 +118,26 @@ public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
             .requestMatchers("/").permitAll()  // Add root path
             .requestMatchers("/api/books").hasAnyRole("LIBRARIAN", "PATRON")
             .requestMatchers("/api/books/**").hasRole("LIBRARIAN")
+            .requestMatchers("/api/patrons/*/dashboard").hasAnyRole("LIBRARIAN", "PATRON")
             .requestMatchers("/api/patrons/**").hasRole("LIBRARIAN")
             .requestMatchers("/api/borrow/**").hasAnyRole("LIBRARIAN", "PATRON")
+            .requestMatchers("/api/kiosk/**").hasRole("LIBRARIAN")
             .requestMatchers("/api/authors/**").hasRole("LIBRARIAN")
             .requestMatchers("/api/categories/**").hasRole("LIBRARIAN")
+            .requestMatchers("/api/audit/**").hasRole("LIBRARIAN")
             .anyRequest().authenticated()
         )
         .exceptionHandling(ex -> ex.authenticationEntryPoint(jwtAuthenticationEntryPoint))
         .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .headers(headers -> headers.frameOptions().disable()); // For H2 console
     
-    http.authenticationProvider(authenticationProvider());
+    http.authenticationProvider(authenticationProvider);
     http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+    // The first registration fixes RateLimitFilter's order, so the filters below follow the user-rule instance
+    http.addFilterAfter(new RateLimitFilter(rateLimiter, RateLimitProperties.KeyType.USER), JwtRequestFilter.class);
+    http.addFilterBefore(new RateLimitFilter(rateLimiter, RateLimitProperties.KeyType.IP), JwtRequestFilter.class);
+    http.addFilterAfter(new LaneFilter(laneBulkheads), RateLimitFilter.class);
+    http.addFilterAfter(new ConcurrencyLimitFilter(concurrencyLimiter), LaneFilter.class);
     
     return http.build();
 }
@@ -1,5 +1,8 @@
 package com.library.config;
 
+import com.fasterxml.jackson.databind.Module;
+import com.library.json.ResponseWritersModule;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -9,6 +12,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @EnableJpaAuditing
 public class WebConfig implements WebMvcConfigurer {
     
+    // Picked up by Spring Boot's Jackson auto-configuration and so used by the MVC message converters
+    @Bean
+    public Module responseWritersModule() {
+        return new ResponseWritersModule();
+    }
+    
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
@@ -0,0 +1,87 @@
+package com.library.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.audit.AuditQuery;
+import com.library.audit.AuditRecord;
+import com.library.exception.BusinessRuleException;
+import com.library.service.AuditService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+@RequestMapping("/api/audit")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AuditController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditController.class);
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_LIMIT = 100000;
+    
+    private final AuditService auditService;
+    private final ObjectMapper objectMapper;
+    
+    @Autowired
+    public AuditController(AuditService auditService, ObjectMapper objectMapper) {
+        this.auditService = auditService;
+        this.objectMapper = objectMapper;
+    }
+    
+    // Matches are written as newline-delimited JSON while the segments are scanned
+    @GetMapping
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public void searchAuditEvents(
+            @RequestParam(required = false) String user,
+            @RequestParam(required = false) String operation,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1000") int limit,
+            HttpServletResponse response) throws IOException {
+        
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessRuleException("'from' must not be after 'to'");
+        }
+        
+        AuditQuery query = new AuditQuery(user, operation, toEpochMilli(from, 0), toEpochMilli(to, Long.MAX_VALUE),
+                                          Math.max(1, Math.min(limit, MAX_LIMIT)));
+        logger.info("Searching audit events for user: {}, operation: {}, from: {}, to: {}", user, operation, from, to);
+        
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            auditService.search(query, (segment, base) -> {
+                generator.writeStartObject();
+                generator.writeStringField("timestamp", formatTimestamp(AuditRecord.timestamp(segment, base)));
+                generator.writeStringField("type", AuditRecord.typeName(AuditRecord.type(segment, base)));
+                generator.writeStringField("user", AuditRecord.username(segment, base));
+                generator.writeStringField("operation", AuditRecord.operation(segment, base));
+                generator.writeStringField("subject", AuditRecord.subject(segment, base));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            });
+        }
+    }
+    
+    private static long toEpochMilli(LocalDateTime dateTime, long defaultValue) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : defaultValue;
+    }
+    
+    private static String formatTimestamp(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault())
+                            .format(TIMESTAMP_FORMATTER);
+    }
+}
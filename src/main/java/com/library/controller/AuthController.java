@@ -5,7 +5,9 @@ import com.library.dto.request.RegisterRequest;
 import com.library.dto.response.ApiResponse;
 import com.library.dto.response.JwtResponse;
 import com.library.entity.User;
+import com.library.security.JwtPrincipal;
 import com.library.security.JwtUtil;
+import com.library.security.TokenVersionService;
 import com.library.service.AuditService;
 import com.library.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -32,16 +35,18 @@ public class AuthController {
     private final UserService userService;
     private final JwtUtil jwtUtil;
     private final AuditService auditService;
+    private final TokenVersionService tokenVersionService;
     
     @Autowired
     public AuthController(AuthenticationManager authenticationManager, UserService userService,
-                         JwtUtil jwtUtil, AuditService auditService) {
+                         JwtUtil jwtUtil, AuditService auditService, TokenVersionService tokenVersionService) {
         this.authenticationManager = authenticationManager;
         this.userService = userService;
         this.jwtUtil = jwtUtil;
         this.auditService = auditService;
+        this.tokenVersionService = tokenVersionService;
     }
-
+    
     // Add a simple test endpoint first
     @GetMapping("/test")
     public ResponseEntity<ApiResponse<String>> test() {
@@ -59,7 +64,7 @@ public class AuthController {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         User user = userService.findByUsername(userDetails.getUsername());
         
-        String jwt = jwtUtil.generateToken(userDetails);
+        String jwt = jwtUtil.generateToken(user);
         
         JwtResponse jwtResponse = new JwtResponse(jwt, user.getId(), user.getUsername(), 
                                                 user.getEmail(), user.getRole().name());
@@ -89,6 +94,24 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("User registered successfully", user));
     }
     
+    // Revokes every token issued to the caller, not only the one presented
+    @PostMapping("/logout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<Void>> logoutUser(Authentication authentication, HttpServletRequest request) {
+        Long userId = authentication.getPrincipal() instanceof JwtPrincipal
+                ? ((JwtPrincipal) authentication.getPrincipal()).getUserId()
+                : userService.findByUsername(authentication.getName()).getId();
+        
+        tokenVersionService.revokeTokens(userId);
+        
+        String ipAddress = getClientIpAddress(request);
+        auditService.logSecurityEvent(authentication.getName(), "LOGOUT", ipAddress);
+        
+        logger.info("User logged out: {}", authentication.getName());
+        
+        return ResponseEntity.ok(ApiResponse.success("Logout successful", null));
+    }
+    
     private String getClientIpAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor == null || xForwardedFor.isEmpty()) {
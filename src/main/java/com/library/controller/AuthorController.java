@@ -1,6 +1,8 @@
 package com.library.controller;
 
+import com.library.batch.BatchLoaders;
 import com.library.dto.response.ApiResponse;
+import com.library.dto.response.EntityVersion;
 import com.library.entity.Author;
 import com.library.service.AuthorService;
 import jakarta.validation.Valid;
@@ -11,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,10 +26,12 @@ public class AuthorController {
     private static final Logger logger = LoggerFactory.getLogger(AuthorController.class);
     
     private final AuthorService authorService;
+    private final BatchLoaders batchLoaders;
     
     @Autowired
-    public AuthorController(AuthorService authorService) {
+    public AuthorController(AuthorService authorService, BatchLoaders batchLoaders) {
         this.authorService = authorService;
+        this.batchLoaders = batchLoaders;
     }
     
     @PostMapping
@@ -39,7 +44,12 @@ public class AuthorController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Author>> getAuthorById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<Author>> getAuthorById(@PathVariable Long id, WebRequest webRequest) {
+        EntityVersion version = authorService.getVersion(id);
+        if (webRequest.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        
         logger.info("Fetching author with ID: {}", id);
         
         Author author = authorService.findById(id);
@@ -47,13 +57,27 @@ public class AuthorController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Author>>> getAllAuthors() {
+    public ResponseEntity<ApiResponse<List<Author>>> getAllAuthors(WebRequest webRequest) {
+        EntityVersion version = authorService.getCollectionVersion();
+        if (webRequest.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        
         logger.info("Fetching all authors");
         
         List<Author> authors = authorService.findAll();
         return ResponseEntity.ok(ApiResponse.success(authors));
     }
     
+    @GetMapping(params = "ids")
+    public ResponseEntity<ApiResponse<List<Author>>> getAuthorsByIds(@RequestParam List<Long> ids) {
+        logger.info("Fetching authors by IDs: {}", ids);
+        
+        batchLoaders.checkIds(ids);
+        List<Author> authors = batchLoaders.authors().getMany(ids);
+        return ResponseEntity.ok(ApiResponse.success(authors));
+    }
+    
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<Author>>> searchAuthors(@RequestParam String name) {
         logger.info("Searching authors by name: {}", name);
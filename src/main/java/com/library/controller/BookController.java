@@ -1,9 +1,18 @@
 package com.library.controller;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.library.dto.request.BookRequest;
+import com.library.batch.BatchLoaders;
 import com.library.dto.response.ApiResponse;
+import com.library.dto.response.BookSummary;
+import com.library.dto.response.EntityVersion;
 import com.library.entity.Book;
+import com.library.fieldset.FieldCatalogs;
+import com.library.fieldset.FieldSet;
 import com.library.service.BookService;
+import com.library.stream.AvailabilityStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,10 +22,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -27,10 +39,15 @@ public class BookController {
     private static final Logger logger = LoggerFactory.getLogger(BookController.class);
     
     private final BookService bookService;
+    private final BatchLoaders batchLoaders;
+    private final AvailabilityStream availabilityStream;
     
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BatchLoaders batchLoaders,
+                          AvailabilityStream availabilityStream) {
         this.bookService = bookService;
+        this.batchLoaders = batchLoaders;
+        this.availabilityStream = availabilityStream;
     }
     
     @PostMapping
@@ -44,11 +61,34 @@ public class BookController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Book>> getBookById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<RawValue>> getBookById(@PathVariable Long id, WebRequest webRequest) {
+        // Revalidation only needs the version; the book itself is loaded when it changed
+        EntityVersion version = bookService.getVersion(id);
+        if (webRequest.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        
         logger.info("Fetching book with ID: {}", id);
         
-        Book book = bookService.findById(id);
-        return ResponseEntity.ok(ApiResponse.success(book));
+        // Pre-rendered book JSON, embedded as is in the usual envelope
+        String book = bookService.findJsonById(id, version.getVersion());
+        return ResponseEntity.ok(ApiResponse.success(new RawValue(book)));
+    }
+    
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<ApiResponse<BookSummary>> getBookSummary(@PathVariable Long id) {
+        logger.info("Fetching book summary with ID: {}", id);
+        
+        BookSummary summary = bookService.findSummaryById(id);
+        return ResponseEntity.ok(ApiResponse.success(summary));
+    }
+    
+    @GetMapping("/isbn/{isbn}/summary")
+    public ResponseEntity<ApiResponse<BookSummary>> getBookSummaryByIsbn(@PathVariable String isbn) {
+        logger.info("Fetching book summary with ISBN: {}", isbn);
+        
+        BookSummary summary = bookService.findSummaryByIsbn(isbn);
+        return ResponseEntity.ok(ApiResponse.success(summary));
     }
     
     @GetMapping("/isbn/{isbn}")
@@ -60,23 +100,44 @@ public class BookController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Book>>> getAllBooks() {
+    public ResponseEntity<ApiResponse<List<?>>> getAllBooks(@RequestParam(required = false) String fields) {
         logger.info("Fetching all books");
         
-        List<Book> books = bookService.findAll();
+        FieldSet fieldSet = FieldCatalogs.BOOKS.parse(fields);
+        List<?> books = fieldSet != null ? bookService.findAll(fieldSet) : bookService.findAll();
+        return ResponseEntity.ok(ApiResponse.success(books));
+    }
+    
+    @GetMapping(params = "ids")
+    public ResponseEntity<ApiResponse<List<Book>>> getBooksByIds(@RequestParam List<Long> ids) {
+        logger.info("Fetching books by IDs: {}", ids);
+        
+        batchLoaders.checkIds(ids);
+        List<Book> books = batchLoaders.books().getMany(ids);
         return ResponseEntity.ok(ApiResponse.success(books));
     }
     
     @GetMapping("/available")
-    public ResponseEntity<ApiResponse<List<Book>>> getAvailableBooks() {
+    public ResponseEntity<ApiResponse<List<?>>> getAvailableBooks(@RequestParam(required = false) String fields) {
         logger.info("Fetching available books");
         
-        List<Book> books = bookService.findAvailableBooks();
+        FieldSet fieldSet = FieldCatalogs.BOOKS.parse(fields);
+        List<?> books = fieldSet != null ? bookService.findAvailableBooks(fieldSet)
+                                         : bookService.findAvailableBooks();
         return ResponseEntity.ok(ApiResponse.success(books));
     }
     
+    // Server-sent events carrying availability deltas; the request is held asynchronously and written with
+    // non-blocking servlet I/O, so it holds no thread
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamAvailability(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.debug("Opening availability stream");
+        availabilityStream.subscribe(request, response, lastEventId);
+    }
+    
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<Page<Book>>> searchBooks(
+    public ResponseEntity<ApiResponse<Page<?>>> searchBooks(
             @RequestParam(required = false) String title,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String authorName,
@@ -85,7 +146,8 @@ public class BookController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "title") String sortBy,
-            @RequestParam(defaultValue = "ASC") String sortDir) {
+            @RequestParam(defaultValue = "ASC") String sortDir,
+            @RequestParam(required = false) String fields) {
         
         logger.info("Searching books with filters - title: {}, categoryId: {}, authorName: {}", 
                    title, categoryId, authorName);
@@ -93,24 +155,32 @@ public class BookController {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Book> books = bookService.findBooksWithFilters(title, categoryId, authorName, 
-                                                           publisher, isbn, pageable);
+        FieldSet fieldSet = FieldCatalogs.BOOKS.parse(fields);
+        Page<?> books = fieldSet != null
+                ? bookService.findBooksWithFilters(title, categoryId, authorName, publisher, isbn, pageable, fieldSet)
+                : bookService.findBooksWithFilters(title, categoryId, authorName, publisher, isbn, pageable);
         return ResponseEntity.ok(ApiResponse.success(books));
     }
     
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<ApiResponse<List<Book>>> getBooksByCategory(@PathVariable Long categoryId) {
+    public ResponseEntity<ApiResponse<List<?>>> getBooksByCategory(@PathVariable Long categoryId,
+                                                                   @RequestParam(required = false) String fields) {
         logger.info("Fetching books by category ID: {}", categoryId);
         
-        List<Book> books = bookService.findByCategory(categoryId);
+        FieldSet fieldSet = FieldCatalogs.BOOKS.parse(fields);
+        List<?> books = fieldSet != null ? bookService.findByCategory(categoryId, fieldSet)
+                                         : bookService.findByCategory(categoryId);
         return ResponseEntity.ok(ApiResponse.success(books));
     }
     
     @GetMapping("/author")
-    public ResponseEntity<ApiResponse<List<Book>>> getBooksByAuthor(@RequestParam String authorName) {
+    public ResponseEntity<ApiResponse<List<?>>> getBooksByAuthor(@RequestParam String authorName,
+                                                                 @RequestParam(required = false) String fields) {
         logger.info("Fetching books by author: {}", authorName);
         
-        List<Book> books = bookService.findByAuthorName(authorName);
+        FieldSet fieldSet = FieldCatalogs.BOOKS.parse(fields);
+        List<?> books = fieldSet != null ? bookService.findByAuthorName(authorName, fieldSet)
+                                         : bookService.findByAuthorName(authorName);
         return ResponseEntity.ok(ApiResponse.success(books));
     }
     
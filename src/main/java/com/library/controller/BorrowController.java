@@ -3,6 +3,8 @@ package com.library.controller;
 import com.library.dto.request.BorrowRequest;
 import com.library.dto.response.ApiResponse;
 import com.library.entity.BorrowRecord;
+import com.library.fieldset.FieldCatalogs;
+import com.library.fieldset.FieldSet;
 import com.library.service.BorrowService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -53,6 +55,15 @@ public class BorrowController {
         return ResponseEntity.ok(ApiResponse.success("Book returned successfully", borrowRecord));
     }
     
+    @PutMapping("/{id}/renew")
+    @PreAuthorize("hasRole('LIBRARIAN') or @patronAccess.isBorrower(#id, authentication)")
+    public ResponseEntity<ApiResponse<BorrowRecord>> renewBorrow(@PathVariable Long id) {
+        logger.info("Processing renewal for borrow record ID: {}", id);
+        
+        BorrowRecord borrowRecord = borrowService.renewBorrow(id);
+        return ResponseEntity.ok(ApiResponse.success("Borrow renewed successfully", borrowRecord));
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('LIBRARIAN')")
     public ResponseEntity<ApiResponse<BorrowRecord>> getBorrowRecordById(@PathVariable Long id) {
@@ -63,38 +74,47 @@ public class BorrowController {
     }
     
     @GetMapping("/patron/{patronId}")
-    @PreAuthorize("hasRole('LIBRARIAN') or @patronService.findById(#patronId).user.username == authentication.name")
-    public ResponseEntity<ApiResponse<List<BorrowRecord>>> getCurrentBorrowsByPatron(@PathVariable Long patronId) {
+    @PreAuthorize("hasRole('LIBRARIAN') or @patronAccess.isOwner(#patronId, authentication)")
+    public ResponseEntity<ApiResponse<List<?>>> getCurrentBorrowsByPatron(
+            @PathVariable Long patronId,
+            @RequestParam(required = false) String fields) {
         logger.info("Fetching current borrows for patron ID: {}", patronId);
         
-        List<BorrowRecord> borrowRecords = borrowService.findByPatronId(patronId);
+        FieldSet fieldSet = FieldCatalogs.BORROW_RECORDS.parse(fields);
+        List<?> borrowRecords = fieldSet != null ? borrowService.findByPatronId(patronId, fieldSet)
+                                                 : borrowService.findByPatronId(patronId);
         return ResponseEntity.ok(ApiResponse.success(borrowRecords));
     }
     
     @GetMapping("/patron/{patronId}/history")
-    @PreAuthorize("hasRole('LIBRARIAN') or @patronService.findById(#patronId).user.username == authentication.name")
-    public ResponseEntity<ApiResponse<Page<BorrowRecord>>> getBorrowHistory(
+    @PreAuthorize("hasRole('LIBRARIAN') or @patronAccess.isOwner(#patronId, authentication)")
+    public ResponseEntity<ApiResponse<Page<?>>> getBorrowHistory(
             @PathVariable Long patronId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "borrowDate") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDir) {
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            @RequestParam(required = false) String fields) {
         
         logger.info("Fetching borrow history for patron ID: {}", patronId);
         
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<BorrowRecord> borrowHistory = borrowService.findBorrowHistory(patronId, pageable);
+        FieldSet fieldSet = FieldCatalogs.BORROW_RECORDS.parse(fields);
+        Page<?> borrowHistory = fieldSet != null ? borrowService.findBorrowHistory(patronId, pageable, fieldSet)
+                                                 : borrowService.findBorrowHistory(patronId, pageable);
         return ResponseEntity.ok(ApiResponse.success(borrowHistory));
     }
     
     @GetMapping("/overdue")
     @PreAuthorize("hasRole('LIBRARIAN')")
-    public ResponseEntity<ApiResponse<List<BorrowRecord>>> getOverdueRecords() {
+    public ResponseEntity<ApiResponse<List<?>>> getOverdueRecords(@RequestParam(required = false) String fields) {
         logger.info("Fetching overdue records");
         
-        List<BorrowRecord> overdueRecords = borrowService.findOverdueRecords();
+        FieldSet fieldSet = FieldCatalogs.BORROW_RECORDS.parse(fields);
+        List<?> overdueRecords = fieldSet != null ? borrowService.findOverdueRecords(fieldSet)
+                                                  : borrowService.findOverdueRecords();
         return ResponseEntity.ok(ApiResponse.success(overdueRecords));
     }
 }
\ No newline at end of file
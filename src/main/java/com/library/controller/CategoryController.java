@@ -1,6 +1,8 @@
 package com.library.controller;
 
+import com.library.batch.BatchLoaders;
 import com.library.dto.response.ApiResponse;
+import com.library.dto.response.EntityVersion;
 import com.library.entity.Category;
 import com.library.service.CategoryService;
 import jakarta.validation.Valid;
@@ -11,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,10 +26,12 @@ public class CategoryController {
     private static final Logger logger = LoggerFactory.getLogger(CategoryController.class);
     
     private final CategoryService categoryService;
+    private final BatchLoaders batchLoaders;
     
     @Autowired
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, BatchLoaders batchLoaders) {
         this.categoryService = categoryService;
+        this.batchLoaders = batchLoaders;
     }
     
     @PostMapping
@@ -39,7 +44,12 @@ public class CategoryController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Category>> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<Category>> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
+        EntityVersion version = categoryService.getVersion(id);
+        if (webRequest.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        
         logger.info("Fetching category with ID: {}", id);
         
         Category category = categoryService.findById(id);
@@ -47,13 +57,27 @@ public class CategoryController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Category>>> getAllCategories() {
+    public ResponseEntity<ApiResponse<List<Category>>> getAllCategories(WebRequest webRequest) {
+        EntityVersion version = categoryService.getCollectionVersion();
+        if (webRequest.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        
         logger.info("Fetching all categories");
         
         List<Category> categories = categoryService.findAll();
         return ResponseEntity.ok(ApiResponse.success(categories));
     }
     
+    @GetMapping(params = "ids")
+    public ResponseEntity<ApiResponse<List<Category>>> getCategoriesByIds(@RequestParam List<Long> ids) {
+        logger.info("Fetching categories by IDs: {}", ids);
+        
+        batchLoaders.checkIds(ids);
+        List<Category> categories = batchLoaders.categories().getMany(ids);
+        return ResponseEntity.ok(ApiResponse.success(categories));
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Category>> updateCategory(@PathVariable Long id, 
                                                               @Valid @RequestBody Category category) {
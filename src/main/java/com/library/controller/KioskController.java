@@ -0,0 +1,40 @@
+package com.library.controller;
+
+import com.library.kiosk.KioskProtocol;
+import com.library.kiosk.KioskService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/kiosk")
+@PreAuthorize("hasRole('LIBRARIAN')")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class KioskController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(KioskController.class);
+    
+    private final KioskService kioskService;
+    
+    @Autowired
+    public KioskController(KioskService kioskService) {
+        this.kioskService = kioskService;
+    }
+    
+    // Binary counterpart of the card lookup, borrow, return and renew endpoints; see KioskProtocol
+    @PostMapping(consumes = KioskProtocol.MEDIA_TYPE, produces = KioskProtocol.MEDIA_TYPE)
+    public void process(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.debug("Processing kiosk request of {} bytes", request.getContentLength());
+        
+        byte[] body = kioskService.process(request.getInputStream());
+        response.setContentType(KioskProtocol.MEDIA_TYPE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -1,8 +1,11 @@
 package com.library.controller;
 
 import com.library.dto.request.PatronRequest;
+import com.library.batch.BatchLoaders;
 import com.library.dto.response.ApiResponse;
+import com.library.dto.response.PatronDashboard;
 import com.library.entity.Patron;
+import com.library.service.PatronDashboardService;
 import com.library.service.PatronService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -24,10 +27,15 @@ public class PatronController {
     private static final Logger logger = LoggerFactory.getLogger(PatronController.class);
     
     private final PatronService patronService;
+    private final PatronDashboardService patronDashboardService;
+    private final BatchLoaders batchLoaders;
     
     @Autowired
-    public PatronController(PatronService patronService) {
+    public PatronController(PatronService patronService, PatronDashboardService patronDashboardService,
+                            BatchLoaders batchLoaders) {
         this.patronService = patronService;
+        this.patronDashboardService = patronDashboardService;
+        this.batchLoaders = batchLoaders;
     }
     
     @PostMapping
@@ -47,6 +55,16 @@ public class PatronController {
         return ResponseEntity.ok(ApiResponse.success(patron));
     }
     
+    // Replaces the class-level rule; SecurityConfig lets patrons through to dashboards, this keeps them to their own
+    @GetMapping("/{id}/dashboard")
+    @PreAuthorize("hasRole('LIBRARIAN') or @patronAccess.isOwner(#id, authentication)")
+    public ResponseEntity<ApiResponse<PatronDashboard>> getPatronDashboard(@PathVariable Long id) {
+        logger.info("Fetching dashboard for patron ID: {}", id);
+        
+        PatronDashboard dashboard = patronDashboardService.getDashboard(id);
+        return ResponseEntity.ok(ApiResponse.success(dashboard));
+    }
+    
     @GetMapping("/card/{libraryCardNumber}")
     public ResponseEntity<ApiResponse<Patron>> getPatronByCardNumber(@PathVariable String libraryCardNumber) {
         logger.info("Fetching patron with card number: {}", libraryCardNumber);
@@ -63,6 +81,15 @@ public class PatronController {
         return ResponseEntity.ok(ApiResponse.success(patrons));
     }
     
+    @GetMapping(params = "ids")
+    public ResponseEntity<ApiResponse<List<Patron>>> getPatronsByIds(@RequestParam List<Long> ids) {
+        logger.info("Fetching patrons by IDs: {}", ids);
+        
+        batchLoaders.checkIds(ids);
+        List<Patron> patrons = batchLoaders.patrons().getMany(ids);
+        return ResponseEntity.ok(ApiResponse.success(patrons));
+    }
+    
     @GetMapping("/overdue")
     public ResponseEntity<ApiResponse<List<Patron>>> getPatronsWithOverdueBooks() {
         logger.info("Fetching patrons with overdue books");
@@ -4,6 +4,7 @@ import com.library.entity.User;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 public class RegisterRequest {
@@ -23,6 +24,10 @@ public class RegisterRequest {
     @NotNull(message = "Role is required")
     private User.Role role;
     
+    // Optional; notification emails use the default locale without it
+    @Pattern(regexp = "[A-Za-z]{2,8}(-[A-Za-z0-9]{1,8}){0,3}", message = "Locale must be a language tag such as en or fr-CA")
+    private String locale;
+    
     // Constructors
     public RegisterRequest() {}
     
@@ -45,4 +50,7 @@ public class RegisterRequest {
     
     public User.Role getRole() { return role; }
     public void setRole(User.Role role) { this.role = role; }
+    
+    public String getLocale() { return locale; }
+    public void setLocale(String locale) { this.locale = locale; }
 }
\ No newline at end of file
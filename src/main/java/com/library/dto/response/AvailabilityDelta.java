@@ -0,0 +1,54 @@
+package com.library.dto.response;
+
+import com.library.entity.Book;
+
+import java.util.Objects;
+
+/**
+ * Availability of one book as pushed on the availability stream. A removed book carries only its id.
+ * The version lets clients ignore a delta older than the copy they already hold.
+ */
+public class AvailabilityDelta {
+    
+    private final Long bookId;
+    private final Long version;
+    private final Integer availableCopies;
+    private final Integer totalCopies;
+    private final Book.BookStatus status;
+    private final boolean removed;
+    
+    private AvailabilityDelta(Long bookId, Long version, Integer availableCopies, Integer totalCopies,
+                              Book.BookStatus status, boolean removed) {
+        this.bookId = bookId;
+        this.version = version;
+        this.availableCopies = availableCopies;
+        this.totalCopies = totalCopies;
+        this.status = status;
+        this.removed = removed;
+    }
+    
+    public static AvailabilityDelta of(BookSummary book) {
+        return new AvailabilityDelta(book.getId(), book.getVersion(), book.getAvailableCopies(),
+                                     book.getTotalCopies(), book.getStatus(), false);
+    }
+    
+    public static AvailabilityDelta removed(Long bookId) {
+        return new AvailabilityDelta(bookId, null, null, null, null, true);
+    }
+    
+    public Long getBookId() { return bookId; }
+    public Long getVersion() { return version; }
+    public Integer getAvailableCopies() { return availableCopies; }
+    public Integer getTotalCopies() { return totalCopies; }
+    public Book.BookStatus getStatus() { return status; }
+    public boolean isRemoved() { return removed; }
+    
+    // Ignores the version, which also moves on edits that leave availability alone
+    public boolean sameAvailabilityAs(AvailabilityDelta other) {
+        return other != null
+                && removed == other.removed
+                && Objects.equals(availableCopies, other.availableCopies)
+                && Objects.equals(totalCopies, other.totalCopies)
+                && status == other.status;
+    }
+}
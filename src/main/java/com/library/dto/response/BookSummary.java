@@ -0,0 +1,63 @@
+package com.library.dto.response;
+
+import com.library.catalog.Isbns;
+import com.library.entity.Book;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Flat catalog view of a book: references are ids only and the ISBN is canonical ISBN-13 where possible.
+ * Served from the catalog record store; the JPQL constructor is used when loading it.
+ */
+public class BookSummary {
+    
+    private final Long id;
+    private final Long version;
+    private final String isbn;
+    private final String title;
+    private final Long categoryId;
+    private List<Long> authorIds = Collections.emptyList();
+    private final Integer totalCopies;
+    private final Integer availableCopies;
+    private final Book.BookStatus status;
+    
+    public BookSummary(Long id, Long version, String isbn, String title, Long categoryId,
+                       Integer totalCopies, Integer availableCopies, Book.BookStatus status) {
+        String canonicalIsbn = Isbns.canonical(isbn);
+        this.id = id;
+        this.version = version;
+        this.isbn = canonicalIsbn != null ? canonicalIsbn : isbn;
+        this.title = title;
+        this.categoryId = categoryId;
+        this.totalCopies = totalCopies;
+        this.availableCopies = availableCopies;
+        this.status = status;
+    }
+    
+    // Records already held in canonical form
+    public BookSummary(Long id, Long version, String isbn, String title, Long categoryId, List<Long> authorIds,
+                       Integer totalCopies, Integer availableCopies, Book.BookStatus status) {
+        this.id = id;
+        this.version = version;
+        this.isbn = isbn;
+        this.title = title;
+        this.categoryId = categoryId;
+        this.authorIds = Collections.unmodifiableList(authorIds);
+        this.totalCopies = totalCopies;
+        this.availableCopies = availableCopies;
+        this.status = status;
+    }
+    
+    public Long getId() { return id; }
+    public Long getVersion() { return version; }
+    public String getIsbn() { return isbn; }
+    public String getTitle() { return title; }
+    public Long getCategoryId() { return categoryId; }
+    public Integer getTotalCopies() { return totalCopies; }
+    public Integer getAvailableCopies() { return availableCopies; }
+    public Book.BookStatus getStatus() { return status; }
+    
+    public List<Long> getAuthorIds() { return authorIds; }
+    public void setAuthorIds(List<Long> authorIds) { this.authorIds = Collections.unmodifiableList(authorIds); }
+}
@@ -0,0 +1,61 @@
+package com.library.dto.response;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Version-only projection used to answer conditional GETs without loading the resource.
+ * Built directly by JPQL constructor expressions, for a single entity or a whole collection.
+ * Collections carry no Last-Modified: a delete leaves no newer timestamp behind, so only the tag is reliable.
+ */
+public class EntityVersion {
+    
+    private final String tag;
+    private final Long version;
+    private final LocalDateTime lastModified;
+    
+    // Single entity
+    public EntityVersion(Long id, Long version, LocalDateTime lastModified) {
+        this.tag = id + "-" + version;
+        this.version = version;
+        this.lastModified = lastModified;
+    }
+    
+    // Entity with embedded associations: their versions are part of the tag, since renaming one changes the body
+    public EntityVersion(Long id, Long version, Long embeddedVersion, Long embeddedVersionSum,
+                         LocalDateTime lastModified, LocalDateTime embeddedLastModified,
+                         LocalDateTime embeddedLastModifiedMax) {
+        this.tag = id + "-" + version + "-" + nullToZero(embeddedVersion) + "-" + nullToZero(embeddedVersionSum);
+        this.version = version;
+        this.lastModified = latest(latest(lastModified, embeddedLastModified), embeddedLastModifiedMax);
+    }
+    
+    // Collection: changes whenever a member is added, removed or updated
+    public EntityVersion(Long count, Long versionSum, Long idSum) {
+        this.tag = count + "-" + nullToZero(versionSum) + "-" + nullToZero(idSum);
+        this.version = null;
+        this.lastModified = null;
+    }
+    
+    // Entity version, null for collections
+    public Long getVersion() {
+        return version;
+    }
+    
+    public String getETag() {
+        return "\"" + tag + "\"";
+    }
+    
+    // -1 tells Spring's conditional request handling that no Last-Modified is available
+    public long getLastModifiedMillis() {
+        return lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+    
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a == null || (b != null && b.isAfter(a)) ? b : a;
+    }
+    
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0;
+    }
+}
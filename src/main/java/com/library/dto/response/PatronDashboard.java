@@ -0,0 +1,48 @@
+package com.library.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PatronDashboard {
+    
+    private PatronResponse patron;
+    private List<BorrowRecordResponse> activeLoans;
+    private List<BorrowRecordResponse> recentHistory;
+    private Double outstandingFines;
+    private Long overdueCount;
+    private List<BookSummary> recommendations;
+    
+    // Sections that failed or missed the response deadline and were left out
+    private List<String> unavailableSections = new ArrayList<>();
+    
+    public PatronDashboard(PatronResponse patron) {
+        this.patron = patron;
+    }
+    
+    // Default constructor
+    public PatronDashboard() {}
+    
+    // Getters and Setters
+    public PatronResponse getPatron() { return patron; }
+    public void setPatron(PatronResponse patron) { this.patron = patron; }
+    
+    public List<BorrowRecordResponse> getActiveLoans() { return activeLoans; }
+    public void setActiveLoans(List<BorrowRecordResponse> activeLoans) { this.activeLoans = activeLoans; }
+    
+    public List<BorrowRecordResponse> getRecentHistory() { return recentHistory; }
+    public void setRecentHistory(List<BorrowRecordResponse> recentHistory) { this.recentHistory = recentHistory; }
+    
+    public Double getOutstandingFines() { return outstandingFines; }
+    public void setOutstandingFines(Double outstandingFines) { this.outstandingFines = outstandingFines; }
+    
+    public Long getOverdueCount() { return overdueCount; }
+    public void setOverdueCount(Long overdueCount) { this.overdueCount = overdueCount; }
+    
+    public List<BookSummary> getRecommendations() { return recommendations; }
+    public void setRecommendations(List<BookSummary> recommendations) { this.recommendations = recommendations; }
+    
+    public List<String> getUnavailableSections() { return unavailableSections; }
+    public void setUnavailableSections(List<String> unavailableSections) {
+        this.unavailableSections = unavailableSections;
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.dto.response;
+
+import com.library.entity.Patron;
+
+import java.time.LocalDate;
+
+public class PatronResponse {
+    
+    private Long id;
+    private String libraryCardNumber;
+    private String username;
+    private String email;
+    private LocalDate membershipDate;
+    private String status;
+    
+    // Constructor from entity
+    public PatronResponse(Patron patron) {
+        this.id = patron.getId();
+        this.libraryCardNumber = patron.getLibraryCardNumber();
+        this.username = patron.getUser().getUsername();
+        this.email = patron.getUser().getEmail();
+        this.membershipDate = patron.getMembershipDate();
+        this.status = patron.getStatus().toString();
+    }
+    
+    // Default constructor
+    public PatronResponse() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getLibraryCardNumber() { return libraryCardNumber; }
+    public void setLibraryCardNumber(String libraryCardNumber) { this.libraryCardNumber = libraryCardNumber; }
+    
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    
+    public LocalDate getMembershipDate() { return membershipDate; }
+    public void setMembershipDate(LocalDate membershipDate) { this.membershipDate = membershipDate; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
@@ -1,14 +1,16 @@
 package com.library.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = @Index(name = "idx_books_updated_at", columnList = "updated_at"))
 public class Book {
     
     @Id
@@ -74,6 +76,15 @@ public class Book {
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<BorrowRecord> borrowRecords = new ArrayList<>();
     
+    // Bumped by Hibernate on every change; basis of the resource's ETag
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
     // Constructors
     public Book() {}
     
@@ -90,6 +101,12 @@ public class Book {
         this.location = location;
     }
     
+    @PrePersist
+    @PreUpdate
+    protected void onChange() {
+        updatedAt = LocalDateTime.now();
+    }
+    
     // Business methods
     public boolean isAvailable() {
         return status == BookStatus.AVAILABLE && availableCopies > 0;
@@ -157,6 +174,12 @@ public class Book {
     public List<BorrowRecord> getBorrowRecords() { return borrowRecords; }
     public void setBorrowRecords(List<BorrowRecord> borrowRecords) { this.borrowRecords = borrowRecords; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
     public enum BookStatus {
         AVAILABLE, BORROWED, MAINTENANCE
     }
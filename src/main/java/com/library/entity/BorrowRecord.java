@@ -42,6 +42,10 @@ public class BorrowRecord {
     @Column(name = "fine_amount")
     private Double fineAmount;
     
+    // Defaulted in the DDL so the column can be added to a table that already has rows
+    @Column(name = "renewal_count", nullable = false, columnDefinition = "integer default 0")
+    private int renewalCount = 0;
+    
     // Constructors
     public BorrowRecord() {}
     
@@ -69,6 +73,11 @@ public class BorrowRecord {
         }
     }
     
+    public void renew(int periodDays) {
+        this.dueDate = dueDate.plusDays(periodDays);
+        this.renewalCount++;
+    }
+    
     public void returnBook() {
         this.returnDate = LocalDate.now();
         this.status = BorrowStatus.RETURNED;
@@ -102,6 +111,9 @@ public class BorrowRecord {
     public Double getFineAmount() { return fineAmount; }
     public void setFineAmount(Double fineAmount) { this.fineAmount = fineAmount; }
     
+    public int getRenewalCount() { return renewalCount; }
+    public void setRenewalCount(int renewalCount) { this.renewalCount = renewalCount; }
+    
     public enum BorrowStatus {
         BORROWED, RETURNED, OVERDUE
     }
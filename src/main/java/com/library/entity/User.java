@@ -45,6 +45,16 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Role role;
     
+    // Embedded in issued tokens; bumping it revokes every token issued before
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    private Integer tokenVersion = 0;
+    
+    // Language tag for notification emails; null means the notification.locale default
+    @Column(length = 35)
+    @Size(max = 35, message = "Locale must be at most 35 characters")
+    private String locale;
+    
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -113,6 +123,12 @@ public class User implements UserDetails {
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
     
+    public Integer getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(Integer tokenVersion) { this.tokenVersion = tokenVersion; }
+    
+    public String getLocale() { return locale; }
+    public void setLocale(String locale) { this.locale = locale; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
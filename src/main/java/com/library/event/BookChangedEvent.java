@@ -0,0 +1,41 @@
+package com.library.event;
+
+/**
+ * Published when a book, or data embedded in its representation, changes.
+ * A null book id means any book may be affected, e.g. after an author or category update.
+ * Availability-only events come from borrows and returns, which change nothing but the copy counts.
+ */
+public class BookChangedEvent {
+    
+    private final Long bookId;
+    private final boolean availabilityOnly;
+    
+    private BookChangedEvent(Long bookId, boolean availabilityOnly) {
+        this.bookId = bookId;
+        this.availabilityOnly = availabilityOnly;
+    }
+    
+    public static BookChangedEvent of(Long bookId) {
+        return new BookChangedEvent(bookId, false);
+    }
+    
+    public static BookChangedEvent availabilityOf(Long bookId) {
+        return new BookChangedEvent(bookId, true);
+    }
+    
+    public static BookChangedEvent allBooks() {
+        return new BookChangedEvent(null, false);
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public boolean isAllBooks() {
+        return bookId == null;
+    }
+    
+    public boolean isAvailabilityOnly() {
+        return availabilityOnly;
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.fieldset;
+
+import com.library.exception.BusinessRuleException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields one resource supports for sparse fieldsets.
+ */
+public final class FieldCatalog {
+    
+    private final Class<?> entityType;
+    private final Map<String, SparseField> fields = new LinkedHashMap<>();
+    
+    public FieldCatalog(Class<?> entityType, SparseField... fields) {
+        this.entityType = entityType;
+        for (SparseField field : fields) {
+            this.fields.put(field.getName(), field);
+        }
+    }
+    
+    /**
+     * Parses a comma-separated {@code fields=} value; null or blank means the full representation.
+     */
+    public FieldSet parse(String requested) {
+        if (requested == null || requested.isBlank()) {
+            return null;
+        }
+        
+        List<SparseField> selected = new ArrayList<>();
+        for (String name : requested.split(",")) {
+            SparseField field = fields.get(name.trim());
+            if (field == null) {
+                throw new BusinessRuleException("Unknown field '" + name.trim() + "'; supported fields are "
+                                                + String.join(",", fields.keySet()));
+            }
+            if (!selected.contains(field)) {
+                selected.add(field);
+            }
+        }
+        return new FieldSet(entityType, selected);
+    }
+}
@@ -0,0 +1,45 @@
+package com.library.fieldset;
+
+import com.library.entity.Book;
+import com.library.entity.BorrowRecord;
+
+import static com.library.fieldset.SparseField.attribute;
+import static com.library.fieldset.SparseField.collection;
+import static com.library.fieldset.SparseField.joined;
+
+public final class FieldCatalogs {
+    
+    public static final FieldCatalog BOOKS = new FieldCatalog(Book.class,
+        attribute("id", "id"),
+        attribute("isbn", "isbn"),
+        attribute("title", "title"),
+        attribute("description", "description"),
+        attribute("publicationYear", "publicationYear"),
+        attribute("publisher", "publisher"),
+        attribute("totalCopies", "totalCopies"),
+        attribute("availableCopies", "availableCopies"),
+        attribute("location", "location"),
+        attribute("status", "status"),
+        attribute("version", "version"),
+        attribute("categoryId", "category.id"),
+        joined("categoryName", "category", "name"),
+        collection("authors", "authors", "name")
+    );
+    
+    public static final FieldCatalog BORROW_RECORDS = new FieldCatalog(BorrowRecord.class,
+        attribute("id", "id"),
+        attribute("bookId", "book.id"),
+        joined("bookTitle", "book", "title"),
+        joined("bookIsbn", "book", "isbn"),
+        attribute("patronId", "patron.id"),
+        joined("libraryCardNumber", "patron", "libraryCardNumber"),
+        attribute("borrowDate", "borrowDate"),
+        attribute("dueDate", "dueDate"),
+        attribute("returnDate", "returnDate"),
+        attribute("status", "status"),
+        attribute("fineAmount", "fineAmount")
+    );
+    
+    private FieldCatalogs() {
+    }
+}
@@ -0,0 +1,27 @@
+package com.library.fieldset;
+
+import java.util.List;
+
+/**
+ * The fields a client asked for, in request order.
+ */
+public final class FieldSet {
+    
+    private final Class<?> entityType;
+    private final List<SparseField> fields;
+    private final String[] names;
+    
+    FieldSet(Class<?> entityType, List<SparseField> fields) {
+        this.entityType = entityType;
+        this.fields = List.copyOf(fields);
+        this.names = fields.stream().map(SparseField::getName).toArray(String[]::new);
+    }
+    
+    public Class<?> getEntityType() { return entityType; }
+    public List<SparseField> getFields() { return fields; }
+    public String[] getNames() { return names; }
+    
+    public boolean hasCollections() {
+        return fields.stream().anyMatch(field -> field.getKind() == SparseField.Kind.COLLECTION);
+    }
+}
@@ -0,0 +1,45 @@
+package com.library.fieldset;
+
+/**
+ * A field that can be requested through {@code fields=}, with where its value comes from.
+ */
+public final class SparseField {
+    
+    public enum Kind {
+        // Column of the entity itself; a dotted path like "category.id" reads the foreign key without a join
+        ATTRIBUTE,
+        // Column reached through a to-one join
+        JOINED,
+        // Values of a to-many association, loaded with a second query for the selected rows only
+        COLLECTION
+    }
+    
+    private final String name;
+    private final Kind kind;
+    private final String join;
+    private final String attribute;
+    
+    private SparseField(String name, Kind kind, String join, String attribute) {
+        this.name = name;
+        this.kind = kind;
+        this.join = join;
+        this.attribute = attribute;
+    }
+    
+    public static SparseField attribute(String name, String path) {
+        return new SparseField(name, Kind.ATTRIBUTE, null, path);
+    }
+    
+    public static SparseField joined(String name, String join, String attribute) {
+        return new SparseField(name, Kind.JOINED, join, attribute);
+    }
+    
+    public static SparseField collection(String name, String join, String attribute) {
+        return new SparseField(name, Kind.COLLECTION, join, attribute);
+    }
+    
+    public String getName() { return name; }
+    public Kind getKind() { return kind; }
+    public String getJoin() { return join; }
+    public String getAttribute() { return attribute; }
+}
@@ -0,0 +1,49 @@
+package com.library.fieldset;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * One result row of a sparse fieldset query, written as a JSON object holding only the requested fields.
+ */
+@JsonSerialize(using = SparseRow.Serializer.class)
+public final class SparseRow {
+    
+    private final String[] names;
+    private final Object[] values;
+    
+    public SparseRow(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+    }
+    
+    public Object get(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+    
+    public static class Serializer extends StdSerializer<SparseRow> {
+        
+        public Serializer() {
+            super(SparseRow.class);
+        }
+        
+        @Override
+        public void serialize(SparseRow row, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < row.names.length; i++) {
+                generator.writeFieldName(row.names[i]);
+                provider.defaultSerializeValue(row.values[i], generator);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.library.dto.response.BookResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+public class BookResponseWriter extends ResponseWriter<BookResponse> {
+    
+    private static final SerializableString ID = name("id");
+    private static final SerializableString ISBN = name("isbn");
+    private static final SerializableString TITLE = name("title");
+    private static final SerializableString DESCRIPTION = name("description");
+    private static final SerializableString CATEGORY_NAME = name("categoryName");
+    private static final SerializableString AUTHORS = name("authors");
+    private static final SerializableString PUBLICATION_YEAR = name("publicationYear");
+    private static final SerializableString PUBLISHER = name("publisher");
+    private static final SerializableString TOTAL_COPIES = name("totalCopies");
+    private static final SerializableString AVAILABLE_COPIES = name("availableCopies");
+    private static final SerializableString LOCATION = name("location");
+    private static final SerializableString STATUS = name("status");
+    
+    public BookResponseWriter() {
+        super(BookResponse.class);
+    }
+    
+    @Override
+    public void serialize(BookResponse book, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(book);
+        writeNumber(generator, ID, book.getId());
+        writeString(generator, ISBN, book.getIsbn());
+        writeString(generator, TITLE, book.getTitle());
+        writeString(generator, DESCRIPTION, book.getDescription());
+        writeString(generator, CATEGORY_NAME, book.getCategoryName());
+        
+        generator.writeFieldName(AUTHORS);
+        List<String> authors = book.getAuthors();
+        if (authors != null) {
+            generator.writeStartArray(authors, authors.size());
+            for (String author : authors) {
+                generator.writeString(author);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeNull();
+        }
+        
+        writeNumber(generator, PUBLICATION_YEAR, book.getPublicationYear());
+        writeString(generator, PUBLISHER, book.getPublisher());
+        writeNumber(generator, TOTAL_COPIES, book.getTotalCopies());
+        writeNumber(generator, AVAILABLE_COPIES, book.getAvailableCopies());
+        writeString(generator, LOCATION, book.getLocation());
+        writeString(generator, STATUS, book.getStatus());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.library.dto.response.BorrowRecordResponse;
+
+import java.io.IOException;
+
+public class BorrowRecordResponseWriter extends ResponseWriter<BorrowRecordResponse> {
+    
+    private static final SerializableString ID = name("id");
+    private static final SerializableString BOOK_ID = name("bookId");
+    private static final SerializableString BOOK_TITLE = name("bookTitle");
+    private static final SerializableString BOOK_ISBN = name("bookIsbn");
+    private static final SerializableString PATRON_ID = name("patronId");
+    private static final SerializableString PATRON_LIBRARY_CARD_NUMBER = name("patronLibraryCardNumber");
+    private static final SerializableString PATRON_NAME = name("patronName");
+    private static final SerializableString BORROW_DATE = name("borrowDate");
+    private static final SerializableString DUE_DATE = name("dueDate");
+    private static final SerializableString RETURN_DATE = name("returnDate");
+    private static final SerializableString STATUS = name("status");
+    private static final SerializableString FINE_AMOUNT = name("fineAmount");
+    private static final SerializableString DAYS_OVERDUE = name("daysOverdue");
+    
+    public BorrowRecordResponseWriter() {
+        super(BorrowRecordResponse.class);
+    }
+    
+    @Override
+    public void serialize(BorrowRecordResponse record, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(record);
+        writeNumber(generator, ID, record.getId());
+        writeNumber(generator, BOOK_ID, record.getBookId());
+        writeString(generator, BOOK_TITLE, record.getBookTitle());
+        writeString(generator, BOOK_ISBN, record.getBookIsbn());
+        writeNumber(generator, PATRON_ID, record.getPatronId());
+        writeString(generator, PATRON_LIBRARY_CARD_NUMBER, record.getPatronLibraryCardNumber());
+        writeString(generator, PATRON_NAME, record.getPatronName());
+        writeDate(generator, BORROW_DATE, record.getBorrowDate());
+        writeDate(generator, DUE_DATE, record.getDueDate());
+        writeDate(generator, RETURN_DATE, record.getReturnDate());
+        writeString(generator, STATUS, record.getStatus());
+        writeNumber(generator, FINE_AMOUNT, record.getFineAmount());
+        writeNumber(generator, DAYS_OVERDUE, record.getDaysOverdue());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,33 @@
+package com.library.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.library.dto.response.CategoryResponse;
+
+import java.io.IOException;
+
+public class CategoryResponseWriter extends ResponseWriter<CategoryResponse> {
+    
+    private static final SerializableString ID = name("id");
+    private static final SerializableString NAME = name("name");
+    private static final SerializableString DESCRIPTION = name("description");
+    private static final SerializableString CREATED_AT = name("createdAt");
+    private static final SerializableString UPDATED_AT = name("updatedAt");
+    
+    public CategoryResponseWriter() {
+        super(CategoryResponse.class);
+    }
+    
+    @Override
+    public void serialize(CategoryResponse category, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(category);
+        writeNumber(generator, ID, category.getId());
+        writeString(generator, NAME, category.getName());
+        writeString(generator, DESCRIPTION, category.getDescription());
+        writeDateTime(generator, CREATED_AT, category.getCreatedAt());
+        writeDateTime(generator, UPDATED_AT, category.getUpdatedAt());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.library.dto.response.PatronResponse;
+
+import java.io.IOException;
+
+public class PatronResponseWriter extends ResponseWriter<PatronResponse> {
+    
+    private static final SerializableString ID = name("id");
+    private static final SerializableString LIBRARY_CARD_NUMBER = name("libraryCardNumber");
+    private static final SerializableString USERNAME = name("username");
+    private static final SerializableString EMAIL = name("email");
+    private static final SerializableString MEMBERSHIP_DATE = name("membershipDate");
+    private static final SerializableString STATUS = name("status");
+    
+    public PatronResponseWriter() {
+        super(PatronResponse.class);
+    }
+    
+    @Override
+    public void serialize(PatronResponse patron, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(patron);
+        writeNumber(generator, ID, patron.getId());
+        writeString(generator, LIBRARY_CARD_NUMBER, patron.getLibraryCardNumber());
+        writeString(generator, USERNAME, patron.getUsername());
+        writeString(generator, EMAIL, patron.getEmail());
+        writeDate(generator, MEMBERSHIP_DATE, patron.getMembershipDate());
+        writeString(generator, STATUS, patron.getStatus());
+        generator.writeEndObject();
+    }
+}
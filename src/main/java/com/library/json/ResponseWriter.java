@@ -0,0 +1,85 @@
+package com.library.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Base for hand-written response serializers. Field names are pre-encoded once, and values are written
+ * directly to the generator, which for MVC responses streams into the servlet output stream. The output
+ * matches what the application's ObjectMapper would produce by reflection: same field order, nulls
+ * included, ISO dates.
+ */
+public abstract class ResponseWriter<T> extends StdSerializer<T> {
+    
+    protected ResponseWriter(Class<T> type) {
+        super(type);
+    }
+    
+    protected static SerializableString name(String name) {
+        return new SerializedString(name);
+    }
+    
+    protected static void writeString(JsonGenerator generator, SerializableString name, String value)
+            throws IOException {
+        generator.writeFieldName(name);
+        generator.writeString(value);
+    }
+    
+    protected static void writeNumber(JsonGenerator generator, SerializableString name, Long value)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (value != null) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNull();
+        }
+    }
+    
+    protected static void writeNumber(JsonGenerator generator, SerializableString name, Integer value)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (value != null) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNull();
+        }
+    }
+    
+    protected static void writeNumber(JsonGenerator generator, SerializableString name, Double value)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (value != null) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNull();
+        }
+    }
+    
+    protected static void writeDate(JsonGenerator generator, SerializableString name, LocalDate value)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (value != null) {
+            // Same text as ISO_LOCAL_DATE, without the formatter's intermediate objects
+            generator.writeString(value.toString());
+        } else {
+            generator.writeNull();
+        }
+    }
+    
+    protected static void writeDateTime(JsonGenerator generator, SerializableString name, LocalDateTime value)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (value != null) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        } else {
+            generator.writeNull();
+        }
+    }
+}
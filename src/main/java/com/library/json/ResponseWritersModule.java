@@ -0,0 +1,18 @@
+package com.library.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Registers the hand-written response serializers. Exposed as a bean, so Spring Boot adds it to the
+ * ObjectMapper used by Spring MVC's message converters.
+ */
+public class ResponseWritersModule extends SimpleModule {
+    
+    public ResponseWritersModule() {
+        super("ResponseWritersModule");
+        addSerializer(new BookResponseWriter());
+        addSerializer(new BorrowRecordResponseWriter());
+        addSerializer(new PatronResponseWriter());
+        addSerializer(new CategoryResponseWriter());
+    }
+}
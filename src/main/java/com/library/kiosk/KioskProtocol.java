@@ -0,0 +1,78 @@
+package com.library.kiosk;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the kiosk endpoint. All integers are big-endian.
+ * <pre>
+ * body     := version:u8 message*
+ * message  := length:u16 bytes[length]
+ *
+ * request  := op:u8 payload
+ *   CARD_LOOKUP  cardNumber:str
+ *   BORROW       patronId:i64 bookId:i64
+ *   RETURN       borrowRecordId:i64
+ *   RENEW        borrowRecordId:i64
+ *
+ * response := status:u8 (payload | error:str)
+ *   CARD_LOOKUP  patronId:i64 patronStatus:u8 loanCount:u8
+ *                (borrowRecordId:i64 bookId:i64 dueDate:i32 overdue:u8 title:str){loanCount}
+ *   BORROW       borrowRecordId:i64 dueDate:i32
+ *   RETURN       borrowRecordId:i64 fineCents:i32
+ *   RENEW        borrowRecordId:i64 dueDate:i32
+ *
+ * str      := length:u16 utf8[length]
+ * dueDate  := days since 1970-01-01
+ * </pre>
+ * Responses come back in request order, one per message, under the same framing.
+ */
+public final class KioskProtocol {
+    
+    public static final String MEDIA_TYPE = "application/x-library-kiosk";
+    public static final int VERSION = 1;
+    public static final int MAX_MESSAGE_BYTES = 0xFFFF;
+    
+    public static final byte OP_CARD_LOOKUP = 1;
+    public static final byte OP_BORROW = 2;
+    public static final byte OP_RETURN = 3;
+    public static final byte OP_RENEW = 4;
+    
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_NOT_FOUND = 1;
+    public static final byte STATUS_REJECTED = 2;
+    public static final byte STATUS_BAD_REQUEST = 3;
+    public static final byte STATUS_ERROR = 4;
+    
+    private KioskProtocol() {}
+    
+    public static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                                  StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+    
+    /**
+     * Writes a length-prefixed UTF-8 string, cut at {@code maxBytes} on a character boundary.
+     */
+    public static void writeString(ByteBuffer buffer, String value, int maxBytes) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int length = Math.min(bytes.length, maxBytes);
+        // Do not end on the lead or middle byte of a multi-byte character
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        if (2 + length > buffer.remaining()) {
+            throw new BufferOverflowException();
+        }
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+    }
+}
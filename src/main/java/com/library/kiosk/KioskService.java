@@ -0,0 +1,183 @@
+package com.library.kiosk;
+
+import com.library.dto.request.BorrowRequest;
+import com.library.entity.BorrowRecord;
+import com.library.entity.Patron;
+import com.library.exception.BusinessRuleException;
+import com.library.exception.ResourceNotFoundException;
+import com.library.service.BorrowService;
+import com.library.service.PatronService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.library.kiosk.KioskProtocol.MAX_MESSAGE_BYTES;
+import static com.library.kiosk.KioskProtocol.OP_BORROW;
+import static com.library.kiosk.KioskProtocol.OP_CARD_LOOKUP;
+import static com.library.kiosk.KioskProtocol.OP_RENEW;
+import static com.library.kiosk.KioskProtocol.OP_RETURN;
+import static com.library.kiosk.KioskProtocol.STATUS_BAD_REQUEST;
+import static com.library.kiosk.KioskProtocol.STATUS_ERROR;
+import static com.library.kiosk.KioskProtocol.STATUS_NOT_FOUND;
+import static com.library.kiosk.KioskProtocol.STATUS_OK;
+import static com.library.kiosk.KioskProtocol.STATUS_REJECTED;
+import static com.library.kiosk.KioskProtocol.VERSION;
+import static com.library.kiosk.KioskProtocol.readString;
+import static com.library.kiosk.KioskProtocol.writeString;
+
+/**
+ * Decodes kiosk request messages, runs them through the regular patron and borrow services, and encodes
+ * the results. A failed message is answered with an error status; it does not fail the rest of the batch.
+ */
+@Service
+public class KioskService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(KioskService.class);
+    
+    private static final int MAX_LOANS = 0xFF;
+    private static final int MAX_TITLE_BYTES = 120;
+    private static final int MAX_ERROR_BYTES = 200;
+    
+    private final PatronService patronService;
+    private final BorrowService borrowService;
+    private final int maxMessages;
+    
+    @Autowired
+    public KioskService(PatronService patronService, BorrowService borrowService,
+                        @Value("${kiosk.max-messages:32}") int maxMessages) {
+        this.patronService = patronService;
+        this.borrowService = borrowService;
+        this.maxMessages = maxMessages;
+    }
+    
+    /**
+     * Processes a request body and returns the response body.
+     */
+    public byte[] process(InputStream body) throws IOException {
+        DataInputStream in = new DataInputStream(body);
+        int version = in.read();
+        if (version != VERSION) {
+            throw new BusinessRuleException("Unsupported kiosk protocol version: " + version);
+        }
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(VERSION);
+        ByteBuffer response = ByteBuffer.allocate(MAX_MESSAGE_BYTES);
+        int messages = 0;
+        int high;
+        while ((high = in.read()) >= 0) {
+            if (++messages > maxMessages) {
+                throw new BusinessRuleException("At most " + maxMessages + " kiosk messages per request");
+            }
+            byte[] request;
+            try {
+                request = new byte[(high << 8) | in.readUnsignedByte()];
+                in.readFully(request);
+            } catch (EOFException e) {
+                throw new BusinessRuleException("Truncated kiosk message");
+            }
+            
+            response.clear();
+            handle(ByteBuffer.wrap(request), response);
+            out.write(response.position() >>> 8);
+            out.write(response.position());
+            out.write(response.array(), 0, response.position());
+        }
+        return out.toByteArray();
+    }
+    
+    void handle(ByteBuffer request, ByteBuffer response) {
+        byte op = 0;
+        try {
+            op = request.get();
+            switch (op) {
+                case OP_CARD_LOOKUP:
+                    cardLookup(readString(request), response);
+                    break;
+                case OP_BORROW: {
+                    long patronId = request.getLong();
+                    long bookId = request.getLong();
+                    borrow(patronId, bookId, response);
+                    break;
+                }
+                case OP_RETURN:
+                    returnBook(request.getLong(), response);
+                    break;
+                case OP_RENEW:
+                    renew(request.getLong(), response);
+                    break;
+                default:
+                    error(response, STATUS_BAD_REQUEST, "Unknown operation: " + op);
+            }
+        } catch (BufferUnderflowException e) {
+            error(response, STATUS_BAD_REQUEST, "Truncated message");
+        } catch (ResourceNotFoundException e) {
+            error(response, STATUS_NOT_FOUND, e.getMessage());
+        } catch (BusinessRuleException | IllegalStateException e) {
+            error(response, STATUS_REJECTED, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Kiosk operation {} failed", op, e);
+            error(response, STATUS_ERROR, "Internal error");
+        }
+    }
+    
+    private void cardLookup(String cardNumber, ByteBuffer response) {
+        Patron patron = patronService.findByLibraryCardNumber(cardNumber);
+        List<BorrowRecord> loans = borrowService.findActiveWithDetails(patron.getId());
+        int count = Math.min(loans.size(), MAX_LOANS);
+        LocalDate today = LocalDate.now();
+        
+        response.put(STATUS_OK)
+                .putLong(patron.getId())
+                .put((byte) patron.getStatus().ordinal())
+                .put((byte) count);
+        for (BorrowRecord loan : loans.subList(0, count)) {
+            response.putLong(loan.getId())
+                    .putLong(loan.getBook().getId())
+                    .putInt((int) loan.getDueDate().toEpochDay())
+                    .put((byte) (loan.getDueDate().isBefore(today) ? 1 : 0));
+            writeString(response, loan.getBook().getTitle(), MAX_TITLE_BYTES);
+        }
+    }
+    
+    private void borrow(long patronId, long bookId, ByteBuffer response) {
+        BorrowRecord record = borrowService.borrowBook(new BorrowRequest(bookId, patronId));
+        response.put(STATUS_OK)
+                .putLong(record.getId())
+                .putInt((int) record.getDueDate().toEpochDay());
+    }
+    
+    private void returnBook(long borrowRecordId, ByteBuffer response) {
+        BorrowRecord record = borrowService.returnBook(borrowRecordId);
+        double fine = record.getFineAmount() != null ? record.getFineAmount() : 0;
+        response.put(STATUS_OK)
+                .putLong(record.getId())
+                .putInt((int) Math.round(fine * 100));
+    }
+    
+    private void renew(long borrowRecordId, ByteBuffer response) {
+        BorrowRecord record = borrowService.renewBorrow(borrowRecordId);
+        response.put(STATUS_OK)
+                .putLong(record.getId())
+                .putInt((int) record.getDueDate().toEpochDay());
+    }
+    
+    // Replaces anything already written for the message
+    private static void error(ByteBuffer response, byte status, String message) {
+        response.clear();
+        response.put(status);
+        writeString(response, message, MAX_ERROR_BYTES);
+    }
+}
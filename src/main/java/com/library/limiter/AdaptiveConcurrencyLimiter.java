@@ -0,0 +1,211 @@
+package com.library.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that adapts to latency, following the gradient algorithm of Netflix concurrency-limits.
+ * Completed requests are aggregated into sample windows; at the end of each window the limit is scaled by
+ * the ratio of the long-term latency baseline to the window's average latency, plus a small queue
+ * allowance, and smoothed. Requests beyond the limit are rejected immediately.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final int longWindowSamples;
+    private final long sampleWindowNanos;
+    private final int minWindowSamples;
+    private final LongSupplier nanoClock;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    
+    private volatile int limit;
+    
+    // A lock rather than synchronized, so contended updates don't pin carrier threads under virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    // Guarded by lock
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    
+    @Autowired
+    public AdaptiveConcurrencyLimiter(@Value("${concurrency-limit.enabled:true}") boolean enabled,
+                                      @Value("${concurrency-limit.initial-limit:50}") int initialLimit,
+                                      @Value("${concurrency-limit.min-limit:10}") int minLimit,
+                                      @Value("${concurrency-limit.max-limit:200}") int maxLimit,
+                                      @Value("${concurrency-limit.smoothing:0.2}") double smoothing,
+                                      @Value("${concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+                                      @Value("${concurrency-limit.long-window-samples:600}") int longWindowSamples,
+                                      @Value("${concurrency-limit.sample-window-ms:1000}") long sampleWindowMs,
+                                      @Value("${concurrency-limit.min-window-samples:10}") int minWindowSamples,
+                                      MeterRegistry meterRegistry) {
+        this(enabled, initialLimit, minLimit, maxLimit, smoothing, rttTolerance, longWindowSamples, sampleWindowMs,
+             minWindowSamples, meterRegistry, System::nanoTime);
+    }
+    
+    // Tests drive the clock to simulate latency
+    AdaptiveConcurrencyLimiter(boolean enabled, int initialLimit, int minLimit, int maxLimit, double smoothing,
+                               double rttTolerance, int longWindowSamples, long sampleWindowMs, int minWindowSamples,
+                               MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longWindowSamples = longWindowSamples;
+        this.sampleWindowNanos = TimeUnit.MILLISECONDS.toNanos(sampleWindowMs);
+        this.minWindowSamples = minWindowSamples;
+        this.nanoClock = nanoClock;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.windowStart = nanoClock.getAsLong();
+        
+        this.rejected = Counter.builder("library.concurrency.rejected").register(meterRegistry);
+        Gauge.builder("library.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("library.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("library.concurrency.latency.baseline", this, l -> l.getLatencyBaselineMillis())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Returns a permit to release when the request completes, or null if the request must be shed.
+     */
+    public Permit tryAcquire() {
+        if (!enabled) {
+            return new Permit(0, false);
+        }
+        
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(nanoClock.getAsLong(), true);
+            }
+        }
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public double getLatencyBaselineMillis() {
+        lock.lock();
+        try {
+            return longRttNanos / 1_000_000.0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public final class Permit {
+        
+        private final long startNanos;
+        private final boolean counted;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private Permit(long startNanos, boolean counted) {
+            this.startNanos = startNanos;
+            this.counted = counted;
+        }
+        
+        /**
+         * Gives the slot back and records the request's latency. Only the first call counts.
+         */
+        public void release() {
+            if (!counted || !released.compareAndSet(false, true)) {
+                return;
+            }
+            
+            int current = inFlight.getAndDecrement();
+            long now = nanoClock.getAsLong();
+            sample(now - startNanos, current, now);
+        }
+    }
+    
+    private void sample(long rttNanos, int inFlightAtCompletion, long now) {
+        lock.lock();
+        try {
+            windowRttSum += rttNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+            
+            if (now - windowStart < sampleWindowNanos || windowSamples < minWindowSamples) {
+                return;
+            }
+            
+            double shortRtt = (double) windowRttSum / windowSamples;
+            int maxInFlight = windowMaxInFlight;
+            windowStart = now;
+            windowRttSum = 0;
+            windowSamples = 0;
+            windowMaxInFlight = 0;
+            
+            updateLimit(shortRtt, maxInFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void updateLimit(double shortRtt, int maxInFlight) {
+        // The baseline follows improvements at once but drifts up only slowly, so sustained queueing
+        // is not mistaken for the new normal
+        if (longRttNanos == 0 || shortRtt < longRttNanos) {
+            longRttNanos = shortRtt;
+        } else {
+            longRttNanos += (shortRtt - longRttNanos) / longWindowSamples;
+        }
+        
+        // Don't grow the limit while traffic doesn't come close to it
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRtt));
+        double queueAllowance = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueAllowance;
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        
+        int previous = limit;
+        limit = (int) estimatedLimit;
+        if (previous != limit && logger.isDebugEnabled()) {
+            logger.debug("Concurrency limit {} -> {} (latency {} ms, baseline {} ms)", previous, limit,
+                         String.format("%.1f", shortRtt / 1_000_000.0),
+                         String.format("%.1f", longRttNanos / 1_000_000.0));
+        }
+    }
+}
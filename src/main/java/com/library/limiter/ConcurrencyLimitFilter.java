@@ -0,0 +1,65 @@
+package com.library.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.dto.response.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds requests beyond the adaptive concurrency limit with a 503 before any database work is done.
+ * Health checks and the circulation lane, which has its own reserved bulkhead, are never shed.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+    
+    private final AdaptiveConcurrencyLimiter limiter;
+    
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        
+        if (request.getAttribute(LaneFilter.LANE_ATTRIBUTE) == RequestLane.CIRCULATION) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            logger.warn("Shedding {} {}: concurrency limit {} reached", request.getMethod(), request.getRequestURI(),
+                        limiter.getLimit());
+            
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            MAPPER.writeValue(response.getOutputStream(), ApiResponse.error("Server is busy, please retry"));
+            return;
+        }
+        
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permit.release();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.library.limiter;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection bulkhead in front of the pool: a request may only hold as many connections as its lane's
+ * share allows. Connections taken outside a request (schedulers, queue consumers) are not limited.
+ */
+public class LaneAwareDataSource extends DelegatingDataSource {
+    
+    private final ObjectProvider<LaneBulkheads> bulkheadsProvider;
+    private volatile LaneBulkheads bulkheads;
+    
+    public LaneAwareDataSource(DataSource targetDataSource, ObjectProvider<LaneBulkheads> bulkheadsProvider) {
+        super(targetDataSource);
+        this.bulkheadsProvider = bulkheadsProvider;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        Semaphore permit = acquire();
+        try {
+            return guard(super.getConnection(), permit);
+        } catch (SQLException | RuntimeException e) {
+            release(permit);
+            throw e;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Semaphore permit = acquire();
+        try {
+            return guard(super.getConnection(username, password), permit);
+        } catch (SQLException | RuntimeException e) {
+            release(permit);
+            throw e;
+        }
+    }
+    
+    private Semaphore acquire() throws SQLException {
+        LaneBulkheads lanes = bulkheads();
+        if (lanes == null || !lanes.isEnabled()) {
+            return null;
+        }
+        
+        Semaphore permit = lanes.currentConnectionBulkhead();
+        if (permit == null) {
+            return null;
+        }
+        
+        try {
+            if (!permit.tryAcquire(lanes.currentConnectionWaitMs(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Connection share of the current request lane is exhausted");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a lane connection", e);
+        }
+        return permit;
+    }
+    
+    private LaneBulkheads bulkheads() {
+        LaneBulkheads lanes = bulkheads;
+        if (lanes == null) {
+            lanes = bulkheadsProvider.getIfAvailable();
+            bulkheads = lanes;
+        }
+        return lanes;
+    }
+    
+    private static void release(Semaphore permit) {
+        if (permit != null) {
+            permit.release();
+        }
+    }
+    
+    // Releases the lane permit exactly once, when the connection goes back to the pool
+    private static Connection guard(Connection connection, Semaphore permit) {
+        if (permit == null) {
+            return connection;
+        }
+        
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                LaneAwareDataSource.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        permit.release();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
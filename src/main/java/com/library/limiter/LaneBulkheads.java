@@ -0,0 +1,196 @@
+package com.library.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Classifies requests into lanes and holds each lane's execution and connection bulkheads. A lane's
+ * caps bound how much of the request threads and of the connection pool it can take, which in turn
+ * guarantees the remainder to the other lanes.
+ */
+@Component
+public class LaneBulkheads {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LaneBulkheads.class);
+    
+    // Set for the duration of a request so the connection bulkhead knows whom a connection is for
+    private static final ThreadLocal<RequestLane> CURRENT_LANE = new ThreadLocal<>();
+    
+    // Checked in order, so the most specific lanes come first
+    private static final RequestLane[] CLASSIFICATION_ORDER = { RequestLane.CIRCULATION, RequestLane.BROWSE };
+    
+    private final boolean enabled;
+    private final Map<RequestLane, LaneState> lanes = new EnumMap<>(RequestLane.class);
+    
+    @Autowired
+    public LaneBulkheads(LaneProperties properties,
+                         @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                         MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        
+        for (RequestLane lane : RequestLane.values()) {
+            LaneState state = new LaneState(lane, properties.getLane(lane), connectionPoolSize, meterRegistry);
+            lanes.put(lane, state);
+            logger.info("Lane {}: {} concurrent request(s), {} connection(s)", lane, state.maxConcurrent,
+                        state.maxConnections);
+        }
+        
+        // Circulation's guarantee is whatever the other lanes cannot take between them
+        int reserved = connectionPoolSize - lanes.get(RequestLane.BROWSE).maxConnections
+                - lanes.get(RequestLane.DEFAULT).maxConnections;
+        if (reserved < 2) {
+            logger.warn("Browse and default lanes can hold all but {} of {} connection(s); lower their connection-share",
+                        Math.max(reserved, 0), connectionPoolSize);
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public RequestLane classify(HttpServletRequest request, Authentication authentication) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (RequestLane lane : CLASSIFICATION_ORDER) {
+            if (lanes.get(lane).matches(request.getMethod(), path, authentication)) {
+                return lane;
+            }
+        }
+        return RequestLane.DEFAULT;
+    }
+    
+    /**
+     * Waits up to the lane's max wait for an execution slot. Returns false if the lane stayed full.
+     */
+    public boolean tryEnter(RequestLane lane) throws InterruptedException {
+        LaneState state = lanes.get(lane);
+        if (!state.executions.tryAcquire(state.maxWaitMs, TimeUnit.MILLISECONDS)) {
+            state.rejected.increment();
+            return false;
+        }
+        CURRENT_LANE.set(lane);
+        return true;
+    }
+    
+    public void exit(RequestLane lane) {
+        CURRENT_LANE.remove();
+        lanes.get(lane).executions.release();
+    }
+    
+    /**
+     * Runs tasks in the lane of the thread that submits them, so connections taken by work a request fans
+     * out to a pool count against that request's lane.
+     */
+    public TaskDecorator laneDecorator() {
+        return task -> {
+            RequestLane lane = CURRENT_LANE.get();
+            if (lane == null) {
+                return task;
+            }
+            return () -> {
+                CURRENT_LANE.set(lane);
+                try {
+                    task.run();
+                } finally {
+                    CURRENT_LANE.remove();
+                }
+            };
+        };
+    }
+    
+    /**
+     * Connection slot for the calling thread's lane, or null when the thread is not serving a request.
+     */
+    Semaphore currentConnectionBulkhead() {
+        RequestLane lane = CURRENT_LANE.get();
+        return lane != null ? lanes.get(lane).connections : null;
+    }
+    
+    long currentConnectionWaitMs() {
+        RequestLane lane = CURRENT_LANE.get();
+        return lane != null ? lanes.get(lane).maxWaitMs : 0;
+    }
+    
+    private static class LaneState {
+        
+        private final List<PathPattern> patterns;
+        private final List<String> methods;
+        private final String authority;
+        private final int maxConcurrent;
+        private final int maxConnections;
+        private final long maxWaitMs;
+        private final Semaphore executions;
+        private final Semaphore connections;
+        private final Counter rejected;
+        
+        LaneState(RequestLane lane, LaneProperties.Lane settings, int connectionPoolSize, MeterRegistry meterRegistry) {
+            this.patterns = settings.getPatterns().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .collect(Collectors.toList());
+            this.methods = settings.getMethods();
+            this.authority = settings.getRole() != null ? "ROLE_" + settings.getRole() : null;
+            this.maxConcurrent = settings.getMaxConcurrent();
+            this.maxConnections = Math.max(1, (int) Math.ceil(connectionPoolSize * settings.getConnectionShare()));
+            this.maxWaitMs = settings.getMaxWaitMs();
+            this.executions = new Semaphore(maxConcurrent);
+            this.connections = new Semaphore(maxConnections);
+            
+            String name = lane.name().toLowerCase();
+            this.rejected = Counter.builder("library.lane.rejected")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            Gauge.builder("library.lane.in-flight", executions, s -> maxConcurrent - s.availablePermits())
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            Gauge.builder("library.lane.connections", connections, s -> maxConnections - s.availablePermits())
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+        
+        boolean matches(String method, PathContainer path, Authentication authentication) {
+            if (patterns.isEmpty() || (!methods.isEmpty() && !methods.contains(method))) {
+                return false;
+            }
+            if (authority != null && !hasAuthority(authentication)) {
+                return false;
+            }
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private boolean hasAuthority(Authentication authentication) {
+            if (authentication == null) {
+                return false;
+            }
+            for (GrantedAuthority granted : authentication.getAuthorities()) {
+                if (authority.equals(granted.getAuthority())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.library.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.dto.response.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs after JWT authentication so lanes can be assigned by role. The lane is exposed as a request
+ * attribute for the filters behind it.
+ */
+public class LaneFilter extends OncePerRequestFilter {
+    
+    public static final String LANE_ATTRIBUTE = LaneFilter.class.getName() + ".lane";
+    
+    private static final Logger logger = LoggerFactory.getLogger(LaneFilter.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+    
+    private final LaneBulkheads bulkheads;
+    
+    public LaneFilter(LaneBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !bulkheads.isEnabled();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        
+        RequestLane lane = bulkheads.classify(request, SecurityContextHolder.getContext().getAuthentication());
+        request.setAttribute(LANE_ATTRIBUTE, lane);
+        
+        boolean entered;
+        try {
+            entered = bulkheads.tryEnter(lane);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        
+        if (!entered) {
+            logger.warn("Lane {} is full, rejecting {} {}", lane, request.getMethod(), request.getRequestURI());
+            
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            MAPPER.writeValue(response.getOutputStream(), ApiResponse.error("Server is busy, please retry"));
+            return;
+        }
+        
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            bulkheads.exit(lane);
+        }
+    }
+}
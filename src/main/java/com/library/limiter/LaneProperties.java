@@ -0,0 +1,55 @@
+package com.library.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "lanes")
+public class LaneProperties {
+    
+    private boolean enabled = true;
+    private Map<RequestLane, Lane> lanes = new EnumMap<>(RequestLane.class);
+    
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public Map<RequestLane, Lane> getLanes() { return lanes; }
+    public void setLanes(Map<RequestLane, Lane> lanes) { this.lanes = lanes; }
+    
+    public Lane getLane(RequestLane lane) {
+        return lanes.getOrDefault(lane, new Lane());
+    }
+    
+    public static class Lane {
+        
+        private List<String> patterns = new ArrayList<>();
+        private List<String> methods = new ArrayList<>();
+        private String role;
+        private int maxConcurrent = 100;
+        private long maxWaitMs = 100;
+        private double connectionShare = 1.0;
+        
+        public List<String> getPatterns() { return patterns; }
+        public void setPatterns(List<String> patterns) { this.patterns = patterns; }
+        
+        public List<String> getMethods() { return methods; }
+        public void setMethods(List<String> methods) { this.methods = methods; }
+        
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+        
+        public int getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+        
+        public long getMaxWaitMs() { return maxWaitMs; }
+        public void setMaxWaitMs(long maxWaitMs) { this.maxWaitMs = maxWaitMs; }
+        
+        public double getConnectionShare() { return connectionShare; }
+        public void setConnectionShare(double connectionShare) { this.connectionShare = connectionShare; }
+    }
+}
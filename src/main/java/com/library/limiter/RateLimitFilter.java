@@ -0,0 +1,76 @@
+package com.library.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.dto.response.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the rate limit rules of one key type. Registered twice inside the security filter chain: IP rules
+ * ahead of JWT authentication, so floods are turned away before any token is verified, and user rules
+ * after it, so they can see the caller. Deliberately not a bean, which would also register it ahead of
+ * the security chain.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+    
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties.KeyType keyType;
+    
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties.KeyType keyType) {
+        this.rateLimiter = rateLimiter;
+        this.keyType = keyType;
+    }
+    
+    // Both instances share the class, so each needs its own marker to run once per request
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return super.getAlreadyFilteredAttributeName() + "." + keyType;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        
+        String username = keyType == RateLimitProperties.KeyType.USER ? currentUsername() : null;
+        long waitNanos = rateLimiter.acquire(request, keyType, username);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        logger.warn("Rate limit exceeded for {} {} from {}", request.getMethod(), request.getRequestURI(),
+                    request.getRemoteAddr());
+        
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        MAPPER.writeValue(response.getOutputStream(), ApiResponse.error("Too many requests, please retry later"));
+    }
+    
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,56 @@
+package com.library.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    private long idleEvictionMs = 600000;
+    private List<Rule> rules = new ArrayList<>();
+    
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public long getIdleEvictionMs() { return idleEvictionMs; }
+    public void setIdleEvictionMs(long idleEvictionMs) { this.idleEvictionMs = idleEvictionMs; }
+    
+    public List<Rule> getRules() { return rules; }
+    public void setRules(List<Rule> rules) { this.rules = rules; }
+    
+    public static class Rule {
+        
+        private String pattern;
+        private String method;
+        private KeyType key = KeyType.IP;
+        private int capacity = 60;
+        private double permitsPerMinute = 60;
+        
+        public String getPattern() { return pattern; }
+        public void setPattern(String pattern) { this.pattern = pattern; }
+        
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+        
+        public KeyType getKey() { return key; }
+        public void setKey(KeyType key) { this.key = key; }
+        
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+        
+        public double getPermitsPerMinute() { return permitsPerMinute; }
+        public void setPermitsPerMinute(double permitsPerMinute) { this.permitsPerMinute = permitsPerMinute; }
+    }
+    
+    public enum KeyType {
+        // Client address as seen by the servlet container
+        IP,
+        // Authenticated username, falling back to the client address for anonymous requests
+        USER
+    }
+}
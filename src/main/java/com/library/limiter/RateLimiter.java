@@ -0,0 +1,117 @@
+package com.library.limiter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Component
+public class RateLimiter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+    
+    private final boolean enabled;
+    private final long idleNanos;
+    private final List<CompiledRule> rules;
+    
+    @Autowired
+    public RateLimiter(RateLimitProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(properties.getIdleEvictionMs());
+        this.rules = properties.getRules().stream()
+                .map(CompiledRule::new)
+                .collect(Collectors.toList());
+        
+        logger.info("Rate limiting {} with {} rule(s)", enabled ? "enabled" : "disabled", rules.size());
+    }
+    
+    /**
+     * Applies every rule of the given key type that matches the request. Returns 0 when allowed, otherwise
+     * the nanoseconds the client should wait before retrying. A permit is only taken once every matching
+     * rule has one, so a request rejected by one rule does not use up the others.
+     */
+    public long acquire(HttpServletRequest request, RateLimitProperties.KeyType keyType, String username) {
+        if (!enabled || rules.isEmpty()) {
+            return 0;
+        }
+        
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        long now = System.nanoTime();
+        List<TokenBucket> buckets = new ArrayList<>(rules.size());
+        long wait = 0;
+        
+        for (CompiledRule rule : rules) {
+            if (rule.keyType != keyType || !rule.matches(request.getMethod(), path)) {
+                continue;
+            }
+            // Prefixed so a username can never share a bucket with a client address
+            String key = rule.keyType == RateLimitProperties.KeyType.USER && username != null
+                    ? "user:" + username
+                    : request.getRemoteAddr();
+            TokenBucket bucket = rule.buckets.computeIfAbsent(key, k -> new TokenBucket(rule.capacity, rule.permitsPerSecond, now));
+            buckets.add(bucket);
+            wait = Math.max(wait, bucket.peek(now));
+        }
+        if (wait > 0) {
+            return wait;
+        }
+        
+        // A concurrent request can still take the last permit between the check and here; the permits
+        // already taken for this request are then spent, which errs on the side of limiting
+        for (TokenBucket bucket : buckets) {
+            wait = bucket.tryAcquire(now);
+            if (wait > 0) {
+                return wait;
+            }
+        }
+        return 0;
+    }
+    
+    @Scheduled(fixedDelayString = "${rate-limit.idle-eviction-ms:600000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (CompiledRule rule : rules) {
+            int before = rule.buckets.size();
+            rule.buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+            evicted += before - rule.buckets.size();
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle rate limit bucket(s)", evicted);
+        }
+    }
+    
+    private static class CompiledRule {
+        
+        private final PathPattern pattern;
+        private final String method;
+        private final RateLimitProperties.KeyType keyType;
+        private final int capacity;
+        private final double permitsPerSecond;
+        private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        
+        CompiledRule(RateLimitProperties.Rule rule) {
+            this.pattern = PathPatternParser.defaultInstance.parse(rule.getPattern());
+            this.method = rule.getMethod();
+            this.keyType = rule.getKey();
+            this.capacity = rule.getCapacity();
+            this.permitsPerSecond = rule.getPermitsPerMinute() / 60.0;
+        }
+        
+        boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && pattern.matches(path);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.library.limiter;
+
+/**
+ * Priority lanes requests are classified into, each with its own thread and connection bulkhead.
+ */
+public enum RequestLane {
+    // Librarian desk operations: borrowing, returns, renewals
+    CIRCULATION,
+    // Catalog browsing and search
+    BROWSE,
+    DEFAULT
+}
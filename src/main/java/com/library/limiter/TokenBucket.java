@@ -0,0 +1,50 @@
+package com.library.limiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket expressed as GCRA: the whole state is one "theoretical arrival time" updated with a
+ * CAS, so acquiring needs no lock and no refill bookkeeping.
+ */
+public class TokenBucket {
+    
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+    
+    public TokenBucket(int capacity, double permitsPerSecond, long nowNanos) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+    
+    /**
+     * Returns 0 if a permit is available, otherwise the nanoseconds until one frees up. Takes nothing.
+     */
+    public long peek(long nowNanos) {
+        long next = Math.max(theoreticalArrival.get(), nowNanos) + emissionIntervalNanos;
+        return Math.max(0, next - nowNanos - burstToleranceNanos);
+    }
+    
+    /**
+     * Takes one permit if available. Returns 0 on success, otherwise the nanoseconds until a permit frees up.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long excess = next - nowNanos - burstToleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    // A bucket that has been full for the idle period behaves exactly like a new one and can be dropped
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrival.get() > idleNanos;
+    }
+}
@@ -0,0 +1,540 @@
+package com.library.queue;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent local work queue. Producers pay only for an in-memory enqueue; a writer thread appends
+ * staged tasks to segment files and fsyncs once per batch, and a consumer thread replays committed
+ * records at a bounded rate, tracking its position in a consumer offset file.
+ *
+ * Record layout: int payload length, int CRC32 of payload, payload. Offsets are global byte positions
+ * and each segment file is named after the offset of its first record.
+ */
+@Component
+public class DurableTaskQueue {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DurableTaskQueue.class);
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String OFFSET_FILE = "consumer.offset";
+    private static final long OFFSET_SAVE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatch;
+    private final long dispatchIntervalNanos;
+    private final int maxAttempts;
+    
+    private final BlockingQueue<QueuedTask> staging;
+    private final Map<String, TaskHandler> handlers = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition commitAdvanced = commitLock.newCondition();
+    private volatile long committedOffset;
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+    
+    // Owned by the writer thread once started
+    private FileChannel writeChannel;
+    private long writeSegmentBase;
+    private long writeOffset;
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(256 * 1024);
+    
+    // Written by the consumer thread once started
+    private volatile long readOffset;
+    private long savedReadOffset;
+    
+    private Thread writerThread;
+    private Thread consumerThread;
+    
+    public DurableTaskQueue(@Value("${task-queue.directory:data/task-queue}") String directory,
+                            @Value("${task-queue.segment-bytes:67108864}") long segmentBytes,
+                            @Value("${task-queue.staging-capacity:10000}") int stagingCapacity,
+                            @Value("${task-queue.max-batch:512}") int maxBatch,
+                            @Value("${task-queue.drain-rate-per-second:50}") int drainRatePerSecond,
+                            @Value("${task-queue.max-attempts:3}") int maxAttempts) {
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.maxBatch = maxBatch;
+        this.dispatchIntervalNanos = drainRatePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / drainRatePerSecond : 0;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.staging = new ArrayBlockingQueue<>(stagingCapacity);
+    }
+    
+    public void registerHandler(String type, TaskHandler handler) {
+        if (handlers.putIfAbsent(type, handler) != null) {
+            throw new IllegalStateException("Task handler already registered for type: " + type);
+        }
+    }
+    
+    public void enqueue(String type, String... args) {
+        if (!accepting) {
+            logger.error("Task queue is closed, dropping task of type {}", type);
+            return;
+        }
+        
+        // Producers never wait: a full staging buffer means the writer is stuck, and blocking request
+        // threads on it would take the application down with it
+        if (!staging.offer(new QueuedTask(type, args))) {
+            logger.error("Task queue staging buffer is full, dropping task of type {}", type);
+        }
+    }
+    
+    public int getStagedCount() {
+        return staging.size();
+    }
+    
+    public long getBacklogBytes() {
+        return committedOffset - readOffset;
+    }
+    
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                 .forEach(path -> segments.put(parseBase(path), path));
+        }
+        
+        if (segments.isEmpty()) {
+            openSegment(0);
+        } else {
+            recoverLastSegment();
+        }
+        committedOffset = writeOffset;
+        
+        readOffset = Math.min(Math.max(loadReadOffset(), segments.firstKey()), committedOffset);
+        savedReadOffset = readOffset;
+        
+        running = true;
+        writerThread = new Thread(this::runWriter, "TaskQueue-Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        
+        logger.info("Task queue opened at {} with {} segment(s) and {} byte(s) pending",
+                   directory.toAbsolutePath(), segments.size(), committedOffset - readOffset);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Handlers register during context startup, so replay begins once the application is ready
+        consumerThread = new Thread(this::runConsumer, "TaskQueue-Consumer");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+    }
+    
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        accepting = false;
+        running = false;
+        signalCommitted();
+        
+        writerThread.join();
+        if (consumerThread != null) {
+            consumerThread.join();
+        }
+        
+        writeChannel.close();
+        logger.info("Task queue closed with {} byte(s) pending", committedOffset - readOffset);
+    }
+    
+    // Writer
+    
+    private void runWriter() {
+        // Holds the tasks of a failed batch that never committed, so they are retried rather than lost
+        List<QueuedTask> batch = new ArrayList<>(maxBatch);
+        boolean failed = false;
+        int failures = 0;
+        
+        while (running || !staging.isEmpty()) {
+            try {
+                if (failed) {
+                    rollBack();
+                    failed = false;
+                }
+                if (batch.isEmpty()) {
+                    QueuedTask first = staging.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                staging.drainTo(batch, maxBatch - batch.size());
+                append(batch);
+                batch.clear();
+                failures = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                failures++;
+                logger.error("Failed to persist {} queued task(s), retrying", batch.size(), e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(5000, 100L * failures)));
+            }
+        }
+        
+        if (!batch.isEmpty()) {
+            logger.error("Task queue closed with {} task(s) that could not be persisted", batch.size());
+        }
+    }
+    
+    // On success the whole batch is durable. On failure the batch is left holding the tasks that were not
+    // committed, in order; tasks that cannot be encoded are dropped from it.
+    private void append(List<QueuedTask> batch) throws IOException {
+        int index = 0;
+        while (index < batch.size()) {
+            QueuedTask task = batch.get(index);
+            byte[] payload;
+            try {
+                payload = task.encode();
+            } catch (RuntimeException e) {
+                logger.error("Could not encode task of type {}, dropping it", task.getType(), e);
+                batch.remove(index);
+                continue;
+            }
+            int recordLength = RECORD_HEADER_BYTES + payload.length;
+            
+            long pendingSegmentBytes = writeOffset - writeSegmentBase + writeBuffer.position();
+            if (pendingSegmentBytes > 0 && pendingSegmentBytes + recordLength > segmentBytes) {
+                commit();
+                batch.subList(0, index).clear();
+                index = 0;
+                writeChannel.close();
+                openSegment(writeOffset);
+            }
+            
+            if (writeBuffer.remaining() < recordLength) {
+                flushBuffer();
+                if (writeBuffer.capacity() < recordLength) {
+                    writeBuffer = ByteBuffer.allocate(recordLength);
+                }
+            }
+            
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            writeBuffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            index++;
+        }
+        
+        // Group commit: a single fsync covers the whole batch
+        commit();
+    }
+    
+    private void commit() throws IOException {
+        flushBuffer();
+        writeChannel.force(false);
+        
+        commitLock.lock();
+        try {
+            committedOffset = writeOffset;
+            commitAdvanced.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+    
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            writeOffset += writeChannel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+    
+    // Drops whatever a failed batch left in the buffer or wrote past the last commit, so the segment ends
+    // at its last durable record again
+    private void rollBack() throws IOException {
+        writeBuffer.clear();
+        if (!writeChannel.isOpen()) {
+            writeChannel = openChannel(segments.get(writeSegmentBase), StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE);
+        }
+        long committedPosition = committedOffset - writeSegmentBase;
+        writeChannel.truncate(committedPosition);
+        writeChannel.position(committedPosition);
+        writeOffset = committedOffset;
+    }
+    
+    private void openSegment(long base) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        writeChannel = openChannel(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE);
+        segments.put(base, path);
+        writeSegmentBase = base;
+        writeOffset = base;
+    }
+    
+    private void recoverLastSegment() throws IOException {
+        Map.Entry<Long, Path> last = segments.lastEntry();
+        FileChannel channel = openChannel(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        
+        while (position + RECORD_HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > size) {
+                break;
+            }
+            
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, position + RECORD_HEADER_BYTES);
+            payload.flip();
+            if (checksum(payload) != checksum) {
+                break;
+            }
+            position += RECORD_HEADER_BYTES + length;
+        }
+        
+        if (position < size) {
+            logger.warn("Truncating {} byte(s) of incomplete records from {}", size - position, last.getValue());
+            channel.truncate(position);
+            channel.force(true);
+        }
+        
+        channel.position(position);
+        writeChannel = channel;
+        writeSegmentBase = last.getKey();
+        writeOffset = last.getKey() + position;
+    }
+    
+    // Consumer
+    
+    private void runConsumer() {
+        FileChannel channel = null;
+        long channelBase = -1;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        long lastSave = System.nanoTime();
+        long nextDispatch = System.nanoTime();
+        
+        try {
+            while (running) {
+                if (readOffset >= committedOffset) {
+                    saveReadOffset();
+                    awaitCommitted();
+                    continue;
+                }
+                
+                Map.Entry<Long, Path> segment = segments.floorEntry(readOffset);
+                if (segment.getKey() != channelBase) {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                    channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ);
+                    channelBase = segment.getKey();
+                    deleteConsumedSegments(channelBase);
+                }
+                
+                long position = readOffset - channelBase;
+                header.clear();
+                readFully(channel, header, position);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                
+                // Validated before allocating, as recovery does; a torn header must not size the buffer
+                long segmentEnd = Math.min(channel.size(), committedOffset - channelBase);
+                if (length <= 0 || position + RECORD_HEADER_BYTES + length > segmentEnd) {
+                    skipSegment(channelBase, "Invalid task record length " + length);
+                    continue;
+                }
+                
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(channel, payload, position + RECORD_HEADER_BYTES);
+                payload.flip();
+                if (checksum(payload) != checksum) {
+                    skipSegment(channelBase, "Corrupt task record");
+                    continue;
+                }
+                
+                if (dispatchIntervalNanos > 0) {
+                    long now = System.nanoTime();
+                    if (nextDispatch > now) {
+                        LockSupport.parkNanos(nextDispatch - now);
+                    }
+                    nextDispatch = Math.max(now, nextDispatch) + dispatchIntervalNanos;
+                }
+                
+                QueuedTask task;
+                try {
+                    task = QueuedTask.decode(payload);
+                } catch (IOException e) {
+                    logger.error("Undecodable task record at offset {}, skipping", readOffset, e);
+                    readOffset += RECORD_HEADER_BYTES + length;
+                    continue;
+                }
+                
+                dispatch(task);
+                readOffset += RECORD_HEADER_BYTES + length;
+                
+                if (System.nanoTime() - lastSave > OFFSET_SAVE_INTERVAL_NANOS) {
+                    saveReadOffset();
+                    lastSave = System.nanoTime();
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Task queue consumer stopped at offset {}", readOffset, e);
+        } finally {
+            saveReadOffset();
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close task queue segment", e);
+                }
+            }
+        }
+    }
+    
+    private void skipSegment(long channelBase, String reason) {
+        Long next = segments.higherKey(channelBase);
+        logger.error("{} at offset {}, skipping rest of segment", reason, readOffset);
+        readOffset = next != null ? next : committedOffset;
+    }
+    
+    private void dispatch(QueuedTask task) {
+        TaskHandler handler = handlers.get(task.getType());
+        if (handler == null) {
+            logger.error("No handler registered for task type {}, skipping", task.getType());
+            return;
+        }
+        
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                handler.handle(task.getArgs());
+                return;
+            } catch (Exception e) {
+                if (attempt == maxAttempts) {
+                    logger.error("Task of type {} failed after {} attempt(s), discarding", task.getType(), attempt, e);
+                    return;
+                }
+                logger.warn("Task of type {} failed on attempt {}, retrying: {}", task.getType(), attempt, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200L * attempt));
+            }
+        }
+    }
+    
+    private void awaitCommitted() {
+        commitLock.lock();
+        try {
+            if (running && readOffset >= committedOffset) {
+                commitAdvanced.await(500, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+    
+    private void signalCommitted() {
+        commitLock.lock();
+        try {
+            commitAdvanced.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+    
+    private void deleteConsumedSegments(long currentBase) throws IOException {
+        Map<Long, Path> consumed = segments.headMap(currentBase, false);
+        if (consumed.isEmpty()) {
+            return;
+        }
+        
+        saveReadOffset();
+        for (Path path : new ArrayList<>(consumed.values())) {
+            Files.deleteIfExists(path);
+        }
+        consumed.clear();
+    }
+    
+    private long loadReadOffset() throws IOException {
+        Path file = directory.resolve(OFFSET_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+    
+    private void saveReadOffset() {
+        if (readOffset == savedReadOffset) {
+            return;
+        }
+        
+        Path file = directory.resolve(OFFSET_FILE);
+        Path temp = directory.resolve(OFFSET_FILE + ".tmp");
+        try {
+            Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(readOffset).array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            savedReadOffset = readOffset;
+        } catch (IOException e) {
+            logger.warn("Failed to save task queue consumer offset {}", readOffset, e);
+        }
+    }
+    
+    // Segment channels the writer appends through; tests substitute failing ones
+    FileChannel openChannel(Path path, OpenOption... options) throws IOException {
+        return FileChannel.open(path, options);
+    }
+    
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of task queue segment at " + position);
+            }
+        }
+    }
+    
+    private static int checksum(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+    
+    private static long parseBase(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
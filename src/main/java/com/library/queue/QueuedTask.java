@@ -0,0 +1,127 @@
+package com.library.queue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A task and its string arguments. Encoded as a format byte, then each string as an int byte length
+ * (-1 for null) followed by its UTF-8 bytes, so arguments are not limited in size.
+ */
+public final class QueuedTask {
+    
+    // Records of the first format start with the high byte of writeUTF's length, which is 0 for any type name
+    private static final byte FORMAT_VERSION = 1;
+    
+    private final String type;
+    private final String[] args;
+    
+    public QueuedTask(String type, String... args) {
+        this.type = type;
+        this.args = args;
+    }
+    
+    public String getType() { return type; }
+    public String[] getArgs() { return args; }
+    
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 32 * args.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, type);
+            out.writeInt(args.length);
+            for (String arg : args) {
+                writeString(out, arg);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    static QueuedTask decode(ByteBuffer payload) throws IOException {
+        if (payload.hasRemaining() && payload.get(payload.position()) != FORMAT_VERSION) {
+            return decodeModifiedUtf(payload);
+        }
+        
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(payload));
+        in.readByte();
+        String type = readString(in);
+        int count = in.readInt();
+        if (count < 0 || count > payload.remaining()) {
+            throw new IOException("Invalid task argument count: " + count);
+        }
+        String[] args = new String[count];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = readString(in);
+        }
+        return new QueuedTask(type, args);
+    }
+    
+    // Records written before the format byte was introduced, still pending after an upgrade
+    private static QueuedTask decodeModifiedUtf(ByteBuffer payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(payload));
+        String type = in.readUTF();
+        String[] args = new String[in.readUnsignedShort()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readBoolean() ? in.readUTF() : null;
+        }
+        return new QueuedTask(type, args);
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.available()) {
+            throw new IOException("Task string of " + length + " byte(s) overruns the record");
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+    
+    private static final class ByteBufferInputStream extends java.io.InputStream {
+        
+        private final ByteBuffer buffer;
+        
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+        
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+        
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+    }
+}
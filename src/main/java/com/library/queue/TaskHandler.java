@@ -0,0 +1,7 @@
+package com.library.queue;
+
+@FunctionalInterface
+public interface TaskHandler {
+    
+    void handle(String[] args) throws Exception;
+}
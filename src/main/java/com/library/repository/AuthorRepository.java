@@ -1,7 +1,10 @@
 package com.library.repository;
 
+import com.library.dto.response.EntityVersion;
 import com.library.entity.Author;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +18,10 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
     Optional<Author> findByName(String name);
     
     boolean existsByName(String name);
+    
+    @Query("SELECT new com.library.dto.response.EntityVersion(a.id, a.version, a.updatedAt) FROM Author a WHERE a.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT new com.library.dto.response.EntityVersion(COUNT(a), SUM(a.version), SUM(a.id)) FROM Author a")
+    EntityVersion findCollectionVersion();
 }
\ No newline at end of file
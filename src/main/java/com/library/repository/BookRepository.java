@@ -1,5 +1,7 @@
 package com.library.repository;
 
+import com.library.dto.response.BookSummary;
+import com.library.dto.response.EntityVersion;
 import com.library.entity.Book;
 import com.library.entity.Category;
 import org.springframework.data.domain.Page;
@@ -9,6 +11,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,11 +23,60 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     
     boolean existsByIsbn(String isbn);
     
+    // The book's JSON embeds its category and authors, so their versions and timestamps count too
+    @Query("SELECT new com.library.dto.response.EntityVersion(b.id, b.version, MAX(c.version), SUM(a.version), " +
+           "b.updatedAt, MAX(c.updatedAt), MAX(a.updatedAt)) " +
+           "FROM Book b LEFT JOIN b.category c LEFT JOIN b.authors a WHERE b.id = :id " +
+           "GROUP BY b.id, b.version, b.updatedAt")
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT new com.library.dto.response.BookSummary(b.id, b.version, b.isbn, b.title, b.category.id, " +
+           "b.totalCopies, b.availableCopies, b.status) FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<BookSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT new com.library.dto.response.BookSummary(b.id, b.version, b.isbn, b.title, b.category.id, " +
+           "b.totalCopies, b.availableCopies, b.status) FROM Book b " +
+           "WHERE (b.updatedAt IS NULL OR b.updatedAt > :since) AND b.id > :afterId ORDER BY b.id")
+    List<BookSummary> findSummariesChangedSince(@Param("since") LocalDateTime since,
+                                                @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT b.id FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT new com.library.dto.response.BookSummary(b.id, b.version, b.isbn, b.title, b.category.id, " +
+           "b.totalCopies, b.availableCopies, b.status) FROM Book b WHERE b.id = :id")
+    Optional<BookSummary> findSummaryById(@Param("id") Long id);
+    
+    @Query("SELECT new com.library.dto.response.BookSummary(b.id, b.version, b.isbn, b.title, b.category.id, " +
+           "b.totalCopies, b.availableCopies, b.status) FROM Book b WHERE b.id IN :ids")
+    List<BookSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.library.dto.response.BookSummary(b.id, b.version, b.isbn, b.title, b.category.id, " +
+           "b.totalCopies, b.availableCopies, b.status) FROM Book b WHERE b.isbn IN :isbns")
+    List<BookSummary> findSummariesByIsbnIn(@Param("isbns") Collection<String> isbns);
+    
+    @Query("SELECT b.id FROM Book b WHERE b.isbn IN :isbns")
+    List<Long> findIdsByIsbnIn(@Param("isbns") Collection<String> isbns);
+    
+    // Available books in categories the patron has borrowed from, excluding books they have borrowed
+    @Query("SELECT new com.library.dto.response.BookSummary(b.id, b.version, b.isbn, b.title, b.category.id, " +
+           "b.totalCopies, b.availableCopies, b.status) FROM Book b WHERE b.availableCopies > 0 " +
+           "AND b.category.id IN (SELECT br.book.category.id FROM BorrowRecord br WHERE br.patron.id = :patronId) " +
+           "AND b.id NOT IN (SELECT br2.book.id FROM BorrowRecord br2 WHERE br2.patron.id = :patronId) " +
+           "ORDER BY b.title")
+    List<BookSummary> findRecommendedForPatron(@Param("patronId") Long patronId, Pageable pageable);
+    
+    // (book id, author id) rows
+    @Query("SELECT b.id, a.id FROM Book b JOIN b.authors a WHERE b.id IN :bookIds")
+    List<Object[]> findAuthorIdPairs(@Param("bookIds") Collection<Long> bookIds);
+    
     List<Book> findByTitleContainingIgnoreCase(String title);
     
     List<Book> findByCategory(Category category);
     
-    @Query("SELECT b FROM Book b JOIN b.authors a WHERE a.name LIKE %:authorName%")
+    // Same predicate as BookSpecifications.authorNameContains: case-insensitive, each book once
+    @Query("SELECT b FROM Book b WHERE EXISTS (SELECT a FROM b.authors a " +
+           "WHERE LOWER(a.name) LIKE LOWER(CONCAT('%', :authorName, '%')))")
     List<Book> findByAuthorNameContainingIgnoreCase(@Param("authorName") String authorName);
     
     @Query("SELECT b FROM Book b WHERE " +
@@ -0,0 +1,61 @@
+package com.library.repository;
+
+import com.library.entity.Book;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Criteria equivalents of the BookRepository list queries, for sparse fieldset queries.
+ * A null argument means no restriction, as in findBooksWithFilters.
+ */
+public final class BookSpecifications {
+    
+    private BookSpecifications() {
+    }
+    
+    public static Specification<Book> withFilters(String title, Long categoryId, String authorName,
+                                                  String publisher, String isbn) {
+        return Specification.where(titleContains(title))
+                .and(inCategory(categoryId))
+                .and(authorNameContains(authorName))
+                .and(publisherContains(publisher))
+                .and(hasIsbn(isbn));
+    }
+    
+    public static Specification<Book> available() {
+        return (root, query, cb) -> cb.greaterThan(root.<Integer>get("availableCopies"), 0);
+    }
+    
+    public static Specification<Book> titleContains(String title) {
+        return title == null ? null
+                : (root, query, cb) -> cb.like(cb.lower(root.<String>get("title")), "%" + title.toLowerCase() + "%");
+    }
+    
+    public static Specification<Book> inCategory(Long categoryId) {
+        return categoryId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+    
+    // EXISTS rather than a join, so a book with several matching authors is listed once
+    public static Specification<Book> authorNameContains(String authorName) {
+        return authorName == null ? null : (root, query, cb) -> {
+            Subquery<Long> authors = query.subquery(Long.class);
+            Root<Book> book = authors.correlate(root);
+            Join<Book, ?> author = book.join("authors");
+            authors.select(author.<Long>get("id"))
+                   .where(cb.like(cb.lower(author.<String>get("name")), "%" + authorName.toLowerCase() + "%"));
+            return cb.exists(authors);
+        };
+    }
+    
+    public static Specification<Book> publisherContains(String publisher) {
+        return publisher == null ? null
+                : (root, query, cb) -> cb.like(cb.lower(root.<String>get("publisher")), "%" + publisher.toLowerCase() + "%");
+    }
+    
+    public static Specification<Book> hasIsbn(String isbn) {
+        return isbn == null ? null : (root, query, cb) -> cb.equal(root.get("isbn"), isbn);
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long> {
@@ -24,6 +25,27 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long
     @Query("SELECT br FROM BorrowRecord br WHERE br.patron.id = :patronId")
     Page<BorrowRecord> findByPatronId(@Param("patronId") Long patronId, Pageable pageable);
     
+    // Book, patron and user are fetched with the record so it can be mapped outside a persistence context
+    @Query("SELECT br FROM BorrowRecord br JOIN FETCH br.book JOIN FETCH br.patron p JOIN FETCH p.user " +
+           "WHERE p.id = :patronId AND br.status <> 'RETURNED' ORDER BY br.dueDate")
+    List<BorrowRecord> findActiveWithDetailsByPatronId(@Param("patronId") Long patronId);
+    
+    @Query("SELECT br FROM BorrowRecord br JOIN FETCH br.book JOIN FETCH br.patron p JOIN FETCH p.user " +
+           "WHERE p.id = :patronId ORDER BY br.borrowDate DESC, br.id DESC")
+    List<BorrowRecord> findRecentWithDetailsByPatronId(@Param("patronId") Long patronId, Pageable pageable);
+    
+    // Same total as Patron.getTotalFines(): fines are settled at the desk and not tracked as paid, so every
+    // recorded fine, including those finalized when the book came back, is still owed
+    @Query("SELECT COALESCE(SUM(br.fineAmount), 0) FROM BorrowRecord br WHERE br.patron.id = :patronId")
+    Double sumFinesByPatronId(@Param("patronId") Long patronId);
+    
+    @Query("SELECT br.patron.id FROM BorrowRecord br WHERE br.id = :id")
+    Optional<Long> findPatronIdById(@Param("id") Long id);
+    
+    @Query("SELECT COUNT(br) FROM BorrowRecord br WHERE br.patron.id = :patronId " +
+           "AND br.status <> 'RETURNED' AND br.dueDate < :currentDate")
+    long countOverdueByPatronId(@Param("patronId") Long patronId, @Param("currentDate") LocalDate currentDate);
+    
     @Query("SELECT br FROM BorrowRecord br WHERE br.book.id = :bookId")
     Page<BorrowRecord> findByBookId(@Param("bookId") Long bookId, Pageable pageable);
     
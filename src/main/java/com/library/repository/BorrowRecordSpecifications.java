@@ -0,0 +1,28 @@
+package com.library.repository;
+
+import com.library.entity.BorrowRecord;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria equivalents of the BorrowRecordRepository list queries, for sparse fieldset queries.
+ */
+public final class BorrowRecordSpecifications {
+    
+    private BorrowRecordSpecifications() {
+    }
+    
+    public static Specification<BorrowRecord> forPatron(Long patronId) {
+        return (root, query, cb) -> cb.equal(root.get("patron").get("id"), patronId);
+    }
+    
+    public static Specification<BorrowRecord> withStatus(BorrowRecord.BorrowStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+    
+    public static Specification<BorrowRecord> overdue(LocalDate currentDate) {
+        return (root, query, cb) -> cb.and(cb.equal(root.get("status"), BorrowRecord.BorrowStatus.BORROWED),
+                                           cb.lessThan(root.<LocalDate>get("dueDate"), currentDate));
+    }
+}
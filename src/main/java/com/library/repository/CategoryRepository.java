@@ -1,7 +1,10 @@
 package com.library.repository;
 
+import com.library.dto.response.EntityVersion;
 import com.library.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +20,10 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByNameContainingIgnoreCase(String name);
     
     List<Category> findByOrderByNameAsc();
+    
+    @Query("SELECT new com.library.dto.response.EntityVersion(c.id, c.version, c.updatedAt) FROM Category c WHERE c.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT new com.library.dto.response.EntityVersion(COUNT(c), SUM(c.version), SUM(c.id)) FROM Category c")
+    EntityVersion findCollectionVersion();
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.library.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+/**
+ * Runs a read in a persistence context of its own that is closed before returning, so the entities come
+ * back detached and belong to no request's session. Meant for results handed to other threads, such as
+ * shared single-flight loads; anything the caller needs must be initialized inside the query function.
+ */
+@Repository
+public class DetachedEntityLoader {
+    
+    private final EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    public DetachedEntityLoader(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+    
+    public <T> T load(Function<EntityManager, T> query) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return query.apply(entityManager);
+        } finally {
+            // Releases the connection, which is only held while the query runs
+            entityManager.close();
+        }
+    }
+    
+    /**
+     * Whether the calling thread may take part in a shared load. An instance loaded for a read-write
+     * transaction is that transaction's to modify, so it is never shared.
+     */
+    public static boolean canShareLoad() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -18,6 +18,12 @@ public interface PatronRepository extends JpaRepository<Patron, Long> {
     
     boolean existsByLibraryCardNumber(String libraryCardNumber);
     
+    @Query("SELECT p FROM Patron p JOIN FETCH p.user WHERE p.id = :id")
+    Optional<Patron> findWithUserById(@Param("id") Long id);
+    
+    @Query("SELECT p.user.id FROM Patron p WHERE p.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+    
     // Added missing methods for patron status queries
     long countByStatus(Patron.PatronStatus status);
     
@@ -0,0 +1,172 @@
+package com.library.repository;
+
+import com.library.fieldset.FieldSet;
+import com.library.fieldset.SparseField;
+import com.library.fieldset.SparseRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs list queries for sparse fieldsets: only the requested columns are selected, only the joins they need
+ * are made, and to-many fields are fetched by a second query for the rows on the page.
+ */
+@Repository
+public class SparseFieldRepository {
+    
+    private final EntityManager entityManager;
+    
+    @Autowired
+    public SparseFieldRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    public <T> List<SparseRow> findAll(FieldSet fields, Specification<T> specification, Sort sort) {
+        return query(fields, specification, sort, -1, -1);
+    }
+    
+    public <T> Page<SparseRow> findAll(FieldSet fields, Specification<T> specification, Pageable pageable) {
+        List<SparseRow> rows = query(fields, specification, pageable.getSort(),
+                                     (int) pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(rows, pageable, () -> count(fields, specification));
+    }
+    
+    private <T> List<SparseRow> query(FieldSet fields, Specification<T> specification, Sort sort,
+                                      int offset, int limit) {
+        Class<T> entityType = entityType(fields);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(entityType);
+        
+        Map<String, Join<T, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>();
+        for (SparseField field : fields.getFields()) {
+            if (field.getKind() != SparseField.Kind.COLLECTION) {
+                selections.add(path(root, joins, field));
+            }
+        }
+        // Collection values are matched to rows by id, selected as a trailing column
+        boolean collections = fields.hasCollections();
+        if (collections) {
+            selections.add(root.get("id"));
+        }
+        query.multiselect(selections);
+        
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        
+        TypedQuery<Object[]> typedQuery = entityManager.createQuery(query);
+        if (offset >= 0) {
+            typedQuery.setFirstResult(offset);
+            typedQuery.setMaxResults(limit);
+        }
+        List<Object[]> results = typedQuery.getResultList();
+        
+        Map<SparseField, Map<Object, List<Object>>> collectionValues = new HashMap<>();
+        if (collections && !results.isEmpty()) {
+            List<Object> ids = new ArrayList<>(results.size());
+            for (Object[] result : results) {
+                ids.add(result[result.length - 1]);
+            }
+            for (SparseField field : fields.getFields()) {
+                if (field.getKind() == SparseField.Kind.COLLECTION) {
+                    collectionValues.put(field, loadCollection(entityType, field, ids));
+                }
+            }
+        }
+        
+        List<SparseRow> rows = new ArrayList<>(results.size());
+        for (Object[] result : results) {
+            Object[] values = new Object[fields.getFields().size()];
+            int column = 0;
+            for (int i = 0; i < values.length; i++) {
+                SparseField field = fields.getFields().get(i);
+                if (field.getKind() == SparseField.Kind.COLLECTION) {
+                    values[i] = collectionValues.get(field)
+                                                .getOrDefault(result[result.length - 1], Collections.emptyList());
+                } else {
+                    values[i] = result[column++];
+                }
+            }
+            rows.add(new SparseRow(fields.getNames(), values));
+        }
+        return rows;
+    }
+    
+    private <T> Map<Object, List<Object>> loadCollection(Class<T> entityType, SparseField field, List<Object> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(entityType);
+        Join<T, ?> join = root.join(field.getJoin());
+        query.multiselect(root.get("id"), join.get(field.getAttribute()))
+             .where(root.get("id").in(ids));
+        
+        Map<Object, List<Object>> values = new HashMap<>();
+        for (Object[] row : entityManager.createQuery(query).getResultList()) {
+            values.computeIfAbsent(row[0], id -> new ArrayList<>()).add(row[1]);
+        }
+        return values;
+    }
+    
+    private <T> long count(FieldSet fields, Specification<T> specification) {
+        Class<T> entityType = entityType(fields);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityType);
+        query.select(cb.count(root));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+    
+    private static <T> Path<?> path(Root<T> root, Map<String, Join<T, ?>> joins, SparseField field) {
+        if (field.getKind() == SparseField.Kind.JOINED) {
+            From<T, ?> join = joins.computeIfAbsent(field.getJoin(), name -> root.join(name, JoinType.LEFT));
+            return join.get(field.getAttribute());
+        }
+        
+        Path<?> path = root;
+        for (String attribute : field.getAttribute().split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> Class<T> entityType(FieldSet fields) {
+        return (Class<T>) fields.getEntityType();
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.security;
+
+import com.library.entity.User;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Authenticated user rebuilt from verified token claims, without loading the {@link User} entity.
+ */
+public class JwtPrincipal implements AuthenticatedPrincipal {
+    
+    private final Long userId;
+    private final String username;
+    private final User.Role role;
+    private final Collection<? extends GrantedAuthority> authorities;
+    
+    public JwtPrincipal(Long userId, String username, User.Role role) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+    
+    @Override
+    public String getName() {
+        return username;
+    }
+    
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public User.Role getRole() { return role; }
+    public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+    
+    @Override
+    public String toString() {
+        return username;
+    }
+}
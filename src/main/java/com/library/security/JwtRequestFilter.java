@@ -1,7 +1,9 @@
 package com.library.security;
 
 import com.library.service.UserService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,11 +27,14 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final TokenVersionService tokenVersionService;
     
     @Autowired
-    public JwtRequestFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public JwtRequestFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil,
+                            TokenVersionService tokenVersionService) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.tokenVersionService = tokenVersionService;
     }
     
     @Override
@@ -38,32 +43,48 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         
         final String requestTokenHeader = request.getHeader("Authorization");
         
-        String username = null;
+        Claims claims = null;
         String jwtToken = null;
         
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwtToken = requestTokenHeader.substring(7);
+            // Verified once here; the signature and expiry checks are not repeated below
             try {
-                username = jwtUtil.extractUsername(jwtToken);
+                claims = jwtUtil.verify(jwtToken);
             } catch (IllegalArgumentException e) {
                 logger.error("Unable to get JWT Token");
             } catch (ExpiredJwtException e) {
                 logger.error("JWT Token has expired");
+            } catch (JwtException e) {
+                logger.error("Invalid JWT Token: {}", e.getMessage());
             }
         } else {
             logger.debug("JWT Token does not begin with Bearer String");
         }
         
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            
-            if (jwtUtil.validateToken(jwtToken, userDetails)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = authenticate(claims);
+            if (usernamePasswordAuthenticationToken != null) {
                 usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
             }
         }
         chain.doFilter(request, response);
     }
+    
+    private UsernamePasswordAuthenticationToken authenticate(Claims claims) {
+        JwtPrincipal principal = jwtUtil.toPrincipal(claims);
+        
+        // Tokens issued before role/version claims existed still go through the user lookup
+        if (principal == null) {
+            UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
+            return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        }
+        
+        if (!tokenVersionService.isCurrent(principal.getUserId(), jwtUtil.getTokenVersion(claims))) {
+            logger.warn("Rejected revoked JWT Token for user: {}", principal.getUsername());
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
 }
\ No newline at end of file
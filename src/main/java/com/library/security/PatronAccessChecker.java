@@ -0,0 +1,87 @@
+package com.library.security;
+
+import com.library.entity.User;
+import com.library.repository.BorrowRecordRepository;
+import com.library.repository.PatronRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ownership checks for patron-scoped endpoints, used as {@code @patronAccess.isOwner(#patronId, authentication)}.
+ * A patron's user never changes, so patronId to userId is cached and, with a claims-based principal,
+ * the check needs no database access.
+ */
+@Component("patronAccess")
+public class PatronAccessChecker {
+    
+    private static final Long NO_USER = -1L;
+    
+    private final PatronRepository patronRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final int maxEntries;
+    
+    private final ConcurrentMap<Long, Long> patronUsers = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public PatronAccessChecker(PatronRepository patronRepository, BorrowRecordRepository borrowRecordRepository,
+                               @Value("${security.patron-access.cache-size:10000}") int maxEntries) {
+        this.patronRepository = patronRepository;
+        this.borrowRecordRepository = borrowRecordRepository;
+        this.maxEntries = maxEntries;
+    }
+    
+    public boolean isOwner(Long patronId, Authentication authentication) {
+        Long userId = userId(authentication);
+        return userId != null && userId.equals(patronUserId(patronId));
+    }
+    
+    /**
+     * Whether the borrow record belongs to the authenticated patron. Unknown records are not owned by anyone.
+     */
+    public boolean isBorrower(Long borrowRecordId, Authentication authentication) {
+        return borrowRecordRepository.findPatronIdById(borrowRecordId)
+                                     .map(patronId -> isOwner(patronId, authentication))
+                                     .orElse(false);
+    }
+    
+    public void evict(Long patronId) {
+        patronUsers.remove(patronId);
+    }
+    
+    private Long patronUserId(Long patronId) {
+        Long userId = patronUsers.get(patronId);
+        if (userId != null) {
+            return userId;
+        }
+        
+        userId = patronRepository.findUserIdById(patronId).orElse(NO_USER);
+        // Unknown patrons are not cached, so a patron created later is still found
+        if (!NO_USER.equals(userId)) {
+            // Entries are cheap to reload, so a full cache is simply reset
+            if (patronUsers.size() >= maxEntries) {
+                patronUsers.clear();
+            }
+            patronUsers.put(patronId, userId);
+        }
+        return userId;
+    }
+    
+    private static Long userId(Authentication authentication) {
+        if (authentication == null) {
+            return null;
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof JwtPrincipal) {
+            return ((JwtPrincipal) principal).getUserId();
+        }
+        if (principal instanceof User) {
+            return ((User) principal).getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.library.security;
+
+import com.library.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Serves each user's current token version from memory. Entries are refreshed after a short TTL so
+ * revocations made by other instances are picked up without a lookup per request.
+ */
+@Service
+public class TokenVersionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionService.class);
+    
+    // Returned for users that no longer exist, so none of their tokens match
+    private static final int UNKNOWN_USER = -1;
+    
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    
+    private final ConcurrentMap<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public TokenVersionService(UserRepository userRepository,
+                               @Value("${security.token-version.ttl-ms:30000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+    }
+    
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = versions.get(userId);
+        if (cached == null || now - cached.loadedAt >= ttlMillis) {
+            cached = new CachedVersion(load(userId), now);
+            versions.put(userId, cached);
+        }
+        return cached.version == tokenVersion;
+    }
+    
+    @Transactional
+    public void revokeTokens(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        evict(userId);
+        logger.info("Revoked issued tokens for user ID: {}", userId);
+    }
+    
+    // Within a transaction the entry is dropped once it completes; dropped earlier, a concurrent request could
+    // cache the version the transaction is about to change
+    public void evict(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.remove(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                versions.remove(userId);
+            }
+        });
+    }
+    
+    private int load(Long userId) {
+        return userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+    }
+    
+    private static class CachedVersion {
+        
+        private final int version;
+        private final long loadedAt;
+        
+        CachedVersion(int version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
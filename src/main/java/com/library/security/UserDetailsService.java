@@ -3,13 +3,19 @@ package com.library.security;
 import com.library.entity.User;
 import com.library.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService {
+public class UserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService,
+                                           UserDetailsPasswordService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsService.class);
     
     private final UserRepository userRepository;
     
@@ -26,4 +32,17 @@ public class UserDetailsService implements org.springframework.security.core.use
         
         return user;
     }
-}
\ No newline at end of file
+    
+    // Called after a successful login when the stored hash uses an outdated work factor
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found: " + userDetails.getUsername()));
+        
+        user.setPassword(newPassword);
+        logger.info("Rehashed password for user: {}", user.getUsername());
+        
+        return userRepository.save(user);
+    }
+}
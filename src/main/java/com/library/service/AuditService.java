@@ -1,49 +1,41 @@
 package com.library.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import com.library.audit.AuditLog;
+import com.library.audit.AuditQuery;
+import com.library.audit.AuditRecord;
+import com.library.audit.AuditRecordVisitor;
+import com.library.audit.AuditSearcher;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
 
 @Service
 public class AuditService {
     
-    private static final Logger auditLogger = LoggerFactory.getLogger("AUDIT");
-    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final AuditLog auditLog;
+    private final AuditSearcher auditSearcher;
     
-    @Async
+    @Autowired
+    public AuditService(AuditLog auditLog, AuditSearcher auditSearcher) {
+        this.auditLog = auditLog;
+        this.auditSearcher = auditSearcher;
+    }
+    
+    // Events are encoded straight into the audit ring buffer; AuditLogDecoder renders them as text
     public void logBorrowOperation(String username, String bookTitle, String operation) {
-        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
-        String auditMessage = String.format(
-            "[%s] User: %s | Operation: %s | Book: %s", 
-            timestamp, username, operation, bookTitle
-        );
-        
-        auditLogger.info(auditMessage);
+        auditLog.append(AuditRecord.TYPE_BORROW, username, operation, bookTitle);
     }
     
-    @Async
     public void logUserOperation(String username, String operation, String details) {
-        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
-        String auditMessage = String.format(
-            "[%s] User: %s | Operation: %s | Details: %s", 
-            timestamp, username, operation, details
-        );
-        
-        auditLogger.info(auditMessage);
+        auditLog.append(AuditRecord.TYPE_USER, username, operation, details);
     }
     
-    @Async
     public void logSecurityEvent(String username, String event, String ipAddress) {
-        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
-        String auditMessage = String.format(
-            "[%s] Security Event: %s | User: %s | IP: %s", 
-            timestamp, event, username, ipAddress
-        );
-        
-        auditLogger.warn(auditMessage);
+        auditLog.append(AuditRecord.TYPE_SECURITY, username, event, ipAddress);
+    }
+    
+    public int search(AuditQuery query, AuditRecordVisitor visitor) throws IOException {
+        return auditSearcher.search(query, visitor);
     }
-}
\ No newline at end of file
+}
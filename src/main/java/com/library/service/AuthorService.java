@@ -1,12 +1,15 @@
 package com.library.service;
 
+import com.library.dto.response.EntityVersion;
 import com.library.entity.Author;
+import com.library.event.BookChangedEvent;
 import com.library.exception.ResourceAlreadyExistsException;
 import com.library.exception.ResourceNotFoundException;
 import com.library.repository.AuthorRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,10 +22,12 @@ public class AuthorService {
     private static final Logger logger = LoggerFactory.getLogger(AuthorService.class);
     
     private final AuthorRepository authorRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public AuthorService(AuthorRepository authorRepository) {
+    public AuthorService(AuthorRepository authorRepository, ApplicationEventPublisher eventPublisher) {
         this.authorRepository = authorRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     public Author createAuthor(Author author) {
@@ -44,11 +49,22 @@ public class AuthorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Author not found with ID: " + id));
     }
     
+    @Transactional(readOnly = true)
+    public EntityVersion getVersion(Long id) {
+        return authorRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Author not found with ID: " + id));
+    }
+    
     @Transactional(readOnly = true)
     public List<Author> findAll() {
         return authorRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public EntityVersion getCollectionVersion() {
+        return authorRepository.findCollectionVersion();
+    }
+    
     @Transactional(readOnly = true)
     public List<Author> searchByName(String name) {
         return authorRepository.findByNameContainingIgnoreCase(name);
@@ -68,6 +84,8 @@ public class AuthorService {
         existingAuthor.setBiography(updatedAuthor.getBiography());
         
         Author savedAuthor = authorRepository.save(existingAuthor);
+        // Authors are embedded in every book representation they appear in
+        eventPublisher.publishEvent(BookChangedEvent.allBooks());
         logger.info("Author updated successfully with ID: {}", savedAuthor.getId());
         
         return savedAuthor;
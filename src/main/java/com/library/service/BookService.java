@@ -1,23 +1,47 @@
 package com.library.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.cache.BookJsonCache;
+import com.library.cache.SearchResultCache;
+import com.library.cache.SingleFlight;
+import com.library.catalog.CatalogStore;
 import com.library.dto.request.BookRequest;
+import com.library.dto.response.BookSummary;
+import com.library.dto.response.EntityVersion;
 import com.library.entity.Author;
 import com.library.entity.Book;
 import com.library.entity.Category;
+import com.library.event.BookChangedEvent;
+import com.library.fieldset.FieldSet;
+import com.library.fieldset.SparseRow;
 import com.library.exception.ResourceAlreadyExistsException;
 import com.library.exception.ResourceNotFoundException;
 import com.library.repository.AuthorRepository;
 import com.library.repository.BookRepository;
+import com.library.repository.BookSpecifications;
 import com.library.repository.CategoryRepository;
+import com.library.repository.DetachedEntityLoader;
+import com.library.repository.SparseFieldRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 @Transactional
@@ -25,16 +49,37 @@ public class BookService {
     
     private static final Logger logger = LoggerFactory.getLogger(BookService.class);
     
+    private static final String BOOK_BY_ID = "SELECT b FROM Book b JOIN FETCH b.category WHERE b.id = :id";
+    
     private final BookRepository bookRepository;
     private final CategoryRepository categoryRepository;
     private final AuthorRepository authorRepository;
+    private final SparseFieldRepository sparseFieldRepository;
+    private final DetachedEntityLoader detachedEntityLoader;
+    private final BookJsonCache bookJsonCache;
+    private final SearchResultCache searchResultCache;
+    private final CatalogStore catalogStore;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<Long, Book> loadsById;
     
     @Autowired
     public BookService(BookRepository bookRepository, CategoryRepository categoryRepository, 
-                      AuthorRepository authorRepository) {
+                      AuthorRepository authorRepository, SparseFieldRepository sparseFieldRepository,
+                      DetachedEntityLoader detachedEntityLoader, BookJsonCache bookJsonCache,
+                      SearchResultCache searchResultCache, CatalogStore catalogStore, ObjectMapper objectMapper,
+                      ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
         this.bookRepository = bookRepository;
         this.categoryRepository = categoryRepository;
         this.authorRepository = authorRepository;
+        this.sparseFieldRepository = sparseFieldRepository;
+        this.detachedEntityLoader = detachedEntityLoader;
+        this.bookJsonCache = bookJsonCache;
+        this.searchResultCache = searchResultCache;
+        this.catalogStore = catalogStore;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.loadsById = new SingleFlight<>("book.id", meterRegistry);
     }
     
     public Book createBook(BookRequest request) {
@@ -69,27 +114,116 @@ public class BookService {
         book.setLocation(request.getLocation());
         
         Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.of(savedBook.getId()));
         logger.info("Book created successfully with ID: {}", savedBook.getId());
         
         return savedBook;
     }
     
-    @Transactional(readOnly = true)
+    // Concurrent reads of the same book share one load. Not transactional, so callers waiting on a load
+    // hold no connection; the shared instance is detached and fully initialized.
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Book findById(Long id) {
-        return bookRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + id));
+        if (!DetachedEntityLoader.canShareLoad()) {
+            return loadBook(id);
+        }
+        return loadsById.load(id, () -> loadDetached(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + id)));
     }
     
     @Transactional(readOnly = true)
+    public EntityVersion getVersion(Long id) {
+        return bookRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + id));
+    }
+    
+    // Not transactional, so a cache hit needs no connection; a miss loads and renders like the controller used to
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public String findJsonById(Long id, Long version) {
+        String json = bookJsonCache.get(id, version);
+        if (json != null) {
+            return json;
+        }
+        
+        long generation = bookJsonCache.generation();
+        Book book = findById(id);
+        try {
+            json = objectMapper.writeValueAsString(book);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render book with ID: " + id, e);
+        }
+        bookJsonCache.put(id, book.getVersion(), generation, json);
+        return json;
+    }
+    
+    // Served from the catalog record store once it is loaded
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public BookSummary findSummaryById(Long id) {
+        BookSummary summary = catalogStore.findById(id);
+        if (summary == null) {
+            throw new ResourceNotFoundException("Book not found with ID: " + id);
+        }
+        return summary;
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public BookSummary findSummaryByIsbn(String isbn) {
+        BookSummary summary = catalogStore.findByIsbn(isbn);
+        if (summary == null) {
+            throw new ResourceNotFoundException("Book not found with ISBN: " + isbn);
+        }
+        return summary;
+    }
+    
+    // The catalog store resolves the ISBN in any hyphenation or as ISBN-10, then the id read shares its load
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Book findByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ISBN: " + isbn));
+        Long id = catalogStore.findIdByIsbn(isbn);
+        if (id == null) {
+            throw new ResourceNotFoundException("Book not found with ISBN: " + isbn);
+        }
+        return findById(id);
     }
     
     @Transactional(readOnly = true)
     public Page<Book> findBooksWithFilters(String title, Long categoryId, String authorName, 
                                          String publisher, String isbn, Pageable pageable) {
-        return bookRepository.findBooksWithFilters(title, categoryId, authorName, publisher, isbn, pageable);
+        SearchResultCache.Key key = SearchResultCache.key(title, categoryId, authorName, publisher, isbn, pageable);
+        long version = searchResultCache.version();
+        
+        // A hit replaces the filter query with a primary-key lookup of the books on the page
+        SearchResultCache.Result cached = searchResultCache.get(key, version);
+        if (cached != null) {
+            long start = System.nanoTime();
+            Page<Book> page = new PageImpl<>(inOrder(bookRepository.findAllById(cached.getIds()), cached.getIds()),
+                                             pageable, cached.getTotal());
+            searchResultCache.recordHit(cached, System.nanoTime() - start);
+            return page;
+        }
+        
+        long start = System.nanoTime();
+        Page<Book> page = bookRepository.findBooksWithFilters(title, categoryId, authorName, publisher, isbn, pageable);
+        List<Long> ids = new ArrayList<>(page.getNumberOfElements());
+        for (Book book : page) {
+            ids.add(book.getId());
+        }
+        searchResultCache.put(key, version, ids, page.getTotalElements(), System.nanoTime() - start);
+        return page;
+    }
+    
+    private static List<Book> inOrder(List<Book> books, List<Long> ids) {
+        Map<Long, Book> byId = new HashMap<>();
+        for (Book book : books) {
+            byId.put(book.getId(), book);
+        }
+        List<Book> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = byId.get(id);
+            if (book != null) {
+                ordered.add(book);
+            }
+        }
+        return ordered;
     }
     
     @Transactional(readOnly = true)
@@ -97,6 +231,39 @@ public class BookService {
         return bookRepository.findAll();
     }
     
+    // Sparse fieldset variants of the list reads: only the requested columns and joins are queried
+    
+    @Transactional(readOnly = true)
+    public List<SparseRow> findAll(FieldSet fields) {
+        return sparseFieldRepository.findAll(fields, null, Sort.unsorted());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SparseRow> findAvailableBooks(FieldSet fields) {
+        return sparseFieldRepository.findAll(fields, BookSpecifications.available(), Sort.unsorted());
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<SparseRow> findBooksWithFilters(String title, Long categoryId, String authorName,
+                                                String publisher, String isbn, Pageable pageable, FieldSet fields) {
+        return sparseFieldRepository.findAll(fields,
+                BookSpecifications.withFilters(title, categoryId, authorName, publisher, isbn), pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SparseRow> findByCategory(Long categoryId, FieldSet fields) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category not found with ID: " + categoryId);
+        }
+        return sparseFieldRepository.findAll(fields, BookSpecifications.inCategory(categoryId), Sort.unsorted());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SparseRow> findByAuthorName(String authorName, FieldSet fields) {
+        return sparseFieldRepository.findAll(fields, BookSpecifications.authorNameContains(authorName),
+                                             Sort.unsorted());
+    }
+    
     @Transactional(readOnly = true)
     public List<Book> findAvailableBooks() {
         return bookRepository.findAvailableBooks();
@@ -122,7 +289,7 @@ public class BookService {
     public Book updateBook(Long id, BookRequest request) {
         logger.info("Updating book with ID: {}", id);
         
-        Book existingBook = findById(id);
+        Book existingBook = loadBook(id);
         
         // Check ISBN uniqueness if changed
         if (!existingBook.getIsbn().equals(request.getIsbn()) && 
@@ -160,6 +327,7 @@ public class BookService {
         existingBook.setAuthors(authors);
         
         Book savedBook = bookRepository.save(existingBook);
+        eventPublisher.publishEvent(BookChangedEvent.of(id));
         logger.info("Book updated successfully with ID: {}", savedBook.getId());
         
         return savedBook;
@@ -168,7 +336,7 @@ public class BookService {
     public void deleteBook(Long id) {
         logger.info("Deleting book with ID: {}", id);
         
-        Book book = findById(id);
+        Book book = loadBook(id);
         
         // Check if book has active borrows
         if (book.getAvailableCopies() < book.getTotalCopies()) {
@@ -176,9 +344,27 @@ public class BookService {
         }
         
         bookRepository.delete(book);
+        eventPublisher.publishEvent(BookChangedEvent.of(id));
         logger.info("Book deleted successfully with ID: {}", id);
     }
     
+    private Book loadBook(Long id) {
+        return bookRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + id));
+    }
+    
+    // Loaded in its own persistence context, so the instance shared between callers is in nobody's session;
+    // authors are initialized before it closes, as nothing may be left for the callers to lazy-load
+    private Optional<Book> loadDetached(Long id) {
+        return detachedEntityLoader.load(entityManager -> {
+            List<Book> books = entityManager.createQuery(BOOK_BY_ID, Book.class)
+                                            .setParameter("id", id)
+                                            .getResultList();
+            books.forEach(book -> Hibernate.initialize(book.getAuthors()));
+            return books.stream().findFirst();
+        });
+    }
+    
     @Transactional(readOnly = true)
     public long countBooksByCategory(Long categoryId) {
         return bookRepository.countBooksByCategory(categoryId);
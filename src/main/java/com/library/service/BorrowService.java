@@ -4,16 +4,23 @@ import com.library.dto.request.BorrowRequest;
 import com.library.entity.Book;
 import com.library.entity.BorrowRecord;
 import com.library.entity.Patron;
+import com.library.event.BookChangedEvent;
+import com.library.fieldset.FieldSet;
+import com.library.fieldset.SparseRow;
 import com.library.exception.BusinessRuleException;
 import com.library.exception.ResourceNotFoundException;
 import com.library.repository.BookRepository;
 import com.library.repository.BorrowRecordRepository;
+import com.library.repository.BorrowRecordSpecifications;
 import com.library.repository.PatronRepository;
+import com.library.repository.SparseFieldRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,21 +35,31 @@ public class BorrowService {
     private static final Logger logger = LoggerFactory.getLogger(BorrowService.class);
     private static final int BORROW_PERIOD_DAYS = 14;
     private static final int MAX_BORROWED_BOOKS = 5;
+    private static final int MAX_RENEWALS = 2;
     
     private final BorrowRecordRepository borrowRecordRepository;
     private final BookRepository bookRepository;
     private final PatronRepository patronRepository;
+    private final SparseFieldRepository sparseFieldRepository;
     private final EmailService emailService;
+    private final NotificationDigestService notificationDigestService;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
     public BorrowService(BorrowRecordRepository borrowRecordRepository, BookRepository bookRepository,
-                        PatronRepository patronRepository, EmailService emailService, AuditService auditService) {
+                        PatronRepository patronRepository, SparseFieldRepository sparseFieldRepository,
+                        EmailService emailService,
+                        NotificationDigestService notificationDigestService, AuditService auditService,
+                        ApplicationEventPublisher eventPublisher) {
         this.borrowRecordRepository = borrowRecordRepository;
         this.bookRepository = bookRepository;
         this.patronRepository = patronRepository;
+        this.sparseFieldRepository = sparseFieldRepository;
         this.emailService = emailService;
+        this.notificationDigestService = notificationDigestService;
         this.auditService = auditService;
+        this.eventPublisher = eventPublisher;
     }
     
     public BorrowRecord borrowBook(BorrowRequest request) {
@@ -68,6 +85,7 @@ public class BorrowService {
         // Update book availability
         book.borrowCopy();
         bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.availabilityOf(book.getId()));
         
         BorrowRecord savedRecord = borrowRecordRepository.save(borrowRecord);
         
@@ -75,7 +93,8 @@ public class BorrowService {
         auditService.logBorrowOperation(patron.getUser().getUsername(), book.getTitle(), "BORROW");
         
         // Send confirmation email
-        emailService.sendBorrowConfirmation(patron.getUser().getEmail(), book.getTitle(), dueDate);
+        emailService.sendBorrowConfirmation(patron.getUser().getEmail(), patron.getUser().getLocale(),
+                                            book.getTitle(), dueDate);
         
         logger.info("Book borrowed successfully. Record ID: {}", savedRecord.getId());
         
@@ -99,6 +118,7 @@ public class BorrowService {
         Book book = borrowRecord.getBook();
         book.returnCopy();
         bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.availabilityOf(book.getId()));
         
         BorrowRecord savedRecord = borrowRecordRepository.save(borrowRecord);
         
@@ -108,7 +128,8 @@ public class BorrowService {
         
         // Send return confirmation if there was a fine
         if (borrowRecord.getFineAmount() != null && borrowRecord.getFineAmount() > 0) {
-            emailService.sendFineNotification(borrowRecord.getPatron().getUser().getEmail(), 
+            emailService.sendFineNotification(borrowRecord.getPatron().getUser().getEmail(),
+                                            borrowRecord.getPatron().getUser().getLocale(),
                                             book.getTitle(), borrowRecord.getFineAmount());
         }
         
@@ -117,6 +138,34 @@ public class BorrowService {
         return savedRecord;
     }
     
+    public BorrowRecord renewBorrow(Long borrowRecordId) {
+        logger.info("Processing renewal for borrow record ID: {}", borrowRecordId);
+        
+        BorrowRecord borrowRecord = borrowRecordRepository.findById(borrowRecordId)
+                .orElseThrow(() -> new ResourceNotFoundException("Borrow record not found with ID: " + borrowRecordId));
+        
+        if (borrowRecord.getStatus() != BorrowRecord.BorrowStatus.BORROWED) {
+            throw new BusinessRuleException("Only current borrows can be renewed");
+        }
+        if (borrowRecord.isOverdue()) {
+            throw new BusinessRuleException("Overdue books cannot be renewed");
+        }
+        if (borrowRecord.getRenewalCount() >= MAX_RENEWALS) {
+            throw new BusinessRuleException("Maximum renewals (" + MAX_RENEWALS + ") reached");
+        }
+        
+        borrowRecord.renew(BORROW_PERIOD_DAYS);
+        BorrowRecord savedRecord = borrowRecordRepository.save(borrowRecord);
+        
+        auditService.logBorrowOperation(borrowRecord.getPatron().getUser().getUsername(),
+                                      borrowRecord.getBook().getTitle(), "RENEW");
+        
+        logger.info("Borrow renewed successfully. Record ID: {}, new due date: {}",
+                   savedRecord.getId(), savedRecord.getDueDate());
+        
+        return savedRecord;
+    }
+    
     @Transactional(readOnly = true)
     public BorrowRecord findById(Long id) {
         return borrowRecordRepository.findById(id)
@@ -128,6 +177,12 @@ public class BorrowService {
         return borrowRecordRepository.findByPatronIdAndStatus(patronId, BorrowRecord.BorrowStatus.BORROWED);
     }
     
+    // Book, patron and user are fetched with each record
+    @Transactional(readOnly = true)
+    public List<BorrowRecord> findActiveWithDetails(Long patronId) {
+        return borrowRecordRepository.findActiveWithDetailsByPatronId(patronId);
+    }
+    
     @Transactional(readOnly = true)
     public Page<BorrowRecord> findBorrowHistory(Long patronId, Pageable pageable) {
         return borrowRecordRepository.findByPatronId(patronId, pageable);
@@ -138,6 +193,27 @@ public class BorrowService {
         return borrowRecordRepository.findOverdueRecords(LocalDate.now());
     }
     
+    // Sparse fieldset variants of the list reads
+    
+    @Transactional(readOnly = true)
+    public List<SparseRow> findByPatronId(Long patronId, FieldSet fields) {
+        return sparseFieldRepository.findAll(fields,
+                BorrowRecordSpecifications.forPatron(patronId)
+                        .and(BorrowRecordSpecifications.withStatus(BorrowRecord.BorrowStatus.BORROWED)),
+                Sort.unsorted());
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<SparseRow> findBorrowHistory(Long patronId, Pageable pageable, FieldSet fields) {
+        return sparseFieldRepository.findAll(fields, BorrowRecordSpecifications.forPatron(patronId), pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SparseRow> findOverdueRecords(FieldSet fields) {
+        return sparseFieldRepository.findAll(fields, BorrowRecordSpecifications.overdue(LocalDate.now()),
+                                             Sort.unsorted());
+    }
+    
     @Scheduled(cron = "0 0 9 * * ?") // Daily at 9 AM
     public void processOverdueBooks() {
         logger.info("Processing overdue books...");
@@ -150,10 +226,12 @@ public class BorrowService {
                 record.calculateFine();
                 borrowRecordRepository.save(record);
                 
-                // Send overdue notification
-                emailService.sendOverdueNotification(
+                // Queue overdue notification for the patron's digest
+                notificationDigestService.addOverdueNotice(
                     record.getPatron().getUser().getEmail(),
+                    record.getPatron().getUser().getLocale(),
                     record.getBook().getTitle(),
+                    record.getDueDate(),
                     record.getDaysOverdue(),
                     record.getFineAmount()
                 );
@@ -174,8 +252,9 @@ public class BorrowService {
         
         for (BorrowRecord record : dueSoon) {
             if (record.getStatus() == BorrowRecord.BorrowStatus.BORROWED) {
-                emailService.sendDueDateReminder(
+                notificationDigestService.addDueDateReminder(
                     record.getPatron().getUser().getEmail(),
+                    record.getPatron().getUser().getLocale(),
                     record.getBook().getTitle(),
                     record.getDueDate()
                 );
@@ -1,12 +1,19 @@
 package com.library.service;
 
+import com.library.cache.SingleFlight;
+import com.library.dto.response.EntityVersion;
 import com.library.entity.Category;
+import com.library.event.BookChangedEvent;
 import com.library.exception.ResourceNotFoundException;
 import com.library.repository.CategoryRepository;
+import com.library.repository.DetachedEntityLoader;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -19,10 +26,17 @@ public class CategoryService {
     private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
     
     private final CategoryRepository categoryRepository;
+    private final DetachedEntityLoader detachedEntityLoader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<Long, Category> loadsById;
     
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, DetachedEntityLoader detachedEntityLoader,
+                           ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
         this.categoryRepository = categoryRepository;
+        this.detachedEntityLoader = detachedEntityLoader;
+        this.eventPublisher = eventPublisher;
+        this.loadsById = new SingleFlight<>("category.id", meterRegistry);
     }
     
     public Category createCategory(Category category) {
@@ -35,10 +49,27 @@ public class CategoryService {
         return categoryRepository.save(category);
     }
     
+    // Concurrent reads of the same category share one load, made outside any transaction and in its own
+    // persistence context, so waiting callers hold no connection and share a detached instance
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Category findById(Long id) {
-        logger.info("Finding category by ID: {}", id);
+        logger.debug("Finding category by ID: {}", id);
         
-        return categoryRepository.findById(id)
+        if (!DetachedEntityLoader.canShareLoad()) {
+            return loadCategory(id);
+        }
+        return loadsById.load(id, () -> {
+            Category category = detachedEntityLoader.load(entityManager -> entityManager.find(Category.class, id));
+            if (category == null) {
+                throw new ResourceNotFoundException("Category not found with ID: " + id);
+            }
+            return category;
+        });
+    }
+    
+    @Transactional(readOnly = true)
+    public EntityVersion getVersion(Long id) {
+        return categoryRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
     }
     
@@ -48,24 +79,40 @@ public class CategoryService {
         return categoryRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public EntityVersion getCollectionVersion() {
+        return categoryRepository.findCollectionVersion();
+    }
+    
     public Category updateCategory(Long id, Category categoryDetails) {
         logger.info("Updating category with ID: {}", id);
         
-        Category existingCategory = findById(id);
+        Category existingCategory = loadCategory(id);
         
         // Update fields
         existingCategory.setName(categoryDetails.getName());
         existingCategory.setDescription(categoryDetails.getDescription());
         existingCategory.setUpdatedAt(LocalDateTime.now());
         
-        return categoryRepository.save(existingCategory);
+        Category savedCategory = categoryRepository.save(existingCategory);
+        // Categories are embedded in book representations
+        eventPublisher.publishEvent(BookChangedEvent.allBooks());
+        return savedCategory;
     }
     
     public void deleteCategory(Long id) {
         logger.info("Deleting category with ID: {}", id);
         
-        Category category = findById(id);
+        Category category = loadCategory(id);
+        // Books are deleted with their category
+        category.getBooks().forEach(book -> eventPublisher.publishEvent(BookChangedEvent.of(book.getId())));
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(BookChangedEvent.allBooks());
+    }
+    
+    private Category loadCategory(Long id) {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
     }
     
     public boolean existsByName(String name) {
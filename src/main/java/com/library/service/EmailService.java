@@ -1,96 +1,233 @@
 package com.library.service;
 
+import com.library.queue.DurableTaskQueue;
+import com.library.template.StringBuilderPool;
+import com.library.template.TemplateRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 @Service
 public class EmailService {
     
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     
-    @Async
-    public void sendBorrowConfirmation(String email, String bookTitle, LocalDate dueDate) {
+    private static final String BORROW_CONFIRMATION = "email.borrow-confirmation";
+    private static final String DUE_DATE_REMINDER = "email.due-date-reminder";
+    private static final String OVERDUE_NOTIFICATION = "email.overdue-notification";
+    private static final String FINE_NOTIFICATION = "email.fine-notification";
+    private static final String NOTIFICATION_DIGEST = "email.notification-digest";
+    private static final int DIGEST_ITEM_FIELDS = 5;
+    
+    private final TemplateRegistry templates;
+    private final StringBuilderPool builderPool;
+    private final DurableTaskQueue taskQueue;
+    
+    @Autowired
+    public EmailService(TemplateRegistry templates, DurableTaskQueue taskQueue) {
+        this.templates = templates;
+        this.builderPool = templates.getBuilderPool();
+        this.taskQueue = taskQueue;
+        
+        // The recipient's locale is the last argument, so tasks queued before it was added still decode
+        taskQueue.registerHandler(BORROW_CONFIRMATION,
+                args -> deliverBorrowConfirmation(args[0], args[1], LocalDate.parse(args[2]), locale(args, 3)));
+        taskQueue.registerHandler(DUE_DATE_REMINDER,
+                args -> deliverDueDateReminder(args[0], args[1], LocalDate.parse(args[2]), locale(args, 3)));
+        taskQueue.registerHandler(OVERDUE_NOTIFICATION,
+                args -> deliverOverdueNotification(args[0], args[1], Long.parseLong(args[2]), parseAmount(args[3]),
+                                                   locale(args, 4)));
+        taskQueue.registerHandler(FINE_NOTIFICATION,
+                args -> deliverFineNotification(args[0], args[1], parseAmount(args[2]), locale(args, 3)));
+        taskQueue.registerHandler(NOTIFICATION_DIGEST,
+                args -> deliverNotificationDigest(args[0], decodeDigestItems(args),
+                                                  locale(args, 1 + (args.length - 1) / DIGEST_ITEM_FIELDS * DIGEST_ITEM_FIELDS)));
+    }
+    
+    // locale is the recipient's language tag, or null for the default locale
+    public void sendBorrowConfirmation(String email, String locale, String bookTitle, LocalDate dueDate) {
+        taskQueue.enqueue(BORROW_CONFIRMATION, email, bookTitle, dueDate.toString(), locale);
+    }
+    
+    public void sendDueDateReminder(String email, String locale, String bookTitle, LocalDate dueDate) {
+        taskQueue.enqueue(DUE_DATE_REMINDER, email, bookTitle, dueDate.toString(), locale);
+    }
+    
+    public void sendOverdueNotification(String email, String locale, String bookTitle, long daysOverdue,
+                                        Double fineAmount) {
+        taskQueue.enqueue(OVERDUE_NOTIFICATION, email, bookTitle, Long.toString(daysOverdue), formatAmount(fineAmount),
+                          locale);
+    }
+    
+    public void sendFineNotification(String email, String locale, String bookTitle, Double fineAmount) {
+        taskQueue.enqueue(FINE_NOTIFICATION, email, bookTitle, formatAmount(fineAmount), locale);
+    }
+    
+    public void sendNotificationDigest(String email, String locale, List<NotificationDigestService.DigestItem> items) {
+        String[] args = new String[2 + items.size() * DIGEST_ITEM_FIELDS];
+        args[0] = email;
+        int i = 1;
+        for (NotificationDigestService.DigestItem item : items) {
+            args[i++] = item.getKind().name();
+            args[i++] = item.getBookTitle();
+            args[i++] = item.getDueDate().toString();
+            args[i++] = Long.toString(item.getDaysOverdue());
+            args[i++] = formatAmount(item.getFineAmount());
+        }
+        args[i] = locale;
+        taskQueue.enqueue(NOTIFICATION_DIGEST, args);
+    }
+    
+    private void deliverBorrowConfirmation(String email, String bookTitle, LocalDate dueDate, Locale locale) {
         logger.info("Sending borrow confirmation email to: {} for book: {}", email, bookTitle);
         
         // Mock email sending - in real implementation, use JavaMailSender
-        String subject = "Book Borrowed Successfully";
-        String message = String.format(
-            "Dear Patron,\n\n" +
-            "You have successfully borrowed '%s'.\n" +
-            "Due Date: %s\n\n" +
-            "Please return the book on or before the due date to avoid late fees.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            bookTitle, dueDate.format(DATE_FORMATTER)
-        );
-        
-        // Simulate email sending delay
+        StringBuilder message = builderPool.acquire();
         try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            templates.get("borrow.confirmation.body", locale).render(message, bookTitle, dueDate);
+            deliver(email, locale, "borrow.confirmation.subject", message);
+        } finally {
+            builderPool.release(message);
         }
         
         logger.info("Email sent successfully to: {}", email);
     }
     
-    @Async
-    public void sendDueDateReminder(String email, String bookTitle, LocalDate dueDate) {
+    private void deliverDueDateReminder(String email, String bookTitle, LocalDate dueDate, Locale locale) {
         logger.info("Sending due date reminder email to: {} for book: {}", email, bookTitle);
         
-        String subject = "Book Due Date Reminder";
-        String message = String.format(
-            "Dear Patron,\n\n" +
-            "This is a friendly reminder that '%s' is due on %s.\n" +
-            "Please return the book on time to avoid late fees ($1 per day).\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            bookTitle, dueDate.format(DATE_FORMATTER)
-        );
+        StringBuilder message = builderPool.acquire();
+        try {
+            templates.get("due.reminder.body", locale).render(message, bookTitle, dueDate);
+            deliver(email, locale, "due.reminder.subject", message);
+        } finally {
+            builderPool.release(message);
+        }
         
         logger.info("Due date reminder sent successfully to: {}", email);
     }
     
-    @Async
-    public void sendOverdueNotification(String email, String bookTitle, long daysOverdue, Double fineAmount) {
+    private void deliverOverdueNotification(String email, String bookTitle, long daysOverdue, Double fineAmount,
+                                            Locale locale) {
         logger.info("Sending overdue notification email to: {} for book: {}", email, bookTitle);
         
-        String subject = "Overdue Book Notice";
-        String message = String.format(
-            "Dear Patron,\n\n" +
-            "Your borrowed book '%s' is %d day(s) overdue.\n" +
-            "Current fine amount: $%.2f\n\n" +
-            "Please return the book immediately to prevent additional charges.\n" +
-            "You cannot borrow new books until all overdue items are returned.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            bookTitle, daysOverdue, fineAmount
-        );
+        StringBuilder message = builderPool.acquire();
+        try {
+            templates.get("overdue.body", locale).render(message, bookTitle, daysOverdue, fineAmount);
+            deliver(email, locale, "overdue.subject", message);
+        } finally {
+            builderPool.release(message);
+        }
         
         logger.info("Overdue notification sent successfully to: {}", email);
     }
     
-    @Async
-    public void sendFineNotification(String email, String bookTitle, Double fineAmount) {
+    private void deliverFineNotification(String email, String bookTitle, Double fineAmount, Locale locale) {
         logger.info("Sending fine notification email to: {} for book: {}", email, bookTitle);
         
-        String subject = "Late Return Fine Notice";
-        String message = String.format(
-            "Dear Patron,\n\n" +
-            "You have returned '%s' late.\n" +
-            "Fine amount: $%.2f\n\n" +
-            "Please pay this fine at the library desk.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            bookTitle, fineAmount
-        );
+        StringBuilder message = builderPool.acquire();
+        try {
+            templates.get("fine.body", locale).render(message, bookTitle, fineAmount);
+            deliver(email, locale, "fine.subject", message);
+        } finally {
+            builderPool.release(message);
+        }
         
         logger.info("Fine notification sent successfully to: {}", email);
     }
+    
+    private void deliverNotificationDigest(String email, List<NotificationDigestService.DigestItem> items,
+                                           Locale locale) {
+        logger.info("Sending notification digest email to: {} with {} item(s)", email, items.size());
+        
+        StringBuilder message = builderPool.acquire();
+        try {
+            renderDigest(message, items, locale);
+            deliver(email, locale, "digest.subject", message);
+        } finally {
+            builderPool.release(message);
+        }
+        
+        logger.info("Notification digest sent successfully to: {}", email);
+    }
+    
+    private void renderDigest(StringBuilder message, List<NotificationDigestService.DigestItem> items,
+                              Locale locale) {
+        templates.get("digest.header", locale).render(message);
+        
+        boolean hasOverdue = false;
+        double totalFines = 0;
+        for (NotificationDigestService.DigestItem item : items) {
+            if (item.getKind() != NotificationDigestService.DigestItem.Kind.OVERDUE) {
+                continue;
+            }
+            if (!hasOverdue) {
+                templates.get("digest.overdue.header", locale).render(message);
+                hasOverdue = true;
+            }
+            double fine = item.getFineAmount() != null ? item.getFineAmount() : 0;
+            totalFines += fine;
+            templates.get("digest.overdue.item", locale).render(message, item.getBookTitle(), item.getDueDate(),
+                                                        item.getDaysOverdue(), fine);
+        }
+        if (hasOverdue) {
+            templates.get("digest.overdue.footer", locale).render(message, totalFines);
+        }
+        
+        boolean hasDueSoon = false;
+        for (NotificationDigestService.DigestItem item : items) {
+            if (item.getKind() != NotificationDigestService.DigestItem.Kind.DUE_SOON) {
+                continue;
+            }
+            if (!hasDueSoon) {
+                templates.get("digest.due-soon.header", locale).render(message);
+                hasDueSoon = true;
+            }
+            templates.get("digest.due-soon.item", locale).render(message, item.getBookTitle(), item.getDueDate());
+        }
+        if (hasDueSoon) {
+            templates.get("digest.due-soon.footer", locale).render(message);
+        }
+    }
+    
+    private void deliver(String email, Locale locale, String subjectKey, StringBuilder message) {
+        templates.get("signature", locale).render(message);
+        
+        // Mock delivery - the rendered message would be handed to JavaMailSender here
+        if (logger.isDebugEnabled()) {
+            logger.debug("Rendered '{}' for {} ({} chars)", templates.get(subjectKey, locale).format(), email, message.length());
+        }
+    }
+    
+    private static List<NotificationDigestService.DigestItem> decodeDigestItems(String[] args) {
+        List<NotificationDigestService.DigestItem> items = new ArrayList<>((args.length - 1) / DIGEST_ITEM_FIELDS);
+        for (int i = 1; i + DIGEST_ITEM_FIELDS <= args.length; i += DIGEST_ITEM_FIELDS) {
+            items.add(new NotificationDigestService.DigestItem(
+                NotificationDigestService.DigestItem.Kind.valueOf(args[i]),
+                args[i + 1],
+                LocalDate.parse(args[i + 2]),
+                Long.parseLong(args[i + 3]),
+                parseAmount(args[i + 4])
+            ));
+        }
+        return items;
+    }
+    
+    private static Locale locale(String[] args, int index) {
+        return index < args.length && args[index] != null ? Locale.forLanguageTag(args[index]) : null;
+    }
+    
+    private static String formatAmount(Double amount) {
+        return amount != null ? amount.toString() : null;
+    }
+    
+    private static Double parseAmount(String amount) {
+        return amount != null ? Double.valueOf(amount) : null;
+    }
 }
@@ -0,0 +1,128 @@
+package com.library.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Service
+public class NotificationDigestService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDigestService.class);
+    
+    private final EmailService emailService;
+    
+    // Pending notifications keyed by patron email, drained once per digest window
+    private final ConcurrentMap<String, PendingDigest> pending = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public NotificationDigestService(EmailService emailService) {
+        this.emailService = emailService;
+    }
+    
+    // locale is the patron's language tag, or null for the default locale
+    public void addOverdueNotice(String email, String locale, String bookTitle, LocalDate dueDate,
+                                 long daysOverdue, Double fineAmount) {
+        add(email, locale, new DigestItem(DigestItem.Kind.OVERDUE, bookTitle, dueDate, daysOverdue, fineAmount));
+    }
+    
+    public void addDueDateReminder(String email, String locale, String bookTitle, LocalDate dueDate) {
+        add(email, locale, new DigestItem(DigestItem.Kind.DUE_SOON, bookTitle, dueDate, 0, null));
+    }
+    
+    private void add(String email, String locale, DigestItem item) {
+        pending.compute(email, (key, digest) -> {
+            PendingDigest pendingDigest = digest != null ? digest : new PendingDigest();
+            // The latest notice carries the patron's current locale
+            pendingDigest.locale = locale;
+            pendingDigest.items.add(item);
+            return pendingDigest;
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${notification.digest.window-ms:300000}",
+               initialDelayString = "${notification.digest.window-ms:300000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        int patrons = 0;
+        int notifications = 0;
+        
+        for (String email : pending.keySet()) {
+            PendingDigest digest = pending.remove(email);
+            if (digest == null || digest.items.isEmpty()) {
+                continue;
+            }
+            
+            patrons++;
+            notifications += digest.items.size();
+            send(email, digest.locale, digest.items);
+        }
+        
+        logger.info("Flushed {} notifications as {} digest email(s)", notifications, patrons);
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    private void send(String email, String locale, List<DigestItem> items) {
+        // A single notice keeps its dedicated wording
+        if (items.size() == 1) {
+            DigestItem item = items.get(0);
+            if (item.getKind() == DigestItem.Kind.OVERDUE) {
+                emailService.sendOverdueNotification(email, locale, item.getBookTitle(),
+                                                     item.getDaysOverdue(), item.getFineAmount());
+            } else {
+                emailService.sendDueDateReminder(email, locale, item.getBookTitle(), item.getDueDate());
+            }
+            return;
+        }
+        
+        emailService.sendNotificationDigest(email, locale, items);
+    }
+    
+    private static class PendingDigest {
+        
+        private final List<DigestItem> items = new ArrayList<>();
+        private String locale;
+    }
+    
+    public static class DigestItem {
+        
+        private final Kind kind;
+        private final String bookTitle;
+        private final LocalDate dueDate;
+        private final long daysOverdue;
+        private final Double fineAmount;
+        
+        public DigestItem(Kind kind, String bookTitle, LocalDate dueDate, long daysOverdue, Double fineAmount) {
+            this.kind = kind;
+            this.bookTitle = bookTitle;
+            this.dueDate = dueDate;
+            this.daysOverdue = daysOverdue;
+            this.fineAmount = fineAmount;
+        }
+        
+        public Kind getKind() { return kind; }
+        public String getBookTitle() { return bookTitle; }
+        public LocalDate getDueDate() { return dueDate; }
+        public long getDaysOverdue() { return daysOverdue; }
+        public Double getFineAmount() { return fineAmount; }
+        
+        public enum Kind {
+            OVERDUE, DUE_SOON
+        }
+    }
+}
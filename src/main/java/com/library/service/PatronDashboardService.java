@@ -0,0 +1,160 @@
+package com.library.service;
+
+import com.library.dto.response.BookSummary;
+import com.library.dto.response.BorrowRecordResponse;
+import com.library.dto.response.PatronDashboard;
+import com.library.dto.response.PatronResponse;
+import com.library.entity.BorrowRecord;
+import com.library.entity.Patron;
+import com.library.exception.ResourceNotFoundException;
+import com.library.exception.ServiceUnavailableException;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowRecordRepository;
+import com.library.repository.PatronRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds the patron dashboard in one call. The sub-queries are independent, so they run concurrently on the
+ * bounded dashboard pool and the whole page shares one deadline ({@code dashboard.timeout-ms}).
+ * <p>
+ * Active loans, fines and the overdue count are required: if one of them misses the deadline the request
+ * fails with 503. History and recommendations are optional and are left out, and listed as unavailable,
+ * when they fail or run late.
+ */
+@Service
+public class PatronDashboardService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PatronDashboardService.class);
+    
+    private static final long RETRY_AFTER_SECONDS = 1;
+    
+    private final PatronRepository patronRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final BookRepository bookRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMs;
+    private final int historySize;
+    private final int recommendationCount;
+    
+    @Autowired
+    public PatronDashboardService(PatronRepository patronRepository, BorrowRecordRepository borrowRecordRepository,
+                                  BookRepository bookRepository,
+                                  @Qualifier("dashboardExecutor") ThreadPoolTaskExecutor executor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${dashboard.timeout-ms:800}") long timeoutMs,
+                                  @Value("${dashboard.history-size:10}") int historySize,
+                                  @Value("${dashboard.recommendations:5}") int recommendationCount) {
+        this.patronRepository = patronRepository;
+        this.borrowRecordRepository = borrowRecordRepository;
+        this.bookRepository = bookRepository;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+        this.historySize = historySize;
+        this.recommendationCount = recommendationCount;
+    }
+    
+    public PatronDashboard getDashboard(Long patronId) {
+        // Loaded first as the existence check, so nothing is forked for an unknown patron
+        Patron patron = patronRepository.findWithUserById(patronId)
+                .orElseThrow(() -> new ResourceNotFoundException("Patron not found with ID: " + patronId));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        LocalDate today = LocalDate.now();
+        
+        List<Future<?>> forks = new ArrayList<>();
+        try {
+            Future<List<BorrowRecordResponse>> activeLoans = fork(forks,
+                    () -> toResponses(borrowRecordRepository.findActiveWithDetailsByPatronId(patronId)));
+            Future<Double> fines = fork(forks,
+                    () -> borrowRecordRepository.sumFinesByPatronId(patronId));
+            Future<Long> overdueCount = fork(forks,
+                    () -> borrowRecordRepository.countOverdueByPatronId(patronId, today));
+            Future<List<BorrowRecordResponse>> history = fork(forks,
+                    () -> toResponses(borrowRecordRepository.findRecentWithDetailsByPatronId(
+                            patronId, PageRequest.of(0, historySize))));
+            Future<List<BookSummary>> recommendations = fork(forks,
+                    () -> bookRepository.findRecommendedForPatron(patronId, PageRequest.of(0, recommendationCount)));
+            
+            PatronDashboard dashboard = new PatronDashboard(new PatronResponse(patron));
+            dashboard.setActiveLoans(join(dashboard, "activeLoans", activeLoans, deadline, true));
+            dashboard.setOutstandingFines(join(dashboard, "outstandingFines", fines, deadline, true));
+            dashboard.setOverdueCount(join(dashboard, "overdueCount", overdueCount, deadline, true));
+            dashboard.setRecentHistory(join(dashboard, "recentHistory", history, deadline, false));
+            dashboard.setRecommendations(join(dashboard, "recommendations", recommendations, deadline, false));
+            return dashboard;
+        } finally {
+            // Late or abandoned sections: queued ones never start, running ones are interrupted
+            for (Future<?> fork : forks) {
+                fork.cancel(true);
+            }
+        }
+    }
+    
+    private <T> Future<T> fork(List<Future<?>> forks, Callable<T> query) {
+        try {
+            Future<T> future = executor.submit(query);
+            forks.add(future);
+            return future;
+        } catch (TaskRejectedException e) {
+            meterRegistry.counter("library.dashboard.rejected").increment();
+            throw new ServiceUnavailableException("Patron dashboard is temporarily overloaded, please retry",
+                                                  RETRY_AFTER_SECONDS);
+        }
+    }
+    
+    private <T> T join(PatronDashboard dashboard, String section, Future<T> future, long deadline,
+                       boolean required) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            meterRegistry.counter("library.dashboard.sections.unavailable", "section", section).increment();
+            if (required) {
+                throw new ServiceUnavailableException("Patron dashboard could not be loaded in time, please retry",
+                                                      RETRY_AFTER_SECONDS);
+            }
+            logger.warn("Dashboard section {} missed the {} ms deadline", section, timeoutMs);
+        } catch (ExecutionException e) {
+            meterRegistry.counter("library.dashboard.sections.unavailable", "section", section).increment();
+            Throwable cause = e.getCause();
+            if (required) {
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("Dashboard section " + section + " failed", cause);
+            }
+            logger.warn("Dashboard section {} failed: {}", section, cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the patron dashboard", e);
+        }
+        dashboard.getUnavailableSections().add(section);
+        return null;
+    }
+    
+    private static List<BorrowRecordResponse> toResponses(List<BorrowRecord> records) {
+        List<BorrowRecordResponse> responses = new ArrayList<>(records.size());
+        for (BorrowRecord record : records) {
+            responses.add(new BorrowRecordResponse(record));
+        }
+        return responses;
+    }
+}
@@ -7,6 +7,7 @@ import com.library.exception.ResourceAlreadyExistsException;
 import com.library.exception.ResourceNotFoundException;
 import com.library.repository.PatronRepository;
 import com.library.repository.UserRepository;
+import com.library.security.PatronAccessChecker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,11 +26,14 @@ public class PatronService {
     
     private final PatronRepository patronRepository;
     private final UserRepository userRepository;
+    private final PatronAccessChecker patronAccessChecker;
     
     @Autowired
-    public PatronService(PatronRepository patronRepository, UserRepository userRepository) {
+    public PatronService(PatronRepository patronRepository, UserRepository userRepository,
+                         PatronAccessChecker patronAccessChecker) {
         this.patronRepository = patronRepository;
         this.userRepository = userRepository;
+        this.patronAccessChecker = patronAccessChecker;
     }
     
     public Patron createPatron(PatronRequest request) {
@@ -119,6 +123,7 @@ public class PatronService {
         }
         
         patronRepository.delete(patron);
+        patronAccessChecker.evict(id);
         logger.info("Patron deleted successfully with ID: {}", id);
     }
     
@@ -5,12 +5,15 @@ import com.library.entity.User;
 import com.library.exception.ResourceAlreadyExistsException;
 import com.library.exception.ResourceNotFoundException;
 import com.library.repository.UserRepository;
+import com.library.security.TokenVersionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -22,16 +25,29 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionService tokenVersionService;
+    private final TransactionTemplate transactionTemplate;
     
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       TokenVersionService tokenVersionService, TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenVersionService = tokenVersionService;
+        this.transactionTemplate = transactionTemplate;
     }
     
+    // The password is hashed before the transaction starts, so waiting on the bounded hashing executor
+    // never holds a connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User createUser(RegisterRequest request) {
         logger.info("Creating new user with username: {}", request.getUsername());
         
+        String encodedPassword = passwordEncoder.encode(request.getPassword());
+        return transactionTemplate.execute(status -> insertUser(request, encodedPassword));
+    }
+    
+    private User insertUser(RegisterRequest request, String encodedPassword) {
         // Validate uniqueness
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new ResourceAlreadyExistsException("Username already exists: " + request.getUsername());
@@ -45,8 +61,9 @@ public class UserService {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(encodedPassword);
         user.setRole(request.getRole());
+        user.setLocale(request.getLocale());
         
         User savedUser = userRepository.save(user);
         logger.info("User created successfully with ID: {}", savedUser.getId());
@@ -95,6 +112,7 @@ public class UserService {
         
         User user = findById(id);
         userRepository.delete(user);
+        tokenVersionService.evict(id);
         
         logger.info("User deleted successfully with ID: {}", id);
     }
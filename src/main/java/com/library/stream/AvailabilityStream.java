@@ -0,0 +1,432 @@
+package com.library.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.dto.response.AvailabilityDelta;
+import com.library.event.BookChangedEvent;
+import com.library.exception.ServiceUnavailableException;
+import com.library.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes book availability changes to server-sent event subscribers.
+ * <p>
+ * Subscribers hold an async servlet request written with non-blocking I/O: output is only written while
+ * the container reports the connection writable, and resumes from its write callback, so no thread ever
+ * waits on a slow reader and an idle subscriber costs a connection and a small buffer. Each subscriber has
+ * a bounded buffer of pending deltas keyed by book, so repeated changes to a book collapse into its latest
+ * state while the subscriber is behind. One that falls more than a buffer behind gets a {@code resync}
+ * event instead and should reload {@code /api/books/available}; one that stays unwritable past the stall
+ * timeout is disconnected.
+ * <p>
+ * Commits only record which books changed. A single publisher task reads their state and fans it out.
+ * Clients should subscribe before loading the initial list; a reconnect whose {@code Last-Event-ID} is not
+ * the latest event also starts with {@code resync}.
+ */
+@Component
+public class AvailabilityStream {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityStream.class);
+    
+    private static final byte[] HEARTBEAT = ": heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+    
+    private final BookRepository bookRepository;
+    private final Executor executor;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long reconnectMs;
+    private final long stallTimeoutNanos;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    // Books changed by commits since the publisher last ran; publishRequests makes sure one publisher runs at a time
+    private final Set<Long> changedBooks = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger publishRequests = new AtomicInteger();
+    
+    // Publisher only: last state pushed per book, to skip edits that leave availability alone
+    private final Map<Long, AvailabilityDelta> lastPublished = new HashMap<>();
+    private volatile long sequence = System.currentTimeMillis();
+    
+    private final Counter published;
+    private final Counter coalesced;
+    private final Counter overflows;
+    private final Counter stalled;
+    
+    @Autowired
+    public AvailabilityStream(BookRepository bookRepository, @Qualifier("taskExecutor") Executor executor,
+                              ObjectMapper objectMapper,
+                              @Value("${availability-stream.max-subscribers:10000}") int maxSubscribers,
+                              @Value("${availability-stream.buffer-size:256}") int bufferSize,
+                              @Value("${availability-stream.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${availability-stream.reconnect-ms:3000}") long reconnectMs,
+                              @Value("${availability-stream.stall-timeout-ms:30000}") long stallTimeoutMs,
+                              MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.reconnectMs = reconnectMs;
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMs);
+        
+        Gauge.builder("library.availability-stream.subscribers", subscribers, Set::size).register(meterRegistry);
+        this.published = Counter.builder("library.availability-stream.deltas").register(meterRegistry);
+        this.coalesced = Counter.builder("library.availability-stream.coalesced")
+                                .description("Pending deltas replaced by a newer one for the same book")
+                                .register(meterRegistry);
+        this.overflows = Counter.builder("library.availability-stream.overflows")
+                                .description("Subscriber buffers dropped in favour of a resync")
+                                .register(meterRegistry);
+        this.stalled = Counter.builder("library.availability-stream.stalled")
+                              .description("Subscribers disconnected for not reading")
+                              .register(meterRegistry);
+    }
+    
+    public void subscribe(HttpServletRequest request, HttpServletResponse response, String lastEventId)
+            throws IOException {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many availability stream subscribers", 5);
+        }
+        
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // Keeps reverse proxies from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        
+        AsyncContext context = request.startAsync(request, response);
+        context.setTimeout(timeoutMs);
+        Subscriber subscriber = new Subscriber(context, response.getOutputStream(), sequence);
+        context.addListener(subscriber);
+        subscribers.add(subscriber);
+        if (lastEventId != null && !lastEventId.equals(Long.toString(subscriber.lastSequence))) {
+            subscriber.requestResync();
+        }
+        
+        subscriber.startWriting();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        // Author and category edits do not change availability
+        if (event.isAllBooks()) {
+            return;
+        }
+        
+        changedBooks.add(event.getBookId());
+        if (publishRequests.getAndIncrement() == 0) {
+            try {
+                executor.execute(this::publishChanges);
+            } catch (RejectedExecutionException e) {
+                // Publishing here is slower for this commit but keeps the stream from stopping for good
+                publishChanges();
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${availability-stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        // Keeps proxies from closing idle streams; a stuck reader is found by its pending output aging
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now)) {
+                logger.info("Disconnecting availability stream subscriber that stopped reading");
+                stalled.increment();
+                subscriber.close();
+            } else {
+                subscriber.requestHeartbeat();
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        // Clients reconnect on their own, possibly to another instance
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+    
+    private void publishChanges() {
+        int requests = publishRequests.get();
+        while (true) {
+            for (Iterator<Long> books = changedBooks.iterator(); books.hasNext(); ) {
+                Long id = books.next();
+                books.remove();
+                try {
+                    publish(id);
+                } catch (RuntimeException e) {
+                    logger.error("Could not publish availability of book {}", id, e);
+                }
+            }
+            requests = publishRequests.addAndGet(-requests);
+            if (requests == 0) {
+                return;
+            }
+        }
+    }
+    
+    private void publish(Long id) {
+        if (subscribers.isEmpty()) {
+            lastPublished.remove(id);
+            return;
+        }
+        
+        AvailabilityDelta delta = bookRepository.findSummaryById(id)
+                                                .map(AvailabilityDelta::of)
+                                                .orElseGet(() -> AvailabilityDelta.removed(id));
+        AvailabilityDelta previous = delta.isRemoved() ? lastPublished.remove(id) : lastPublished.put(id, delta);
+        if (delta.sameAvailabilityAs(previous)) {
+            return;
+        }
+        
+        long next = sequence + 1;
+        sequence = next;
+        published.increment();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(delta, next);
+        }
+    }
+    
+    private final class Subscriber implements AsyncListener, WriteListener {
+        
+        private final AsyncContext context;
+        private final ServletOutputStream output;
+        
+        // Guards the state below and every write; writes never block, so it is only held briefly
+        private final ReentrantLock lock = new ReentrantLock();
+        // Insertion order keeps the batch in the order books first changed
+        private final LinkedHashMap<Long, AvailabilityDelta> pending = new LinkedHashMap<>();
+        private long lastSequence;
+        private boolean preamble = true;
+        private boolean resync;
+        private boolean heartbeat;
+        private boolean closed;
+        // isReady() may only be called once the write listener is set
+        private boolean listening;
+        // When output first had to wait for the client, 0 while the client keeps up
+        private long waitingSince;
+        
+        private Subscriber(AsyncContext context, ServletOutputStream output, long sequence) {
+            this.context = context;
+            this.output = output;
+            this.lastSequence = sequence;
+        }
+        
+        void offer(AvailabilityDelta delta, long sequence) {
+            lock.lock();
+            try {
+                lastSequence = sequence;
+                if (!resync) {
+                    if (pending.remove(delta.getBookId()) != null) {
+                        coalesced.increment();
+                    } else if (pending.size() >= bufferSize) {
+                        // The client reloads the full list anyway, so the buffered deltas are worthless
+                        pending.clear();
+                        resync = true;
+                        overflows.increment();
+                    }
+                    if (!resync) {
+                        pending.put(delta.getBookId(), delta);
+                    }
+                }
+                write();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void startWriting() {
+            lock.lock();
+            try {
+                // The container calls onWritePossible once the stream is writable, which sends the preamble
+                output.setWriteListener(this);
+                listening = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void requestResync() {
+            lock.lock();
+            try {
+                pending.clear();
+                resync = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void requestHeartbeat() {
+            lock.lock();
+            try {
+                heartbeat = true;
+                write();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        boolean isStalled(long now) {
+            lock.lock();
+            try {
+                return waitingSince != 0 && now - waitingSince > stallTimeoutNanos;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+            subscribers.remove(this);
+            try {
+                context.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+        
+        @Override
+        public void onWritePossible() {
+            lock.lock();
+            try {
+                write();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        @Override
+        public void onError(Throwable t) {
+            logger.debug("Availability stream write failed: {}", t.getMessage());
+            close();
+        }
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            subscribers.remove(this);
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Not restarted
+        }
+        
+        // Called with the lock held. Writes frames while the container can take them without blocking; once it
+        // cannot, isReady() arranges an onWritePossible callback and the rest waits, coalescing, in pending.
+        private void write() {
+            if (closed || !listening) {
+                return;
+            }
+            try {
+                while (output.isReady()) {
+                    byte[] frame = nextFrame();
+                    if (frame == null) {
+                        waitingSince = 0;
+                        return;
+                    }
+                    output.write(frame);
+                    if (output.isReady()) {
+                        output.flush();
+                    }
+                }
+                if (waitingSince == 0) {
+                    waitingSince = System.nanoTime();
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Dropping availability stream subscriber: {}", e.getMessage());
+                close();
+            }
+        }
+        
+        private byte[] nextFrame() throws IOException {
+            String id = Long.toString(lastSequence);
+            if (preamble) {
+                preamble = false;
+                return frame("retry: " + reconnectMs + "\n: connected\n\n");
+            }
+            if (resync) {
+                resync = false;
+                heartbeat = false;
+                return frame("id: " + id + "\nevent: resync\ndata: reload\n\n");
+            }
+            if (!pending.isEmpty()) {
+                heartbeat = false;
+                String data;
+                try {
+                    data = objectMapper.writeValueAsString(new ArrayList<>(pending.values()));
+                } catch (JsonProcessingException e) {
+                    throw new IOException("Could not encode availability deltas", e);
+                } finally {
+                    pending.clear();
+                }
+                return frame("id: " + id + "\nevent: availability\ndata: " + data + "\n\n");
+            }
+            if (heartbeat) {
+                heartbeat = false;
+                return HEARTBEAT;
+            }
+            return null;
+        }
+        
+        private byte[] frame(String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
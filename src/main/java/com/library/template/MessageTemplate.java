@@ -0,0 +1,181 @@
+package com.library.template;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class MessageTemplate {
+    
+    private final String key;
+    private final Segment[] segments;
+    private final int literalLength;
+    
+    private MessageTemplate(String key, Segment[] segments) {
+        this.key = key;
+        this.segments = segments;
+        int length = 0;
+        for (Segment segment : segments) {
+            if (segment.literal != null) {
+                length += segment.literal.length();
+            }
+        }
+        this.literalLength = length;
+    }
+    
+    /**
+     * Compiles a pattern such as "'{0}' is due on {1,date}" into literal and argument segments.
+     * Supported argument styles are plain, {@code date} (yyyy-MM-dd) and {@code money} (two decimals).
+     */
+    public static MessageTemplate compile(String key, String pattern) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            
+            int end = pattern.indexOf('}', i);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated placeholder in template '" + key + "'");
+            }
+            
+            if (literal.length() > 0) {
+                segments.add(Segment.literal(literal.toString()));
+                literal.setLength(0);
+            }
+            segments.add(parsePlaceholder(key, pattern.substring(i + 1, end)));
+            i = end + 1;
+        }
+        
+        if (literal.length() > 0) {
+            segments.add(Segment.literal(literal.toString()));
+        }
+        
+        return new MessageTemplate(key, segments.toArray(new Segment[0]));
+    }
+    
+    private static Segment parsePlaceholder(String key, String placeholder) {
+        int comma = placeholder.indexOf(',');
+        String index = comma < 0 ? placeholder : placeholder.substring(0, comma);
+        String style = comma < 0 ? "" : placeholder.substring(comma + 1).trim();
+        
+        try {
+            return Segment.argument(Integer.parseInt(index.trim()), Style.of(style));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid placeholder {" + placeholder + "} in template '" + key + "'", e);
+        }
+    }
+    
+    public void render(StringBuilder out, Object... args) {
+        out.ensureCapacity(out.length() + literalLength + 16 * args.length);
+        for (Segment segment : segments) {
+            if (segment.literal != null) {
+                out.append(segment.literal);
+            } else {
+                appendArgument(out, args[segment.index], segment.style);
+            }
+        }
+    }
+    
+    public String format(Object... args) {
+        StringBuilder out = new StringBuilder(literalLength + 16 * args.length);
+        render(out, args);
+        return out.toString();
+    }
+    
+    public String getKey() { return key; }
+    
+    private static void appendArgument(StringBuilder out, Object value, Style style) {
+        if (value == null) {
+            if (style == Style.MONEY) {
+                out.append("0.00");
+            }
+            return;
+        }
+        
+        switch (style) {
+            case DATE:
+                appendDate(out, (LocalDate) value);
+                break;
+            case MONEY:
+                appendMoney(out, ((Number) value).doubleValue());
+                break;
+            default:
+                if (value instanceof CharSequence) {
+                    out.append((CharSequence) value);
+                } else if (value instanceof Long || value instanceof Integer) {
+                    out.append(((Number) value).longValue());
+                } else {
+                    out.append(value);
+                }
+        }
+    }
+    
+    private static void appendDate(StringBuilder out, LocalDate date) {
+        int year = date.getYear();
+        if (year >= 0 && year < 1000) {
+            out.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        out.append(year).append('-');
+        appendTwoDigits(out, date.getMonthValue());
+        out.append('-');
+        appendTwoDigits(out, date.getDayOfMonth());
+    }
+    
+    private static void appendMoney(StringBuilder out, double amount) {
+        long cents = Math.round(amount * 100);
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        out.append(cents / 100).append('.');
+        appendTwoDigits(out, (int) (cents % 100));
+    }
+    
+    private static void appendTwoDigits(StringBuilder out, int value) {
+        if (value < 10) {
+            out.append('0');
+        }
+        out.append(value);
+    }
+    
+    private enum Style {
+        PLAIN, DATE, MONEY;
+        
+        static Style of(String name) {
+            if (name.isEmpty()) {
+                return PLAIN;
+            }
+            return valueOf(name.toUpperCase());
+        }
+    }
+    
+    private static final class Segment {
+        
+        private final String literal;
+        private final int index;
+        private final Style style;
+        
+        private Segment(String literal, int index, Style style) {
+            this.literal = literal;
+            this.index = index;
+            this.style = style;
+        }
+        
+        static Segment literal(String text) {
+            return new Segment(text, -1, null);
+        }
+        
+        static Segment argument(int index, Style style) {
+            if (index < 0) {
+                throw new IllegalArgumentException("Negative argument index: " + index);
+            }
+            return new Segment(null, index, style);
+        }
+    }
+}
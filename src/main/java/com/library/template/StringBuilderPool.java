@@ -0,0 +1,37 @@
+package com.library.template;
+
+import java.util.ArrayDeque;
+
+public final class StringBuilderPool {
+    
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+    private final int maxPooledPerThread;
+    
+    // Per-thread stacks so nested renders on the same thread get distinct builders
+    private final ThreadLocal<ArrayDeque<StringBuilder>> pool = ThreadLocal.withInitial(ArrayDeque::new);
+    
+    public StringBuilderPool(int initialCapacity, int maxRetainedCapacity, int maxPooledPerThread) {
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+        this.maxPooledPerThread = maxPooledPerThread;
+    }
+    
+    public StringBuilder acquire() {
+        StringBuilder builder = pool.get().pollFirst();
+        return builder != null ? builder : new StringBuilder(initialCapacity);
+    }
+    
+    public void release(StringBuilder builder) {
+        // Drop builders that grew unusually large rather than pinning the memory
+        if (builder.capacity() > maxRetainedCapacity) {
+            return;
+        }
+        
+        ArrayDeque<StringBuilder> builders = pool.get();
+        if (builders.size() < maxPooledPerThread) {
+            builder.setLength(0);
+            builders.addFirst(builder);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.library.template;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Component
+public class TemplateRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TemplateRegistry.class);
+    private static final String BUNDLE_NAME = "notifications/messages";
+    
+    private final Locale defaultLocale;
+    private final StringBuilderPool builderPool = new StringBuilderPool(512, 16 * 1024, 4);
+    private final ConcurrentMap<Locale, Map<String, MessageTemplate>> templatesByLocale = new ConcurrentHashMap<>();
+    
+    public TemplateRegistry(@Value("${notification.locale:en}") String locale) {
+        this.defaultLocale = Locale.forLanguageTag(locale);
+        
+        // Compile the default locale eagerly so template errors fail startup
+        Map<String, MessageTemplate> templates = templatesFor(defaultLocale);
+        logger.info("Compiled {} notification templates for locale {}", templates.size(), defaultLocale);
+    }
+    
+    public MessageTemplate get(String key) {
+        return get(key, defaultLocale);
+    }
+    
+    // A null locale means the recipient has none set
+    public MessageTemplate get(String key, Locale locale) {
+        MessageTemplate template = templatesFor(locale != null ? locale : defaultLocale).get(key);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown notification template: " + key);
+        }
+        return template;
+    }
+    
+    public StringBuilderPool getBuilderPool() { return builderPool; }
+    
+    private Map<String, MessageTemplate> templatesFor(Locale locale) {
+        return templatesByLocale.computeIfAbsent(locale, TemplateRegistry::compileBundle);
+    }
+    
+    private static Map<String, MessageTemplate> compileBundle(Locale locale) {
+        ResourceBundle bundle;
+        try {
+            bundle = ResourceBundle.getBundle(BUNDLE_NAME, locale);
+        } catch (MissingResourceException e) {
+            throw new IllegalStateException("Notification templates not found: " + BUNDLE_NAME, e);
+        }
+        
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        for (String key : bundle.keySet()) {
+            templates.put(key, MessageTemplate.compile(key, bundle.getString(key)));
+        }
+        return Collections.unmodifiableMap(templates);
+    }
+}
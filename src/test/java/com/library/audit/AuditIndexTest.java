@@ -0,0 +1,173 @@
+package com.library.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditIndexTest {
+    
+    // Two and a half blocks, timestamps 1000 apart starting at 1000
+    private static final int RECORDS = 2 * AuditIndex.BLOCK_RECORDS + AuditIndex.BLOCK_RECORDS / 2;
+    
+    @TempDir
+    Path directory;
+    
+    private AuditLog log;
+    
+    @AfterEach
+    void closeLog() throws Exception {
+        if (log != null) {
+            log.close();
+        }
+    }
+    
+    @Test
+    void tracksTimeRangesPerBlock() {
+        AuditIndex index = AuditIndex.build(segment(), RECORDS * AuditRecord.SIZE);
+        
+        assertEquals(RECORDS, index.getRecordCount());
+        assertEquals(3, index.getBlockCount());
+        assertTrue(index.overlaps(0, 1000));
+        assertTrue(index.overlaps(RECORDS * 1000L, Long.MAX_VALUE));
+        assertFalse(index.overlaps(0, 999));
+        assertFalse(index.overlaps(RECORDS * 1000L + 1, Long.MAX_VALUE));
+        
+        long firstOfSecondBlock = (AuditIndex.BLOCK_RECORDS + 1) * 1000L;
+        assertFalse(index.blockOverlaps(0, firstOfSecondBlock, firstOfSecondBlock));
+        assertTrue(index.blockOverlaps(1, firstOfSecondBlock, firstOfSecondBlock));
+        assertFalse(index.blockOverlaps(2, firstOfSecondBlock, firstOfSecondBlock));
+    }
+    
+    @Test
+    void bloomFiltersHaveNoFalseNegatives() {
+        AuditIndex index = AuditIndex.build(segment(), RECORDS * AuditRecord.SIZE);
+        
+        for (int i = 0; i < 100; i++) {
+            assertTrue(index.mightContainUsername(hash("user-" + i, null)), "user-" + i);
+        }
+        assertTrue(index.mightContainOperation(hash(null, "BORROW")));
+        assertTrue(index.mightContainOperation(hash(null, "RETURN")));
+        assertFalse(index.mightContainUsername(hash("mallory", null)));
+        assertFalse(index.mightContainOperation(hash(null, "DELETE")));
+    }
+    
+    @Test
+    void onlyIndexesTheUsedPartOfTheSegment() {
+        AuditIndex index = AuditIndex.build(segment(), 10 * AuditRecord.SIZE);
+        
+        assertEquals(10, index.getRecordCount());
+        assertEquals(1, index.getBlockCount());
+        assertFalse(index.overlaps(11_000, Long.MAX_VALUE));
+    }
+    
+    @Test
+    void anEmptySegmentOverlapsNothing() {
+        AuditIndex index = AuditIndex.build(ByteBuffer.allocate(AuditRecord.SIZE), 0);
+        
+        assertEquals(0, index.getBlockCount());
+        assertFalse(index.overlaps(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+    
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        AuditIndex built = AuditIndex.build(segment(), RECORDS * AuditRecord.SIZE);
+        Path path = directory.resolve("segment.idx");
+        built.write(path);
+        
+        AuditIndex read = AuditIndex.read(path);
+        
+        assertEquals(built.getRecordCount(), read.getRecordCount());
+        assertEquals(built.getBlockCount(), read.getBlockCount());
+        assertTrue(read.overlaps(0, 1000));
+        assertFalse(read.overlaps(0, 999));
+        assertTrue(read.blockOverlaps(2, RECORDS * 1000L, RECORDS * 1000L));
+        assertTrue(read.mightContainUsername(hash("user-7", null)));
+        assertFalse(read.mightContainUsername(hash("mallory", null)));
+        assertFalse(Files.exists(directory.resolve("segment.idx.tmp")));
+    }
+    
+    @Test
+    void rejectsFilesThatAreNotAnIndex() throws IOException {
+        Path path = directory.resolve("garbage.idx");
+        Files.write(path, new byte[64]);
+        
+        assertThrows(IOException.class, () -> AuditIndex.read(path));
+    }
+    
+    @Test
+    void searchFindsEveryMatchAcrossSealedAndActiveSegments() throws Exception {
+        log = new AuditLog(directory.toString(), 8L * AuditRecord.SIZE, 1024, 16, 10);
+        log.open();
+        for (int i = 0; i < 30; i++) {
+            log.append(AuditRecord.TYPE_BORROW, i % 3 == 0 ? "alice" : "bob", i % 2 == 0 ? "BORROW" : "RETURN",
+                       "book-" + i);
+        }
+        AuditSearcher searcher = new AuditSearcher(log);
+        drain();
+        
+        List<String> subjects = search(searcher, new AuditQuery("alice", "BORROW", 0, Long.MAX_VALUE, 100));
+        assertEquals(List.of("book-0", "book-6", "book-12", "book-18", "book-24"), subjects);
+        
+        assertEquals(List.of("book-0", "book-3"),
+                     search(searcher, new AuditQuery("alice", null, 0, Long.MAX_VALUE, 2)));
+        assertTrue(search(searcher, new AuditQuery("mallory", null, 0, Long.MAX_VALUE, 100)).isEmpty());
+        assertTrue(search(searcher, new AuditQuery(null, null, 0, 1, 100)).isEmpty());
+    }
+    
+    @Test
+    void searchScansSealedSegmentsWhoseIndexIsMissing() throws Exception {
+        log = new AuditLog(directory.toString(), 4L * AuditRecord.SIZE, 1024, 16, 10);
+        log.open();
+        for (int i = 0; i < 6; i++) {
+            log.append(AuditRecord.TYPE_USER, "carol", "LOGIN", "s-" + i);
+        }
+        AuditSearcher searcher = new AuditSearcher(log);
+        drain();
+        Files.delete(AuditSegments.indexPath(directory, 1));
+        
+        List<String> subjects = search(searcher, new AuditQuery("carol", null, 0, Long.MAX_VALUE, 100));
+        
+        assertEquals(List.of("s-0", "s-1", "s-2", "s-3", "s-4", "s-5"), subjects);
+    }
+    
+    // Closing drains the ring; the last write position stays published for the searcher
+    private void drain() throws InterruptedException {
+        log.close();
+        log = null;
+    }
+    
+    private static List<String> search(AuditSearcher searcher, AuditQuery query) throws IOException {
+        List<String> subjects = new ArrayList<>();
+        searcher.search(query, (segment, base) -> subjects.add(AuditRecord.subject(segment, base)));
+        return subjects;
+    }
+    
+    private static ByteBuffer segment() {
+        byte[] records = new byte[(RECORDS + 16) * AuditRecord.SIZE];
+        for (int i = 0; i < RECORDS; i++) {
+            AuditRecord.encode(records, i * AuditRecord.SIZE, (i + 1) * 1000L, AuditRecord.TYPE_BORROW,
+                               "user-" + (i % 100), i % 2 == 0 ? "BORROW" : "RETURN", "book-" + i);
+        }
+        return ByteBuffer.wrap(records);
+    }
+    
+    private static long hash(String username, String operation) {
+        byte[] record = new byte[AuditRecord.SIZE];
+        AuditRecord.encode(record, 0, 0, (byte) 0, username, operation, null);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        return username != null ? AuditRecord.fieldHash(buffer, AuditRecord.USERNAME_OFFSET)
+                                : AuditRecord.fieldHash(buffer, AuditRecord.OPERATION_OFFSET);
+    }
+}
@@ -0,0 +1,144 @@
+package com.library.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditLogTest {
+    
+    // Four records per segment
+    private static final long SEGMENT_BYTES = 4L * AuditRecord.SIZE;
+    
+    @TempDir
+    Path directory;
+    
+    private final List<AuditLog> opened = new ArrayList<>();
+    
+    @AfterEach
+    void closeLogs() throws Exception {
+        for (AuditLog log : opened) {
+            log.close();
+        }
+    }
+    
+    @Test
+    void writesRecordsInOrderAcrossSegments() throws Exception {
+        AuditLog log = open(1024);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(log.append(AuditRecord.TYPE_BORROW, "user-" + i, "BORROW", "book-" + i));
+        }
+        close(log);
+        
+        assertEquals(List.of("user-0", "user-1", "user-2", "user-3", "user-4", "user-5", "user-6", "user-7",
+                             "user-8", "user-9"), usernames());
+        List<Path> segments = AuditSegments.list(directory);
+        assertEquals(3, segments.size());
+        // Sealed segments are indexed as they are rotated out; the active one is not
+        assertTrue(Files.exists(AuditSegments.indexPath(directory, 1)));
+        assertTrue(Files.exists(AuditSegments.indexPath(directory, 2)));
+        assertFalse(Files.exists(AuditSegments.indexPath(directory, 3)));
+    }
+    
+    @Test
+    void appendsAfterExistingRecordsWhenReopened() throws Exception {
+        AuditLog first = open(1024);
+        first.append(AuditRecord.TYPE_USER, "a", "LOGIN", null);
+        first.append(AuditRecord.TYPE_USER, "b", "LOGIN", null);
+        close(first);
+        
+        AuditLog second = open(1024);
+        second.append(AuditRecord.TYPE_USER, "c", "LOGIN", null);
+        close(second);
+        
+        assertEquals(List.of("a", "b", "c"), usernames());
+    }
+    
+    @Test
+    void continuesAfterAFullSegmentWhenReopened() throws Exception {
+        AuditLog first = open(1024);
+        for (int i = 0; i < 4; i++) {
+            first.append(AuditRecord.TYPE_USER, "u" + i, "LOGIN", null);
+        }
+        close(first);
+        
+        AuditLog second = open(1024);
+        second.append(AuditRecord.TYPE_USER, "u4", "LOGIN", null);
+        close(second);
+        
+        assertEquals(List.of("u0", "u1", "u2", "u3", "u4"), usernames());
+    }
+    
+    @Test
+    void rebuildsMissingIndexesOnOpen() throws Exception {
+        AuditLog first = open(1024);
+        for (int i = 0; i < 6; i++) {
+            first.append(AuditRecord.TYPE_USER, "u" + i, "LOGIN", null);
+        }
+        close(first);
+        Path index = AuditSegments.indexPath(directory, 1);
+        Files.delete(index);
+        
+        open(1024);
+        
+        assertEquals(4, AuditIndex.read(index).getRecordCount());
+    }
+    
+    @Test
+    void dropsEventsInsteadOfBlockingWhenTheRingIsFull() throws Exception {
+        // Not opened yet, so nothing drains the ring
+        AuditLog log = new AuditLog(directory.toString(), SEGMENT_BYTES, 4, 16, 10);
+        int accepted = 0;
+        for (int i = 0; i < 6; i++) {
+            if (log.append(AuditRecord.TYPE_USER, "u" + i, "LOGIN", null)) {
+                accepted++;
+            }
+        }
+        
+        assertEquals(4, accepted);
+        assertEquals(2, log.getDroppedCount());
+        
+        log.open();
+        opened.add(log);
+        close(log);
+        assertEquals(List.of("u0", "u1", "u2", "u3"), usernames());
+    }
+    
+    private AuditLog open(int ringCapacity) throws IOException {
+        AuditLog log = new AuditLog(directory.toString(), SEGMENT_BYTES, ringCapacity, 16, 10);
+        log.open();
+        opened.add(log);
+        return log;
+    }
+    
+    // Closing drains the ring before it returns
+    private void close(AuditLog log) throws InterruptedException {
+        log.close();
+        opened.remove(log);
+    }
+    
+    private List<String> usernames() throws IOException {
+        List<String> usernames = new ArrayList<>();
+        for (Path path : AuditSegments.list(directory)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (int base = 0; base < AuditSegments.usedBytes(segment); base += AuditRecord.SIZE) {
+                    usernames.add(AuditRecord.username(segment, base));
+                }
+            }
+        }
+        return usernames;
+    }
+}
@@ -0,0 +1,108 @@
+package com.library.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditRecordTest {
+    
+    @Test
+    void decodesWhatWasEncoded() {
+        ByteBuffer record = encode(1_700_000_000_000L, AuditRecord.TYPE_BORROW, "alice", "BORROW", "Dune");
+        
+        assertEquals(1_700_000_000_000L, AuditRecord.timestamp(record, 0));
+        assertEquals(AuditRecord.TYPE_BORROW, AuditRecord.type(record, 0));
+        assertEquals("alice", AuditRecord.username(record, 0));
+        assertEquals("BORROW", AuditRecord.operation(record, 0));
+        assertEquals("Dune", AuditRecord.subject(record, 0));
+    }
+    
+    @Test
+    void keepsNullAndEmptyApart() {
+        ByteBuffer record = encode(1, AuditRecord.TYPE_USER, null, "", null);
+        
+        assertNull(AuditRecord.username(record, 0));
+        assertEquals("", AuditRecord.operation(record, 0));
+        assertNull(AuditRecord.subject(record, 0));
+        assertFalse(AuditRecord.fieldEquals(record, AuditRecord.USERNAME_OFFSET,
+                                            record, AuditRecord.OPERATION_OFFSET));
+    }
+    
+    @Test
+    void encodesRecordsAtAnOffsetWithoutTouchingNeighbours() {
+        byte[] slots = new byte[3 * AuditRecord.SIZE];
+        AuditRecord.encode(slots, 0, 1, AuditRecord.TYPE_USER, "first", "LOGIN", "a");
+        AuditRecord.encode(slots, 2 * AuditRecord.SIZE, 3, AuditRecord.TYPE_SECURITY, "third", "LOCK", "c");
+        AuditRecord.encode(slots, AuditRecord.SIZE, 2, AuditRecord.TYPE_BORROW, "second", "RETURN", "b");
+        ByteBuffer buffer = ByteBuffer.wrap(slots);
+        
+        assertEquals("first", AuditRecord.username(buffer, 0));
+        assertEquals("second", AuditRecord.username(buffer, AuditRecord.SIZE));
+        assertEquals("third", AuditRecord.username(buffer, 2 * AuditRecord.SIZE));
+        assertEquals(3, AuditRecord.timestamp(buffer, 2 * AuditRecord.SIZE));
+    }
+    
+    @Test
+    void encodesMultiByteCharacters() {
+        String subject = "Ærø — 漢字 📚";
+        ByteBuffer record = encode(1, AuditRecord.TYPE_BORROW, "zoë", "BORROW", subject);
+        
+        assertEquals("zoë", AuditRecord.username(record, 0));
+        assertEquals(subject, AuditRecord.subject(record, 0));
+    }
+    
+    @Test
+    void truncatesLongValuesAtACharacterBoundary() {
+        // 47 ASCII bytes leave one byte, too few for the two-byte é
+        String username = "a".repeat(AuditRecord.USERNAME_MAX - 1) + "é";
+        ByteBuffer record = encode(1, AuditRecord.TYPE_USER, username, "x".repeat(100), "📚".repeat(100));
+        
+        assertEquals("a".repeat(AuditRecord.USERNAME_MAX - 1), AuditRecord.username(record, 0));
+        assertEquals("x".repeat(AuditRecord.OPERATION_MAX), AuditRecord.operation(record, 0));
+        String subject = AuditRecord.subject(record, 0);
+        assertEquals("📚".repeat(AuditRecord.SUBJECT_MAX / 4), subject);
+        assertTrue(subject.getBytes(StandardCharsets.UTF_8).length <= AuditRecord.SUBJECT_MAX);
+    }
+    
+    @Test
+    void replacesLoneSurrogates() {
+        ByteBuffer record = encode(1, AuditRecord.TYPE_USER, "a\uD800b", null, null);
+        
+        assertEquals("a?b", AuditRecord.username(record, 0));
+    }
+    
+    @Test
+    void equalFieldsHashAlike() {
+        ByteBuffer first = encode(1, AuditRecord.TYPE_USER, "alice", "LOGIN", null);
+        ByteBuffer second = encode(2, AuditRecord.TYPE_BORROW, "alice", "BORROW", "Dune");
+        
+        assertTrue(AuditRecord.fieldEquals(first, AuditRecord.USERNAME_OFFSET, second, AuditRecord.USERNAME_OFFSET));
+        assertEquals(AuditRecord.fieldHash(first, AuditRecord.USERNAME_OFFSET),
+                     AuditRecord.fieldHash(second, AuditRecord.USERNAME_OFFSET));
+        assertFalse(AuditRecord.fieldEquals(first, AuditRecord.OPERATION_OFFSET,
+                                            second, AuditRecord.OPERATION_OFFSET));
+        assertNotEquals(AuditRecord.fieldHash(first, AuditRecord.OPERATION_OFFSET),
+                        AuditRecord.fieldHash(second, AuditRecord.OPERATION_OFFSET));
+    }
+    
+    @Test
+    void namesTypes() {
+        assertEquals("BORROW", AuditRecord.typeName(AuditRecord.TYPE_BORROW));
+        assertEquals("USER", AuditRecord.typeName(AuditRecord.TYPE_USER));
+        assertEquals("SECURITY", AuditRecord.typeName(AuditRecord.TYPE_SECURITY));
+        assertEquals("UNKNOWN", AuditRecord.typeName((byte) 42));
+    }
+    
+    private static ByteBuffer encode(long timestamp, byte type, String username, String operation, String subject) {
+        byte[] record = new byte[AuditRecord.SIZE];
+        AuditRecord.encode(record, 0, timestamp, type, username, operation, subject);
+        return ByteBuffer.wrap(record);
+    }
+}
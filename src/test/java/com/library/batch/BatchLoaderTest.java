@@ -0,0 +1,70 @@
+package com.library.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTest {
+    
+    private final List<List<Long>> batches = new ArrayList<>();
+    
+    @Test
+    void returnsValuesInFirstRequestedOrderWithoutDuplicates() {
+        BatchLoader<Long, String> loader = loader(10);
+        
+        List<String> values = loader.getMany(List.of(3L, 1L, 3L, 2L, 1L));
+        
+        assertEquals(List.of("book-3", "book-1", "book-2"), values);
+        assertEquals(List.of(List.of(3L, 1L, 2L)), batches);
+    }
+    
+    @Test
+    void leavesOutIdsWithoutAValue() {
+        BatchLoader<Long, String> loader = loader(10);
+        
+        assertEquals(List.of("book-1", "book-4"), loader.getMany(List.of(1L, 404L, 4L)));
+    }
+    
+    @Test
+    void splitsLargeRequestsIntoBoundedBatches() {
+        BatchLoader<Long, String> loader = loader(2);
+        
+        List<String> values = loader.getMany(List.of(1L, 2L, 3L, 4L, 5L));
+        
+        assertEquals(5, values.size());
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)), batches);
+    }
+    
+    @Test
+    void makesNoCallForAnEmptyRequest() {
+        assertTrue(loader(10).getMany(List.of()).isEmpty());
+        assertTrue(batches.isEmpty());
+    }
+    
+    @Test
+    void rejectsANonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> loader(0));
+    }
+    
+    // Stands in for findAllById: ids above 100 do not exist, and results come back unordered
+    private BatchLoader<Long, String> loader(int maxBatchSize) {
+        return new BatchLoader<>(this::findAllById, value -> Long.valueOf(value.substring(5)), maxBatchSize);
+    }
+    
+    private List<String> findAllById(Collection<Long> ids) {
+        batches.add(List.copyOf(ids));
+        List<String> found = new ArrayList<>();
+        for (Long id : ids) {
+            if (id <= 100) {
+                found.add(0, "book-" + id);
+            }
+        }
+        return found;
+    }
+}
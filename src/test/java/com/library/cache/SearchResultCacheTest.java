@@ -0,0 +1,76 @@
+package com.library.cache;
+
+import com.library.event.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SearchResultCacheTest {
+    
+    private final SearchResultCache cache = new SearchResultCache(true, 100, 60000, new SimpleMeterRegistry());
+    
+    @Test
+    void servesResultsAcrossBorrowsWhenSortedOnTitle() {
+        SearchResultCache.Key key = key("title");
+        cache.put(key, cache.version(), List.of(3L, 1L), 2, 1000);
+        
+        cache.onBookChanged(BookChangedEvent.availabilityOf(1L));
+        
+        SearchResultCache.Result result = cache.get(key, cache.version());
+        assertNotNull(result);
+        assertEquals(List.of(3L, 1L), result.getIds());
+        assertEquals(2, result.getTotal());
+    }
+    
+    @Test
+    void doesNotCacheSearchesSortedOnAvailability() {
+        for (String property : List.of("availableCopies", "status", "updatedAt")) {
+            SearchResultCache.Key key = key(property);
+            cache.put(key, cache.version(), List.of(1L), 1, 1000);
+            
+            assertNull(cache.get(key, cache.version()), property);
+        }
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void catalogWritesInvalidateEveryEntry() {
+        SearchResultCache.Key key = key("title");
+        cache.put(key, cache.version(), List.of(1L), 1, 1000);
+        
+        cache.onBookChanged(BookChangedEvent.of(7L));
+        
+        assertNull(cache.get(key, cache.version()));
+    }
+    
+    @Test
+    void dropsResultsComputedBeforeAWrite() {
+        SearchResultCache.Key key = key("title");
+        long version = cache.version();
+        
+        cache.onBookChanged(BookChangedEvent.allBooks());
+        cache.put(key, version, List.of(1L), 1, 1000);
+        
+        assertNull(cache.get(key, cache.version()));
+    }
+    
+    @Test
+    void textFiltersAreMatchedIgnoringCase() {
+        PageRequest page = PageRequest.of(0, 20, Sort.by("title"));
+        cache.put(SearchResultCache.key("Dune", null, "Herbert", null, null, page), cache.version(),
+                  List.of(1L), 1, 1000);
+        
+        assertNotNull(cache.get(SearchResultCache.key("dune", null, "HERBERT", null, null, page), cache.version()));
+    }
+    
+    private static SearchResultCache.Key key(String sortBy) {
+        return SearchResultCache.key("dune", null, null, null, null, PageRequest.of(0, 20, Sort.by(sortBy)));
+    }
+}
@@ -0,0 +1,183 @@
+package com.library.catalog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.library.catalog.OffHeapBookStoreTest.assertSameBook;
+import static com.library.catalog.OffHeapBookStoreTest.book;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogSnapshotTest {
+    
+    // Small arenas so the snapshot spans several chunks
+    private static final int ARENA_BYTES = 1024;
+    private static final int BOOKS = 100;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void restoresWhatWasWritten() throws IOException {
+        OffHeapBookStore source = populatedStore();
+        CatalogSnapshot snapshot = snapshot();
+        snapshot.write(source, 1_700_000_000_000L);
+        
+        OffHeapBookStore restored = store(ARENA_BYTES);
+        
+        assertEquals(1_700_000_000_000L, snapshot.restore(restored));
+        assertEquals(BOOKS, restored.size());
+        for (long id = 1; id <= BOOKS; id++) {
+            assertSameBook(source.get(id), restored.get(id));
+            assertEquals(id, restored.findIdByIsbnKey(Isbns.key(isbn(id))));
+        }
+        assertFalse(Files.exists(directory.resolve("catalog.snapshot.tmp")));
+    }
+    
+    @Test
+    void restoredStoreAcceptsUpdatesAndNewBooks() throws IOException {
+        CatalogSnapshot snapshot = snapshot();
+        snapshot.write(populatedStore(), 1);
+        OffHeapBookStore restored = store(ARENA_BYTES);
+        snapshot.restore(restored);
+        String longTitle = "A title long enough that the record no longer fits its mapped slot";
+        
+        restored.put(book(1, 2, isbn(1), "Retitled"));
+        restored.put(book(2, 2, isbn(2), longTitle));
+        restored.put(book(BOOKS + 1, 1, isbn(BOOKS + 1), "New"));
+        restored.remove(3);
+        
+        assertEquals("Retitled", restored.get(1).getTitle());
+        assertEquals(longTitle, restored.get(2).getTitle());
+        assertEquals("New", restored.get(BOOKS + 1).getTitle());
+        assertNull(restored.get(3));
+        assertNull(restored.findIdByIsbnKey(Isbns.key(isbn(3))));
+        assertEquals(BOOKS, restored.size());
+    }
+    
+    @Test
+    void aNewSnapshotReplacesThePreviousOne() throws IOException {
+        OffHeapBookStore source = populatedStore();
+        CatalogSnapshot snapshot = snapshot();
+        snapshot.write(source, 1);
+        source.remove(1);
+        source.put(book(2, 2, isbn(2), "Second edition"));
+        snapshot.write(source, 2);
+        
+        OffHeapBookStore restored = store(ARENA_BYTES);
+        
+        assertEquals(2, snapshot.restore(restored));
+        assertEquals(BOOKS - 1, restored.size());
+        assertNull(restored.get(1));
+        assertEquals("Second edition", restored.get(2).getTitle());
+    }
+    
+    @Test
+    void snapshotsAnEmptyStore() throws IOException {
+        CatalogSnapshot snapshot = snapshot();
+        snapshot.write(store(ARENA_BYTES), 5);
+        OffHeapBookStore restored = store(ARENA_BYTES);
+        
+        assertEquals(5, snapshot.restore(restored));
+        assertEquals(0, restored.size());
+        restored.put(book(1, 1, isbn(1), "First"));
+        assertEquals("First", restored.get(1).getTitle());
+    }
+    
+    @Test
+    void ignoresAMissingSnapshot() {
+        OffHeapBookStore store = store(ARENA_BYTES);
+        
+        assertEquals(-1, snapshot().restore(store));
+    }
+    
+    @Test
+    void ignoresASnapshotWrittenWithAnotherArenaSize() throws IOException {
+        CatalogSnapshot snapshot = snapshot();
+        snapshot.write(populatedStore(), 1);
+        OffHeapBookStore store = store(2 * ARENA_BYTES);
+        store.put(book(1, 1, isbn(1), "Untouched"));
+        
+        assertEquals(-1, snapshot.restore(store));
+        assertEquals(1, store.size());
+        assertEquals("Untouched", store.get(1).getTitle());
+    }
+    
+    @Test
+    void ignoresFilesThatAreNotASnapshot() throws IOException {
+        Files.write(directory.resolve("catalog.snapshot"), new byte[256]);
+        OffHeapBookStore store = store(ARENA_BYTES);
+        
+        assertEquals(-1, snapshot().restore(store));
+        assertEquals(0, store.size());
+    }
+    
+    @Test
+    void indexTablesReadBackAsWritten() throws IOException {
+        LongOffsetIndex index = new LongOffsetIndex(4);
+        for (long key = 1; key <= 1_000; key++) {
+            index.put(key * 7, key << 32 | key);
+        }
+        index.remove(7);
+        Path path = directory.resolve("index");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            index.writeTo(channel);
+        }
+        
+        LongOffsetIndex read = LongOffsetIndex.readFrom(ByteBuffer.wrap(Files.readAllBytes(path)));
+        
+        assertEquals(999, read.size());
+        assertEquals(LongOffsetIndex.MISSING, read.get(7));
+        for (long key = 2; key <= 1_000; key++) {
+            assertEquals(key << 32 | key, read.get(key * 7));
+        }
+        read.put(7, 1);
+        assertEquals(1, read.get(7));
+    }
+    
+    @Test
+    void rejectsCorruptIndexHeaders() {
+        ByteBuffer notAPowerOfTwo = ByteBuffer.allocate(64).putInt(12).putInt(1).flip();
+        ByteBuffer oversized = ByteBuffer.allocate(64).putInt(4).putInt(5).flip();
+        
+        assertThrows(IllegalStateException.class, () -> LongOffsetIndex.readFrom(notAPowerOfTwo));
+        assertThrows(IllegalStateException.class, () -> LongOffsetIndex.readFrom(oversized));
+    }
+    
+    private CatalogSnapshot snapshot() {
+        return new CatalogSnapshot(directory.resolve("catalog.snapshot").toString(), true);
+    }
+    
+    private static OffHeapBookStore populatedStore() {
+        OffHeapBookStore store = store(ARENA_BYTES);
+        for (long id = 1; id <= BOOKS; id++) {
+            store.put(book(id, 1, isbn(id), "Title " + id));
+        }
+        return store;
+    }
+    
+    private static OffHeapBookStore store(int arenaBytes) {
+        return new OffHeapBookStore(arenaBytes, 16, new SimpleMeterRegistry());
+    }
+    
+    // Valid ISBN-13s with the check digit computed, so every book has an ISBN key
+    private static String isbn(long id) {
+        String digits = String.format("978%09d", id);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = digits.charAt(i) - '0';
+            sum += i % 2 == 0 ? digit : 3 * digit;
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,99 @@
+package com.library.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongOffsetIndexTest {
+    
+    @Test
+    void returnsWhatWasPut() {
+        LongOffsetIndex index = new LongOffsetIndex(4);
+        
+        assertEquals(LongOffsetIndex.MISSING, index.put(7, 70));
+        assertEquals(70, index.put(7, 71));
+        assertEquals(71, index.get(7));
+        assertEquals(LongOffsetIndex.MISSING, index.get(8));
+        assertEquals(1, index.size());
+    }
+    
+    @Test
+    void growsPastItsExpectedSize() {
+        LongOffsetIndex index = new LongOffsetIndex(4);
+        long initialBytes = index.memoryBytes();
+        for (long key = 1; key <= 10_000; key++) {
+            index.put(key, key * 10);
+        }
+        
+        assertEquals(10_000, index.size());
+        assertTrue(index.memoryBytes() > initialBytes);
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals(key * 10, index.get(key));
+        }
+    }
+    
+    @Test
+    void keepsProbeRunsIntactWhenRemoving() {
+        // Dense enough that most entries sit in probe runs shared with other keys
+        LongOffsetIndex index = new LongOffsetIndex(16);
+        for (long key = 1; key <= 5_000; key++) {
+            index.put(key * 31, key);
+        }
+        for (long key = 1; key <= 5_000; key += 2) {
+            assertEquals(key, index.remove(key * 31));
+        }
+        
+        assertEquals(2_500, index.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(key % 2 == 0 ? key : LongOffsetIndex.MISSING, index.get(key * 31));
+        }
+        assertEquals(LongOffsetIndex.MISSING, index.remove(31));
+    }
+    
+    @Test
+    void rejectsKeysThatAreNotPositive() {
+        LongOffsetIndex index = new LongOffsetIndex(4);
+        
+        assertThrows(IllegalArgumentException.class, () -> index.put(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.put(-5, 1));
+        assertEquals(LongOffsetIndex.MISSING, index.get(0));
+        assertEquals(LongOffsetIndex.MISSING, index.remove(-5));
+    }
+    
+    @Test
+    void replacesValuesAndListsKeys() {
+        LongOffsetIndex index = new LongOffsetIndex(4);
+        index.put(3, 30);
+        index.put(1, 10);
+        index.put(2, 20);
+        
+        index.replaceValues((key, value) -> value + key);
+        long[] keys = index.keys();
+        Arrays.sort(keys);
+        
+        assertArrayEquals(new long[] {1, 2, 3}, keys);
+        assertEquals(11, index.get(1));
+        assertEquals(33, index.get(3));
+    }
+    
+    @Test
+    void clearEmptiesTheIndex() {
+        LongOffsetIndex index = new LongOffsetIndex(4);
+        for (long key = 1; key <= 100; key++) {
+            index.put(key, key);
+        }
+        
+        index.clear();
+        
+        assertEquals(0, index.size());
+        assertEquals(0, index.keys().length);
+        assertEquals(LongOffsetIndex.MISSING, index.get(50));
+        index.put(50, 5);
+        assertEquals(5, index.get(50));
+    }
+}
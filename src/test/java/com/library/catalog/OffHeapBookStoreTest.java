@@ -0,0 +1,148 @@
+package com.library.catalog;
+
+import com.library.dto.response.BookSummary;
+import com.library.entity.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapBookStoreTest {
+    
+    // Room for a dozen or so small records per arena
+    private static final int ARENA_BYTES = 1024;
+    
+    private final OffHeapBookStore store = new OffHeapBookStore(ARENA_BYTES, 16, new SimpleMeterRegistry());
+    
+    @Test
+    void decodesWhatWasPut() {
+        BookSummary book = new BookSummary(1L, 3L, "9780134685991", "Effective Java — 3ᵉ édition", 4L,
+                                           List.of(10L, 11L), 5, 2, Book.BookStatus.AVAILABLE);
+        store.put(book);
+        
+        assertSameBook(book, store.get(1));
+        assertEquals(1L, store.findIdByIsbnKey(Isbns.key("9780134685991")));
+        assertEquals(1, store.size());
+        assertNull(store.get(2));
+    }
+    
+    @Test
+    void keepsAbsentValuesAbsent() {
+        store.put(new BookSummary(1L, null, "not an isbn", "", null, List.of(), null, null,
+                                  Book.BookStatus.MAINTENANCE));
+        
+        BookSummary stored = store.get(1);
+        assertEquals(0L, stored.getVersion());
+        assertNull(stored.getCategoryId());
+        assertEquals("not an isbn", stored.getIsbn());
+        assertEquals("", stored.getTitle());
+        assertTrue(stored.getAuthorIds().isEmpty());
+        assertEquals(0, stored.getTotalCopies());
+    }
+    
+    @Test
+    void ignoresOlderVersions() {
+        store.put(book(1, 5, "9780000000002", "Current"));
+        store.put(book(1, 4, "9780000000002", "Stale"));
+        
+        assertEquals("Current", store.get(1).getTitle());
+        assertEquals(5L, store.get(1).getVersion());
+    }
+    
+    @Test
+    void movesRecordsThatOutgrowTheirSlot() {
+        store.put(book(1, 1, "9780000000002", "Short"));
+        store.put(book(2, 1, "9780000000019", "Neighbour"));
+        String longTitle = "A considerably longer title than the record was first written with";
+        
+        store.put(book(1, 2, "9780000000002", longTitle));
+        
+        assertEquals(longTitle, store.get(1).getTitle());
+        assertEquals("Neighbour", store.get(2).getTitle());
+        assertEquals(1L, store.findIdByIsbnKey(Isbns.key("9780000000002")));
+    }
+    
+    @Test
+    void followsIsbnChanges() {
+        store.put(book(1, 1, "9780000000002", "Title"));
+        store.put(book(1, 2, "9780000000019", "Title"));
+        
+        assertNull(store.findIdByIsbnKey(Isbns.key("9780000000002")));
+        assertEquals(1L, store.findIdByIsbnKey(Isbns.key("9780000000019")));
+    }
+    
+    @Test
+    void removingABookDropsItsIsbnUnlessAnotherBookTookItOver() {
+        store.put(book(1, 1, "9780000000002", "First"));
+        store.put(book(2, 1, "9780000000002", "Second"));
+        
+        store.remove(1);
+        
+        assertNull(store.get(1));
+        assertEquals(2L, store.findIdByIsbnKey(Isbns.key("9780000000002")));
+        store.remove(2);
+        assertNull(store.findIdByIsbnKey(Isbns.key("9780000000002")));
+        assertEquals(0, store.size());
+        store.remove(3);
+    }
+    
+    @Test
+    void compactsOnceMostSpaceIsDead() {
+        for (long id = 1; id <= 200; id++) {
+            store.put(book(id, 1, null, "Title " + id));
+        }
+        long allocated = store.getAllocatedBytes();
+        for (long id = 1; id <= 200; id++) {
+            if (id % 10 != 0) {
+                store.remove(id);
+            }
+        }
+        
+        assertTrue(store.getAllocatedBytes() < allocated);
+        assertEquals(20, store.size());
+        for (long id = 10; id <= 200; id += 10) {
+            assertEquals("Title " + id, store.get(id).getTitle());
+        }
+    }
+    
+    @Test
+    void rejectsRecordsLargerThanAnArena() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> store.put(book(1, 1, "9780000000002", "x".repeat(ARENA_BYTES))));
+        assertNull(store.get(1));
+    }
+    
+    @Test
+    void clearDropsEverything() {
+        store.put(book(1, 1, "9780000000002", "Title"));
+        
+        store.clear();
+        
+        assertEquals(0, store.size());
+        assertEquals(0, store.getAllocatedBytes());
+        assertNull(store.get(1));
+        assertNull(store.findIdByIsbnKey(Isbns.key("9780000000002")));
+    }
+    
+    static BookSummary book(long id, long version, String isbn, String title) {
+        return new BookSummary(id, version, isbn != null ? isbn : "", title, 1L, List.of(id + 100), 3, 1,
+                               Book.BookStatus.AVAILABLE);
+    }
+    
+    static void assertSameBook(BookSummary expected, BookSummary actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.getIsbn(), actual.getIsbn());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getCategoryId(), actual.getCategoryId());
+        assertEquals(expected.getAuthorIds(), actual.getAuthorIds());
+        assertEquals(expected.getTotalCopies(), actual.getTotalCopies());
+        assertEquals(expected.getAvailableCopies(), actual.getAvailableCopies());
+        assertEquals(expected.getStatus(), actual.getStatus());
+    }
+}
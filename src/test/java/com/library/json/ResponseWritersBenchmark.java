@@ -0,0 +1,79 @@
+package com.library.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.library.dto.response.ApiResponse;
+import com.library.dto.response.BookResponse;
+import com.library.dto.response.BorrowRecordResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the hand-written writers with Jackson's reflective serializers on the list responses they
+ * were written for: throughput and bytes allocated per response, streaming into a discarding output
+ * stream as MVC streams into the servlet output stream. Not part of the test run; start it with
+ * {@code main}, optionally passing the measured iterations.
+ */
+public final class ResponseWritersBenchmark {
+    
+    private static final int WARMUP_ITERATIONS = 20_000;
+    
+    private ResponseWritersBenchmark() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        
+        List<BookResponse> books = new ArrayList<>();
+        List<BorrowRecordResponse> records = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            books.add(ResponseWritersFixtures.book(i));
+            records.add(ResponseWritersFixtures.borrowRecord(i));
+        }
+        
+        ObjectMapper reflective = ResponseWritersTest.objectMapper();
+        ObjectMapper writers = ResponseWritersTest.objectMapper().registerModule(new ResponseWritersModule());
+        
+        System.out.printf("%-28s %-10s %12s %14s%n", "payload", "serializer", "ops/s", "bytes/op");
+        run("50 BookResponse", ApiResponse.success(books), reflective, writers, iterations);
+        run("50 BorrowRecordResponse", ApiResponse.success(records), reflective, writers, iterations);
+    }
+    
+    private static void run(String payload, Object value, ObjectMapper reflective, ObjectMapper writers,
+                            int iterations) throws IOException {
+        // The stream is reused across iterations, as the servlet output stream is left open by MVC
+        ObjectWriter reflectiveWriter = reflective.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        ObjectWriter handWritten = writers.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        measure(reflectiveWriter, value, WARMUP_ITERATIONS);
+        measure(handWritten, value, WARMUP_ITERATIONS);
+        
+        report(payload, "reflective", measure(reflectiveWriter, value, iterations), iterations);
+        report(payload, "writers", measure(handWritten, value, iterations), iterations);
+    }
+    
+    // Returns elapsed nanoseconds and allocated bytes
+    private static long[] measure(ObjectWriter writer, Object value, int iterations) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        OutputStream out = OutputStream.nullOutputStream();
+        
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            writer.writeValue(out, value);
+        }
+        long elapsed = System.nanoTime() - start;
+        return new long[] {elapsed, threads.getThreadAllocatedBytes(thread) - allocatedBefore};
+    }
+    
+    private static void report(String payload, String serializer, long[] result, int iterations) {
+        System.out.printf("%-28s %-10s %,12.0f %,14d%n", payload, serializer, iterations / (result[0] / 1e9),
+                          result[1] / iterations);
+    }
+}
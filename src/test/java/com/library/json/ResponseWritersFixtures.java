@@ -0,0 +1,48 @@
+package com.library.json;
+
+import com.library.dto.response.BookResponse;
+import com.library.dto.response.BorrowRecordResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+final class ResponseWritersFixtures {
+    
+    private ResponseWritersFixtures() {
+    }
+    
+    static BookResponse book(long id) {
+        BookResponse book = new BookResponse();
+        book.setId(id);
+        book.setIsbn("978-0-13-468599-" + (id % 10));
+        book.setTitle("Effective Java, volume " + id);
+        book.setDescription("Best practices for the Java platform, with \"quoted\" text and ünïcode");
+        book.setCategoryName("Programming");
+        book.setAuthors(List.of("Joshua Bloch", "Second Author"));
+        book.setPublicationYear(2018);
+        book.setPublisher("Addison-Wesley");
+        book.setTotalCopies(5);
+        book.setAvailableCopies(2);
+        book.setLocation("Shelf A-" + id);
+        book.setStatus("AVAILABLE");
+        return book;
+    }
+    
+    static BorrowRecordResponse borrowRecord(long id) {
+        BorrowRecordResponse record = new BorrowRecordResponse();
+        record.setId(id);
+        record.setBookId(10 + id);
+        record.setBookTitle("Effective Java, volume " + id);
+        record.setBookIsbn("978-0-13-468599-1");
+        record.setPatronId(7L);
+        record.setPatronLibraryCardNumber("LC-0007");
+        record.setPatronName("ada");
+        record.setBorrowDate(LocalDate.of(2025, 3, 1));
+        record.setDueDate(LocalDate.of(2025, 3, 15));
+        record.setReturnDate(null);
+        record.setStatus("OVERDUE");
+        record.setFineAmount(1.5);
+        record.setDaysOverdue(3L);
+        return record;
+    }
+}
@@ -0,0 +1,76 @@
+package com.library.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.dto.response.ApiResponse;
+import com.library.dto.response.BookResponse;
+import com.library.dto.response.BorrowRecordResponse;
+import com.library.dto.response.CategoryResponse;
+import com.library.dto.response.PatronResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResponseWritersTest {
+    
+    private final ObjectMapper reflective = objectMapper();
+    private final ObjectMapper writers = objectMapper().registerModule(new ResponseWritersModule());
+    
+    @Test
+    void bookMatchesReflectiveOutput() throws Exception {
+        assertSameJson(ResponseWritersFixtures.book(1));
+        assertSameJson(new BookResponse());
+    }
+    
+    @Test
+    void borrowRecordMatchesReflectiveOutput() throws Exception {
+        assertSameJson(ResponseWritersFixtures.borrowRecord(1));
+        assertSameJson(new BorrowRecordResponse());
+    }
+    
+    @Test
+    void patronMatchesReflectiveOutput() throws Exception {
+        PatronResponse patron = new PatronResponse();
+        patron.setId(3L);
+        patron.setLibraryCardNumber("LC-0003");
+        patron.setUsername("ada");
+        patron.setEmail("ada@example.org");
+        patron.setMembershipDate(LocalDate.of(2024, 2, 29));
+        patron.setStatus("ACTIVE");
+        assertSameJson(patron);
+        assertSameJson(new PatronResponse());
+    }
+    
+    @Test
+    void categoryMatchesReflectiveOutput() throws Exception {
+        CategoryResponse category = new CategoryResponse();
+        category.setId(4L);
+        category.setName("Science \"Fiction\"");
+        category.setDescription("Line one\nline two");
+        category.setCreatedAt(LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+        category.setUpdatedAt(LocalDateTime.of(2025, 1, 2, 3, 4, 5, 600_000_000));
+        assertSameJson(category);
+        assertSameJson(new CategoryResponse());
+    }
+    
+    @Test
+    void listsInsideTheEnvelopeMatchReflectiveOutput() throws Exception {
+        assertSameJson(ApiResponse.success(List.of(ResponseWritersFixtures.book(1), ResponseWritersFixtures.book(2))));
+    }
+    
+    private void assertSameJson(Object value) throws Exception {
+        assertEquals(reflective.writeValueAsString(value), writers.writeValueAsString(value));
+    }
+    
+    // What Spring Boot configures for MVC, minus the writers
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                                          .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                                          .build();
+    }
+}
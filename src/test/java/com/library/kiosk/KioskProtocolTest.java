@@ -0,0 +1,77 @@
+package com.library.kiosk;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KioskProtocolTest {
+    
+    @Test
+    void readsBackWhatWasWritten() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        KioskProtocol.writeString(buffer, "Zoë's card", 100);
+        KioskProtocol.writeString(buffer, "", 100);
+        buffer.flip();
+        
+        assertEquals("Zoë's card", KioskProtocol.readString(buffer));
+        assertEquals("", KioskProtocol.readString(buffer));
+        assertEquals(0, buffer.remaining());
+    }
+    
+    @Test
+    void writesNullAsEmpty() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        KioskProtocol.writeString(buffer, null, 100);
+        buffer.flip();
+        
+        assertEquals(2, buffer.remaining());
+        assertEquals("", KioskProtocol.readString(buffer));
+    }
+    
+    @Test
+    void cutsLongStringsOnACharacterBoundary() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        // Three two-byte characters; five bytes would split the last one
+        KioskProtocol.writeString(buffer, "ééé", 5);
+        KioskProtocol.writeString(buffer, "abcdef", 4);
+        buffer.flip();
+        
+        assertEquals("éé", KioskProtocol.readString(buffer));
+        assertEquals("abcd", KioskProtocol.readString(buffer));
+    }
+    
+    @Test
+    void readsStringsInsideALargerMessage() {
+        byte[] message = new byte[16];
+        message[4] = 2;
+        message[5] = 'o';
+        message[6] = 'k';
+        ByteBuffer buffer = ByteBuffer.wrap(message, 1, 15).slice();
+        buffer.position(2);
+        
+        assertEquals("ok", KioskProtocol.readString(buffer));
+        assertEquals(6, buffer.position());
+    }
+    
+    @Test
+    void rejectsLengthsPastTheEndOfTheMessage() {
+        ByteBuffer buffer = ByteBuffer.allocate(5).putShort((short) 10).put("abc".getBytes(StandardCharsets.UTF_8));
+        buffer.flip();
+        
+        assertThrows(BufferUnderflowException.class, () -> KioskProtocol.readString(buffer));
+    }
+    
+    @Test
+    void refusesToWritePastTheBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        
+        assertThrows(BufferOverflowException.class, () -> KioskProtocol.writeString(buffer, "abc", 100));
+        assertEquals(0, buffer.position());
+    }
+}
@@ -0,0 +1,272 @@
+package com.library.kiosk;
+
+import com.library.dto.request.BorrowRequest;
+import com.library.entity.Book;
+import com.library.entity.BorrowRecord;
+import com.library.entity.Patron;
+import com.library.exception.BusinessRuleException;
+import com.library.exception.ResourceNotFoundException;
+import com.library.service.BorrowService;
+import com.library.service.PatronService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KioskServiceTest {
+    
+    private static final LocalDate DUE = LocalDate.of(2030, 1, 15);
+    
+    private final FakePatronService patronService = new FakePatronService();
+    private final FakeBorrowService borrowService = new FakeBorrowService();
+    private final KioskService kioskService = new KioskService(patronService, borrowService, 4);
+    
+    @Test
+    void looksUpACardWithItsLoans() throws IOException {
+        borrowService.loans.add(loan(100, 7, LocalDate.of(2000, 1, 1), "Overdue book"));
+        borrowService.loans.add(loan(101, 8, DUE, "é".repeat(100)));
+        
+        ByteBuffer response = single(request(KioskProtocol.OP_CARD_LOOKUP).writeString("LC-0042"));
+        
+        assertEquals(KioskProtocol.STATUS_OK, response.get());
+        assertEquals(42, response.getLong());
+        assertEquals(Patron.PatronStatus.ACTIVE.ordinal(), response.get());
+        assertEquals(2, response.get());
+        
+        assertEquals(100, response.getLong());
+        assertEquals(7, response.getLong());
+        assertEquals((int) LocalDate.of(2000, 1, 1).toEpochDay(), response.getInt());
+        assertEquals(1, response.get());
+        assertEquals("Overdue book", KioskProtocol.readString(response));
+        
+        assertEquals(101, response.getLong());
+        assertEquals(8, response.getLong());
+        assertEquals((int) DUE.toEpochDay(), response.getInt());
+        assertEquals(0, response.get());
+        // Titles are cut to 120 bytes
+        assertEquals("é".repeat(60), KioskProtocol.readString(response));
+        assertEquals(0, response.remaining());
+        assertEquals("LC-0042", patronService.lastCardNumber);
+    }
+    
+    @Test
+    void encodesBorrowReturnAndRenew() throws IOException {
+        byte[] body = body(request(KioskProtocol.OP_BORROW).putLong(9).putLong(7),
+                           request(KioskProtocol.OP_RETURN).putLong(100),
+                           request(KioskProtocol.OP_RENEW).putLong(101));
+        
+        List<ByteBuffer> responses = responses(kioskService.process(new ByteArrayInputStream(body)));
+        
+        assertEquals(3, responses.size());
+        ByteBuffer borrow = responses.get(0);
+        assertEquals(KioskProtocol.STATUS_OK, borrow.get());
+        assertEquals(500, borrow.getLong());
+        assertEquals((int) DUE.toEpochDay(), borrow.getInt());
+        assertEquals(7L, borrowService.lastBorrow.getBookId());
+        assertEquals(9L, borrowService.lastBorrow.getPatronId());
+        
+        ByteBuffer returned = responses.get(1);
+        assertEquals(KioskProtocol.STATUS_OK, returned.get());
+        assertEquals(100, returned.getLong());
+        assertEquals(125, returned.getInt());
+        
+        ByteBuffer renewed = responses.get(2);
+        assertEquals(KioskProtocol.STATUS_OK, renewed.get());
+        assertEquals(101, renewed.getLong());
+        assertEquals((int) DUE.plusDays(14).toEpochDay(), renewed.getInt());
+    }
+    
+    @Test
+    void aFailedMessageDoesNotFailTheBatch() throws IOException {
+        byte[] body = body(request(KioskProtocol.OP_CARD_LOOKUP).writeString("unknown"),
+                           request(KioskProtocol.OP_RETURN).putLong(FakeBorrowService.REJECTED_ID),
+                           request(KioskProtocol.OP_RENEW).putLong(FakeBorrowService.BROKEN_ID),
+                           request(KioskProtocol.OP_RETURN).putLong(100));
+        
+        List<ByteBuffer> responses = responses(kioskService.process(new ByteArrayInputStream(body)));
+        
+        assertError(responses.get(0), KioskProtocol.STATUS_NOT_FOUND, "Patron not found");
+        assertError(responses.get(1), KioskProtocol.STATUS_REJECTED, "Book already returned");
+        assertError(responses.get(2), KioskProtocol.STATUS_ERROR, "Internal error");
+        assertEquals(KioskProtocol.STATUS_OK, responses.get(3).get());
+    }
+    
+    @Test
+    void answersMalformedMessagesWithBadRequest() throws IOException {
+        byte[] body = body(request((byte) 99),
+                           request(KioskProtocol.OP_BORROW).putLong(9),
+                           new MessageBuilder());
+        
+        List<ByteBuffer> responses = responses(kioskService.process(new ByteArrayInputStream(body)));
+        
+        assertError(responses.get(0), KioskProtocol.STATUS_BAD_REQUEST, "Unknown operation: 99");
+        assertError(responses.get(1), KioskProtocol.STATUS_BAD_REQUEST, "Truncated message");
+        assertError(responses.get(2), KioskProtocol.STATUS_BAD_REQUEST, "Truncated message");
+    }
+    
+    @Test
+    void answersAnEmptyBatchWithTheVersionOnly() throws IOException {
+        byte[] response = kioskService.process(new ByteArrayInputStream(new byte[] {KioskProtocol.VERSION}));
+        
+        assertEquals(1, response.length);
+        assertEquals(KioskProtocol.VERSION, response[0]);
+    }
+    
+    @Test
+    void rejectsBodiesItCannotFrame() {
+        byte[] wrongVersion = {2};
+        byte[] empty = {};
+        byte[] truncated = {KioskProtocol.VERSION, 0, 10, KioskProtocol.OP_RETURN};
+        MessageBuilder[] tooMany = new MessageBuilder[5];
+        for (int i = 0; i < tooMany.length; i++) {
+            tooMany[i] = request(KioskProtocol.OP_RETURN).putLong(100);
+        }
+        
+        assertThrows(BusinessRuleException.class, () -> kioskService.process(new ByteArrayInputStream(wrongVersion)));
+        assertThrows(BusinessRuleException.class, () -> kioskService.process(new ByteArrayInputStream(empty)));
+        assertThrows(BusinessRuleException.class, () -> kioskService.process(new ByteArrayInputStream(truncated)));
+        assertThrows(BusinessRuleException.class, () -> kioskService.process(new ByteArrayInputStream(body(tooMany))));
+    }
+    
+    private ByteBuffer single(MessageBuilder message) throws IOException {
+        List<ByteBuffer> responses = responses(kioskService.process(new ByteArrayInputStream(body(message))));
+        assertEquals(1, responses.size());
+        return responses.get(0);
+    }
+    
+    private static void assertError(ByteBuffer response, byte status, String message) {
+        assertEquals(status, response.get());
+        assertEquals(message, KioskProtocol.readString(response));
+        assertEquals(0, response.remaining());
+    }
+    
+    private static MessageBuilder request(byte op) {
+        return new MessageBuilder().put(op);
+    }
+    
+    private static byte[] body(MessageBuilder... messages) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(KioskProtocol.VERSION);
+        for (MessageBuilder message : messages) {
+            ByteBuffer buffer = message.buffer;
+            out.write(buffer.position() >>> 8);
+            out.write(buffer.position());
+            out.write(buffer.array(), 0, buffer.position());
+        }
+        return out.toByteArray();
+    }
+    
+    private static List<ByteBuffer> responses(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        assertEquals(KioskProtocol.VERSION, buffer.get());
+        List<ByteBuffer> responses = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int length = Short.toUnsignedInt(buffer.getShort());
+            responses.add(ByteBuffer.wrap(body, buffer.position(), length).slice());
+            buffer.position(buffer.position() + length);
+        }
+        return responses;
+    }
+    
+    private static BorrowRecord loan(long id, long bookId, LocalDate dueDate, String title) {
+        Book book = new Book();
+        book.setId(bookId);
+        book.setTitle(title);
+        BorrowRecord record = new BorrowRecord();
+        record.setId(id);
+        record.setBook(book);
+        record.setDueDate(dueDate);
+        return record;
+    }
+    
+    private static final class MessageBuilder {
+        
+        private final ByteBuffer buffer = ByteBuffer.allocate(256);
+        
+        MessageBuilder put(byte value) {
+            buffer.put(value);
+            return this;
+        }
+        
+        MessageBuilder putLong(long value) {
+            buffer.putLong(value);
+            return this;
+        }
+        
+        MessageBuilder writeString(String value) {
+            KioskProtocol.writeString(buffer, value, 200);
+            return this;
+        }
+    }
+    
+    private static final class FakePatronService extends PatronService {
+        
+        private String lastCardNumber;
+        
+        FakePatronService() {
+            super(null, null, null);
+        }
+        
+        @Override
+        public Patron findByLibraryCardNumber(String libraryCardNumber) {
+            lastCardNumber = libraryCardNumber;
+            if (!libraryCardNumber.startsWith("LC-")) {
+                throw new ResourceNotFoundException("Patron not found");
+            }
+            Patron patron = new Patron();
+            patron.setId(42L);
+            patron.setStatus(Patron.PatronStatus.ACTIVE);
+            return patron;
+        }
+    }
+    
+    private static final class FakeBorrowService extends BorrowService {
+        
+        static final long REJECTED_ID = 1;
+        static final long BROKEN_ID = 2;
+        
+        private final List<BorrowRecord> loans = new ArrayList<>();
+        private BorrowRequest lastBorrow;
+        
+        FakeBorrowService() {
+            super(null, null, null, null, null, null, null, null);
+        }
+        
+        @Override
+        public List<BorrowRecord> findActiveWithDetails(Long patronId) {
+            return loans;
+        }
+        
+        @Override
+        public BorrowRecord borrowBook(BorrowRequest request) {
+            lastBorrow = request;
+            return loan(500, request.getBookId(), DUE, "Borrowed");
+        }
+        
+        @Override
+        public BorrowRecord returnBook(Long borrowRecordId) {
+            if (borrowRecordId == REJECTED_ID) {
+                throw new BusinessRuleException("Book already returned");
+            }
+            BorrowRecord record = loan(borrowRecordId, 7, DUE, "Returned");
+            record.setFineAmount(1.25);
+            return record;
+        }
+        
+        @Override
+        public BorrowRecord renewBorrow(Long borrowRecordId) {
+            if (borrowRecordId == BROKEN_ID) {
+                throw new NullPointerException();
+            }
+            return loan(borrowRecordId, 7, DUE.plusDays(14), "Renewed");
+        }
+    }
+}
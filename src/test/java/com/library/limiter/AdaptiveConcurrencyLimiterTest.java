@@ -0,0 +1,117 @@
+package com.library.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private long now;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // nanoTime has an arbitrary origin, which may be negative
+        now = -TimeUnit.DAYS.toNanos(1);
+    }
+    
+    @Test
+    void admitsRequestsWhenTheClockIsNegative() {
+        AdaptiveConcurrencyLimiter limiter = limiter(true, 5);
+        
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        
+        assertNotNull(permit);
+        assertEquals(1, limiter.getInFlight());
+        permit.release();
+        assertEquals(0, limiter.getInFlight());
+    }
+    
+    @Test
+    void shedsOnceTheLimitIsReached() {
+        AdaptiveConcurrencyLimiter limiter = limiter(true, 3);
+        
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(limiter.tryAcquire());
+        }
+        
+        assertNull(limiter.tryAcquire());
+        assertEquals(1.0, meterRegistry.get("library.concurrency.rejected").counter().count(), 0.0);
+    }
+    
+    @Test
+    void releasingTwiceFreesOneSlot() {
+        AdaptiveConcurrencyLimiter limiter = limiter(true, 2);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        limiter.tryAcquire();
+        
+        first.release();
+        first.release();
+        
+        assertEquals(1, limiter.getInFlight());
+    }
+    
+    @Test
+    void disabledLimiterAdmitsEverything() {
+        AdaptiveConcurrencyLimiter limiter = limiter(false, 1);
+        
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(limiter.tryAcquire());
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+    
+    @Test
+    void limitShrinksWhenTheDatabaseSlowsDown() {
+        AdaptiveConcurrencyLimiter limiter = limiter(true, 20);
+        for (int i = 0; i < 20; i++) {
+            runConcurrently(limiter, 15, 5);
+        }
+        int healthyLimit = limiter.getLimit();
+        assertTrue(healthyLimit >= 20, "limit grows while latency holds: " + healthyLimit);
+        
+        // Slower queries leave more requests in flight at once
+        int rejected = 0;
+        for (int i = 0; i < 20; i++) {
+            rejected += runConcurrently(limiter, 40, 50);
+        }
+        
+        assertTrue(limiter.getLimit() < 15, "limit shrinks under slow queries: " + limiter.getLimit());
+        assertTrue(rejected > 0);
+        // The baseline only drifts towards the slow latency, so it keeps pushing the limit down
+        assertTrue(limiter.getLatencyBaselineMillis() < 10, "baseline " + limiter.getLatencyBaselineMillis());
+    }
+    
+    private AdaptiveConcurrencyLimiter limiter(boolean enabled, int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(enabled, initialLimit, 2, 100, 0.2, 1.5, 600, 10, 5,
+                                              meterRegistry, () -> now);
+    }
+    
+    // Starts up to the given number of requests together, lets each take the given latency and completes
+    // them; returns how many were shed
+    private int runConcurrently(AdaptiveConcurrencyLimiter limiter, int requests, long latencyMs) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        int rejected = 0;
+        for (int i = 0; i < requests; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            if (permit != null) {
+                permits.add(permit);
+            } else {
+                rejected++;
+            }
+        }
+        now += TimeUnit.MILLISECONDS.toNanos(latencyMs);
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::release);
+        return rejected;
+    }
+}
@@ -0,0 +1,114 @@
+package com.library.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitFilterTest {
+    
+    private long now;
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        limiter = new AdaptiveConcurrencyLimiter(true, 20, 2, 100, 0.2, 1.5, 600, 10, 5,
+                                                 new SimpleMeterRegistry(), () -> now);
+        filter = new ConcurrencyLimitFilter(limiter);
+    }
+    
+    @Test
+    void slowDatabaseShrinksTheLimitAndSheddingAnswers503() throws Exception {
+        // Requests whose queries take 5 ms set the baseline, then the database slows to 50 ms and requests
+        // pile up
+        for (int i = 0; i < 20; i++) {
+            runConcurrently(15, 5);
+        }
+        int healthyLimit = limiter.getLimit();
+        for (int i = 0; i < 20; i++) {
+            runConcurrently(40, 50);
+        }
+        int slowLimit = limiter.getLimit();
+        assertTrue(slowLimit < healthyLimit, slowLimit + " < " + healthyLimit);
+        
+        // Requests stuck on the slow database hold every slot
+        List<AdaptiveConcurrencyLimiter.Permit> stuck = new ArrayList<>();
+        for (int i = 0; i < slowLimit; i++) {
+            stuck.add(limiter.tryAcquire());
+        }
+        AtomicInteger handled = new AtomicInteger();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        filter.doFilter(request(), response, (req, res) -> handled.incrementAndGet());
+        
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"success\":false"));
+        assertEquals(0, handled.get());
+        
+        stuck.forEach(AdaptiveConcurrencyLimiter.Permit::release);
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(request(), admitted, (req, res) -> handled.incrementAndGet());
+        assertEquals(200, admitted.getStatus());
+        assertEquals(1, handled.get());
+    }
+    
+    @Test
+    void releasesThePermitWhenTheHandlerFails() {
+        FilterChain failing = (req, res) -> {
+            throw new IllegalStateException("query failed");
+        };
+        
+        assertThrows(IllegalStateException.class,
+                     () -> filter.doFilter(request(), new MockHttpServletResponse(), failing));
+        assertEquals(0, limiter.getInFlight());
+    }
+    
+    @Test
+    void circulationIsNeverShed() throws Exception {
+        for (int i = 0; i < limiter.getLimit(); i++) {
+            limiter.tryAcquire();
+        }
+        MockHttpServletRequest request = request();
+        request.setAttribute(LaneFilter.LANE_ATTRIBUTE, RequestLane.CIRCULATION);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicInteger handled = new AtomicInteger();
+        
+        filter.doFilter(request, response, (req, res) -> handled.incrementAndGet());
+        
+        assertEquals(200, response.getStatus());
+        assertEquals(1, handled.get());
+    }
+    
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/books");
+    }
+    
+    // Sends a request through the filter while others arrive alongside it; every query takes the given latency
+    private void runConcurrently(int requests, long latencyMs) throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> {
+            List<AdaptiveConcurrencyLimiter.Permit> others = new ArrayList<>();
+            for (int i = 1; i < requests; i++) {
+                AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+                if (permit != null) {
+                    others.add(permit);
+                }
+            }
+            now += TimeUnit.MILLISECONDS.toNanos(latencyMs);
+            others.forEach(AdaptiveConcurrencyLimiter.Permit::release);
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.library.limiter;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+    
+    private final AtomicInteger handled = new AtomicInteger();
+    private final FilterChain chain = (req, res) -> handled.incrementAndGet();
+    
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void aRequestRejectedByOneRuleDoesNotUseUpTheOthers() {
+        // The broad rule has room for three requests, the narrow one for a single request
+        RateLimiter limiter = limiter(rule("/api/**", RateLimitProperties.KeyType.IP, 3),
+                                      rule("/api/auth/login", RateLimitProperties.KeyType.IP, 1));
+        
+        assertEquals(0, limiter.acquire(request("/api/auth/login"), RateLimitProperties.KeyType.IP, null));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.acquire(request("/api/auth/login"), RateLimitProperties.KeyType.IP, null) > 0);
+        }
+        
+        assertEquals(0, limiter.acquire(request("/api/books"), RateLimitProperties.KeyType.IP, null));
+        assertEquals(0, limiter.acquire(request("/api/books"), RateLimitProperties.KeyType.IP, null));
+        assertTrue(limiter.acquire(request("/api/books"), RateLimitProperties.KeyType.IP, null) > 0);
+    }
+    
+    @Test
+    void appliesOnlyTheRulesOfItsKeyType() {
+        RateLimiter limiter = limiter(rule("/api/**", RateLimitProperties.KeyType.USER, 1));
+        
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.acquire(request("/api/books"), RateLimitProperties.KeyType.IP, null));
+        }
+        assertEquals(0, limiter.acquire(request("/api/books"), RateLimitProperties.KeyType.USER, "ada"));
+        assertTrue(limiter.acquire(request("/api/books"), RateLimitProperties.KeyType.USER, "ada") > 0);
+        assertEquals(0, limiter.acquire(request("/api/books"), RateLimitProperties.KeyType.USER, "grace"));
+    }
+    
+    @Test
+    void rejectsWithTooManyRequests() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(limiter(rule("/api/**", RateLimitProperties.KeyType.IP, 1)),
+                                                     RateLimitProperties.KeyType.IP);
+        filter.doFilter(request("/api/books"), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        filter.doFilter(request("/api/books"), response, chain);
+        
+        assertEquals(429, response.getStatus());
+        // One permit per 60000 s
+        assertEquals("60000", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"success\":false"));
+        assertEquals(1, handled.get());
+    }
+    
+    @Test
+    void bothInstancesRunOnTheSameRequest() throws Exception {
+        RateLimiter limiter = limiter(rule("/api/**", RateLimitProperties.KeyType.IP, 5),
+                                      rule("/api/**", RateLimitProperties.KeyType.USER, 1));
+        RateLimitFilter ipFilter = new RateLimitFilter(limiter, RateLimitProperties.KeyType.IP);
+        RateLimitFilter userFilter = new RateLimitFilter(limiter, RateLimitProperties.KeyType.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("ada", null, List.of()));
+        FilterChain throughUserFilter = (req, res) -> userFilter.doFilter(req, res, chain);
+        
+        ipFilter.doFilter(request("/api/books"), new MockHttpServletResponse(), throughUserFilter);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ipFilter.doFilter(request("/api/books"), response, throughUserFilter);
+        
+        assertEquals(429, response.getStatus());
+        assertEquals(1, handled.get());
+    }
+    
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+    
+    private static RateLimitProperties.Rule rule(String pattern, RateLimitProperties.KeyType key, int capacity) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPattern(pattern);
+        rule.setKey(key);
+        rule.setCapacity(capacity);
+        // Slow enough that nothing refills while the test runs
+        rule.setPermitsPerMinute(0.001);
+        return rule;
+    }
+    
+    private static RateLimiter limiter(RateLimitProperties.Rule... rules) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRules(List.of(rules));
+        return new RateLimiter(properties);
+    }
+}
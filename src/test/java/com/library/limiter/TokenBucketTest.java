@@ -0,0 +1,118 @@
+package com.library.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+    
+    // One permit every 100 ms
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    @Test
+    void allowsABurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(5, 10, 0);
+        
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(0));
+        assertEquals(INTERVAL / 2, bucket.tryAcquire(INTERVAL / 2));
+    }
+    
+    @Test
+    void rejectedAttemptsDoNotConsumePermits() {
+        TokenBucket bucket = new TokenBucket(1, 10, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+        
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryAcquire(0) > 0);
+        }
+        assertEquals(0, bucket.tryAcquire(INTERVAL));
+    }
+    
+    @Test
+    void peekingTakesNothing() {
+        TokenBucket bucket = new TokenBucket(1, 10, 0);
+        
+        assertEquals(0, bucket.peek(0));
+        assertEquals(0, bucket.peek(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(INTERVAL, bucket.peek(0));
+        assertEquals(0, bucket.peek(INTERVAL));
+    }
+    
+    @Test
+    void refillsAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+        
+        assertEquals(0, bucket.tryAcquire(INTERVAL));
+        assertTrue(bucket.tryAcquire(INTERVAL) > 0);
+        assertEquals(0, bucket.tryAcquire(3 * INTERVAL));
+        assertEquals(0, bucket.tryAcquire(3 * INTERVAL));
+        assertTrue(bucket.tryAcquire(3 * INTERVAL) > 0);
+    }
+    
+    @Test
+    void doesNotBankMoreThanCapacityWhileIdle() {
+        TokenBucket bucket = new TokenBucket(3, 10, 0);
+        long later = TimeUnit.HOURS.toNanos(1);
+        
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(later));
+    }
+    
+    @Test
+    void becomesIdleOnceFullForTheIdlePeriod() {
+        TokenBucket bucket = new TokenBucket(3, 10, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+        
+        assertFalse(bucket.isIdle(INTERVAL, INTERVAL));
+        assertFalse(bucket.isIdle(3 * INTERVAL, INTERVAL));
+        assertTrue(bucket.isIdle(3 * INTERVAL + 1, INTERVAL));
+    }
+    
+    @Test
+    void concurrentCallersNeverExceedCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(100, 0.001, 0);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 1_000; i++) {
+                        if (bucket.tryAcquire(0) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        
+        assertEquals(100, granted.get());
+    }
+}
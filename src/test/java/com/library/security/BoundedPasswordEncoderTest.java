@@ -0,0 +1,108 @@
+package com.library.security;
+
+import com.library.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+    
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch hashing = new CountDownLatch(1);
+    private final ThreadPoolTaskExecutor executor = executor();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    
+    @AfterEach
+    void shutDown() {
+        release.countDown();
+        callers.shutdownNow();
+        executor.shutdown();
+    }
+    
+    @Test
+    void delegatesHashing() {
+        BoundedPasswordEncoder encoder = encoder(1000);
+        
+        release.countDown();
+        
+        assertEquals("hashed:secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "hashed:secret"));
+        assertFalse(encoder.matches("guess", "hashed:secret"));
+    }
+    
+    @Test
+    void failsFastOnceTheQueueIsFull() throws Exception {
+        BoundedPasswordEncoder encoder = encoder(10_000);
+        // One hash running, one queued
+        Future<String> running = callers.submit(() -> encoder.encode("first"));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        Future<String> queued = callers.submit(() -> encoder.encode("second"));
+        while (executor.getThreadPoolExecutor().getQueue().isEmpty()) {
+            Thread.sleep(1);
+        }
+        
+        long start = System.nanoTime();
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                                                     () -> encoder.encode("third"));
+        
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, e.getRetryAfterSeconds());
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:second", queued.get(5, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void givesUpWhenTheExecutorStalls() {
+        BoundedPasswordEncoder encoder = encoder(50);
+        
+        assertThrows(ServiceUnavailableException.class, () -> encoder.encode("secret"));
+    }
+    
+    private BoundedPasswordEncoder encoder(long waitTimeoutMillis) {
+        return new BoundedPasswordEncoder(new LatchedEncoder(), executor, waitTimeoutMillis,
+                                          new SimpleMeterRegistry());
+    }
+    
+    private static ThreadPoolTaskExecutor executor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        return executor;
+    }
+    
+    // Holds every hash until the test releases it
+    private class LatchedEncoder implements PasswordEncoder {
+        
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+        
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TemplateRegistryTest {
+    
+    private final TemplateRegistry registry = new TemplateRegistry("en");
+    
+    @Test
+    void rendersTheRecipientsLocale() {
+        assertEquals("Cordialement,\nLa bibliothèque", registry.get("signature", Locale.FRENCH).format());
+        assertEquals("Best regards,\nLibrary Management System", registry.get("signature", Locale.ENGLISH).format());
+    }
+    
+    @Test
+    void fallsBackToTheBaseBundleForMissingKeys() {
+        assertEquals(registry.get("fine.subject").format(), registry.get("fine.subject", Locale.FRENCH).format());
+    }
+    
+    @Test
+    void aMissingLocaleMeansTheDefault() {
+        assertSame(registry.get("signature"), registry.get("signature", null));
+    }
+    
+    @Test
+    void rejectsUnknownKeys() {
+        assertThrows(IllegalArgumentException.class, () -> registry.get("no.such.template", Locale.FRENCH));
+    }
+}